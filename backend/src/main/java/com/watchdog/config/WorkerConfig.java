@@ -0,0 +1,75 @@
+package com.watchdog.config;
+
+import com.watchdog.service.probe.ProbeMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuration class for the monitor check workers.
+ * Defines the bounded thread pool that records probe results and the executor for @Async work.
+ */
+@Configuration
+public class WorkerConfig {
+
+    /**
+     * Bounded pool that records completed probe results (check rows, status changes, alerting),
+     * keeping that blocking database work off the probe engine's threads.
+     * The queue is sized to the in-flight caps of all probe engines together, while the pool size caps
+     * how many results are written at the same time. A probe's slot is freed before its result is
+     * recorded, so a burst of completions can still outgrow the queue; the completing thread then
+     * records the result itself, which slows the probes down instead of losing the result.
+     *
+     * @param poolSize        The maximum number of results recorded concurrently.
+     * @param maxHttpInFlight The maximum number of HTTP probes in flight.
+     * @param maxTcpInFlight  The maximum number of TCP probes in flight.
+     * @return A configured ThreadPoolTaskExecutor instance.
+     */
+    @Bean(name = "probeExecutor")
+    public ThreadPoolTaskExecutor probeExecutor(
+            @Value("${application.worker.probe-pool-size:32}") int poolSize,
+            @Value("${application.probe.http.max-in-flight:5000}") int maxHttpInFlight,
+            @Value("${application.probe.tcp.max-in-flight:10000}") int maxTcpInFlight) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(maxHttpInFlight + maxTcpInFlight);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("probe-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor picked up by @Async methods (by its bean name), replacing the unbounded default.
+     * In VIRTUAL probe mode each task gets its own virtual thread, capped by the concurrency limit;
+     * otherwise a bounded platform-thread pool is used.
+     *
+     * @param mode     The configured probe mode.
+     * @param poolSize The maximum number of concurrent @Async tasks.
+     * @return The executor for @Async work.
+     */
+    @Bean(name = "taskExecutor")
+    public AsyncTaskExecutor taskExecutor(
+            @Value("${application.probe.mode:VIRTUAL}") ProbeMode mode,
+            @Value("${application.worker.async-pool-size:16}") int poolSize) {
+        if (mode == ProbeMode.VIRTUAL) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-vt-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(poolSize);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("async-");
+        executor.initialize();
+        return executor;
+    }
+}
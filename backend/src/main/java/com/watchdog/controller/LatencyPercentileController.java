@@ -0,0 +1,66 @@
+package com.watchdog.controller;
+
+import com.watchdog.dto.LatencyPercentilesDTO;
+import com.watchdog.dto.LatencyPercentilesReportDTO;
+import com.watchdog.security.CustomUserDetails;
+import com.watchdog.service.rollup.LatencyPercentileService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response time percentiles of successful checks, merged from the rollups' latency histograms.
+ */
+@RestController
+@RequestMapping("/api")
+public class LatencyPercentileController {
+
+    private final LatencyPercentileService latencyPercentileService;
+
+    public LatencyPercentileController(LatencyPercentileService latencyPercentileService) {
+        this.latencyPercentileService = latencyPercentileService;
+    }
+
+    @GetMapping("/monitors/{monitorId}/checks/percentiles")
+    public ResponseEntity<LatencyPercentilesDTO> getPercentilesForMonitor(
+            @PathVariable Long monitorId,
+            @AuthenticationPrincipal CustomUserDetails authenticatedUser,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(defaultValue = "50,90,95,99") List<Double> percentiles) {
+        if (!isValid(percentiles)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (startTime == null) startTime = LocalDateTime.now().minusDays(1);
+        if (endTime == null) endTime = LocalDateTime.now();
+        return ResponseEntity.ok(latencyPercentileService.getMonitorPercentiles(
+                monitorId, authenticatedUser.getId(), startTime, endTime, percentiles));
+    }
+
+    /**
+     * Percentiles of several monitors (all of the user's monitors by default), per monitor and combined.
+     */
+    @GetMapping("/checks/percentiles")
+    public ResponseEntity<LatencyPercentilesReportDTO> getPercentiles(
+            @AuthenticationPrincipal CustomUserDetails authenticatedUser,
+            @RequestParam(required = false) List<Long> monitorIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(defaultValue = "50,90,95,99") List<Double> percentiles) {
+        if (!isValid(percentiles)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (startTime == null) startTime = LocalDateTime.now().minusDays(1);
+        if (endTime == null) endTime = LocalDateTime.now();
+        return ResponseEntity.ok(latencyPercentileService.getPercentiles(
+                authenticatedUser.getId(), monitorIds, startTime, endTime, percentiles));
+    }
+
+    private static boolean isValid(List<Double> percentiles) {
+        return !percentiles.isEmpty() && percentiles.stream().allMatch(p -> p != null && p > 0 && p <= 100);
+    }
+}
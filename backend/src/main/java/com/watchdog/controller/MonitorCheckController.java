@@ -1,7 +1,10 @@
 package com.watchdog.controller;
 
+import com.watchdog.dto.CheckRollupSeriesDTO;
 import com.watchdog.dto.MonitorCheckDTO;
 import com.watchdog.service.MonitorCheckService;
+import com.watchdog.service.rollup.CheckRollupService;
+import com.watchdog.service.rollup.RollupResolution;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -19,10 +22,12 @@ import java.util.List;
 public class MonitorCheckController {
 
     private final MonitorCheckService monitorCheckService;
+    private final CheckRollupService checkRollupService;
 
     @Autowired
-    public MonitorCheckController(MonitorCheckService monitorCheckService) {
+    public MonitorCheckController(MonitorCheckService monitorCheckService, CheckRollupService checkRollupService) {
         this.monitorCheckService = monitorCheckService;
+        this.checkRollupService = checkRollupService;
     }
 
     private Long getCurrentUserId() {
@@ -58,6 +63,26 @@ public class MonitorCheckController {
         return ResponseEntity.ok(checks);
     }
 
+    /**
+     * Aggregated checks for graphs: one entry per minute, hour or day. Without an explicit resolution
+     * the finest one that covers the range in a bounded number of buckets is used.
+     */
+    @GetMapping("/monitors/{monitorId}/checks/rollups")
+    public ResponseEntity<CheckRollupSeriesDTO> getCheckRollupsForMonitor(
+            @PathVariable Long monitorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) RollupResolution resolution) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(401).build();
+        }
+        if (startTime == null) startTime = LocalDateTime.now().minusDays(1);
+        if (endTime == null) endTime = LocalDateTime.now();
+        CheckRollupSeriesDTO rollups = checkRollupService.getRollups(monitorId, userId, startTime, endTime, resolution);
+        return ResponseEntity.ok(rollups);
+    }
+
     // NEW ENDPOINT to get all checks for a user, regardless of monitor
     @GetMapping("/checks/all")
     public ResponseEntity<Page<MonitorCheckDTO>> getAllChecksForUser(
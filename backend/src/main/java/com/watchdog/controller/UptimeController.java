@@ -0,0 +1,29 @@
+package com.watchdog.controller;
+
+import com.watchdog.dto.MonitorUptimeDTO;
+import com.watchdog.security.CustomUserDetails;
+import com.watchdog.service.uptime.UptimeService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Uptime of all of the user's monitors over the last 24 hours, 7, 30 and 90 days, read from running counters.
+ */
+@RestController
+@RequestMapping("/api/monitors")
+public class UptimeController {
+
+    private final UptimeService uptimeService;
+
+    public UptimeController(UptimeService uptimeService) {
+        this.uptimeService = uptimeService;
+    }
+
+    @GetMapping("/uptime")
+    public ResponseEntity<List<MonitorUptimeDTO>> getUptime(@AuthenticationPrincipal CustomUserDetails authenticatedUser) {
+        return ResponseEntity.ok(uptimeService.getUptimeForUser(authenticatedUser.getId()));
+    }
+}
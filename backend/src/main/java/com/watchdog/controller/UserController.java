@@ -0,0 +1,33 @@
+package com.watchdog.controller;
+
+import com.watchdog.dto.UpdateCheckRetentionRequest;
+import com.watchdog.dto.UserDTO;
+import com.watchdog.security.CustomUserDetails;
+import com.watchdog.service.UserService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    private final UserService userService;
+
+    public UserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    @GetMapping("/me")
+    public ResponseEntity<UserDTO> getAuthenticatedUser(@AuthenticationPrincipal CustomUserDetails authenticatedUser) {
+        return ResponseEntity.ok(userService.getUser(authenticatedUser.getId()));
+    }
+
+    @PutMapping("/me/check-retention")
+    public ResponseEntity<UserDTO> updateCheckRetention(
+            @AuthenticationPrincipal CustomUserDetails authenticatedUser,
+            @Valid @RequestBody UpdateCheckRetentionRequest request) {
+        return ResponseEntity.ok(userService.updateCheckRetention(authenticatedUser.getId(), request));
+    }
+}
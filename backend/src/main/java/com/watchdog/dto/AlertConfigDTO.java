@@ -14,6 +14,7 @@ public class AlertConfigDTO {
     private Boolean enabled;
     private Integer failureThreshold; // Added to match the entity
     private Integer recoveryThreshold; // Added to match the entity
+    private Integer throttleMinutes;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -91,4 +92,12 @@ public class AlertConfigDTO {
     public void setRecoveryThreshold(Integer recoveryThreshold) {
         this.recoveryThreshold = recoveryThreshold;
     }
-}
\ No newline at end of file
+
+    public Integer getThrottleMinutes() {
+        return throttleMinutes;
+    }
+
+    public void setThrottleMinutes(Integer throttleMinutes) {
+        this.throttleMinutes = throttleMinutes;
+    }
+}
@@ -0,0 +1,120 @@
+package com.watchdog.dto;
+
+import com.watchdog.entity.MonitorCheck;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class CheckRollupDTO {
+    private LocalDateTime bucketStart;
+    private long checkCount;
+    private long upCount;
+    private Double uptimePercentage;
+    private long downtimeSeconds; // check interval of every failed check
+
+    // Response time statistics of the successful checks in the bucket
+    private Long minResponseTimeMs;
+    private Long avgResponseTimeMs;
+    private Long maxResponseTimeMs;
+    private Long p50ResponseTimeMs;
+    private Long p95ResponseTimeMs;
+    private Long p99ResponseTimeMs;
+
+    private Map<MonitorCheck.ErrorCategory, Long> errorCounts;
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getCheckCount() {
+        return checkCount;
+    }
+
+    public void setCheckCount(long checkCount) {
+        this.checkCount = checkCount;
+    }
+
+    public long getUpCount() {
+        return upCount;
+    }
+
+    public void setUpCount(long upCount) {
+        this.upCount = upCount;
+    }
+
+    public Double getUptimePercentage() {
+        return uptimePercentage;
+    }
+
+    public void setUptimePercentage(Double uptimePercentage) {
+        this.uptimePercentage = uptimePercentage;
+    }
+
+    public long getDowntimeSeconds() {
+        return downtimeSeconds;
+    }
+
+    public void setDowntimeSeconds(long downtimeSeconds) {
+        this.downtimeSeconds = downtimeSeconds;
+    }
+
+    public Long getMinResponseTimeMs() {
+        return minResponseTimeMs;
+    }
+
+    public void setMinResponseTimeMs(Long minResponseTimeMs) {
+        this.minResponseTimeMs = minResponseTimeMs;
+    }
+
+    public Long getAvgResponseTimeMs() {
+        return avgResponseTimeMs;
+    }
+
+    public void setAvgResponseTimeMs(Long avgResponseTimeMs) {
+        this.avgResponseTimeMs = avgResponseTimeMs;
+    }
+
+    public Long getMaxResponseTimeMs() {
+        return maxResponseTimeMs;
+    }
+
+    public void setMaxResponseTimeMs(Long maxResponseTimeMs) {
+        this.maxResponseTimeMs = maxResponseTimeMs;
+    }
+
+    public Long getP50ResponseTimeMs() {
+        return p50ResponseTimeMs;
+    }
+
+    public void setP50ResponseTimeMs(Long p50ResponseTimeMs) {
+        this.p50ResponseTimeMs = p50ResponseTimeMs;
+    }
+
+    public Long getP95ResponseTimeMs() {
+        return p95ResponseTimeMs;
+    }
+
+    public void setP95ResponseTimeMs(Long p95ResponseTimeMs) {
+        this.p95ResponseTimeMs = p95ResponseTimeMs;
+    }
+
+    public Long getP99ResponseTimeMs() {
+        return p99ResponseTimeMs;
+    }
+
+    public void setP99ResponseTimeMs(Long p99ResponseTimeMs) {
+        this.p99ResponseTimeMs = p99ResponseTimeMs;
+    }
+
+    public Map<MonitorCheck.ErrorCategory, Long> getErrorCounts() {
+        return errorCounts;
+    }
+
+    public void setErrorCounts(Map<MonitorCheck.ErrorCategory, Long> errorCounts) {
+        this.errorCounts = errorCounts;
+    }
+}
@@ -0,0 +1,54 @@
+package com.watchdog.dto;
+
+import com.watchdog.service.rollup.RollupResolution;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class CheckRollupSeriesDTO {
+    private Long monitorId;
+    private RollupResolution resolution;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private List<CheckRollupDTO> rollups;
+
+    public Long getMonitorId() {
+        return monitorId;
+    }
+
+    public void setMonitorId(Long monitorId) {
+        this.monitorId = monitorId;
+    }
+
+    public RollupResolution getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(RollupResolution resolution) {
+        this.resolution = resolution;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public List<CheckRollupDTO> getRollups() {
+        return rollups;
+    }
+
+    public void setRollups(List<CheckRollupDTO> rollups) {
+        this.rollups = rollups;
+    }
+}
@@ -3,6 +3,7 @@ package com.watchdog.dto;
 import com.watchdog.entity.AlertConfiguration;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 
 // Corrected CreateAlertConfigRequest
 public class CreateAlertConfigRequest {
@@ -21,6 +22,9 @@ public class CreateAlertConfigRequest {
     @NotNull(message = "Recovery threshold cannot be null")
     private Integer recoveryThreshold; // Added to match the entity
 
+    @PositiveOrZero(message = "Throttle minutes cannot be negative")
+    private Integer throttleMinutes; // Optional; null uses the default throttle window
+
     // Getters and Setters...
     // All existing getters and setters are still here, but I've omitted them
     // for brevity. You just need to add the new ones for the thresholds.
@@ -65,4 +69,12 @@ public class CreateAlertConfigRequest {
     public void setRecoveryThreshold(Integer recoveryThreshold) {
         this.recoveryThreshold = recoveryThreshold;
     }
+
+    public Integer getThrottleMinutes() {
+        return throttleMinutes;
+    }
+
+    public void setThrottleMinutes(Integer throttleMinutes) {
+        this.throttleMinutes = throttleMinutes;
+    }
 }
@@ -5,10 +5,11 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
 public class CreateMonitorRequest {
     @NotBlank(message = "URL cannot be empty")
-    @Pattern(regexp = "^(http|https)://[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}(/\\S*)?$", message = "Invalid URL format")
+    @Pattern(regexp = "^(http|https|tcp)://[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}(:\\d{1,5})?(/\\S*)?$", message = "Invalid URL format")
     private String url;
 
     @NotNull(message = "Check interval cannot be null")
@@ -18,11 +19,18 @@ public class CreateMonitorRequest {
     @NotNull(message = "Monitor type cannot be null")
     private Monitor.MonitorType type;
 
-    public @NotBlank(message = "URL cannot be empty") @Pattern(regexp = "^(http|https)://[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}(/\\S*)?$", message = "Invalid URL format") String getUrl() {
+    // Optional: one expected text per line; every line must appear in the response body
+    @Size(max = 255, message = "Content match string must be at most 255 characters")
+    private String contentMatchString;
+
+    // Optional: skip connection reuse and TLS session resumption for this monitor
+    private boolean coldConnection;
+
+    public @NotBlank(message = "URL cannot be empty") @Pattern(regexp = "^(http|https|tcp)://[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}(:\\d{1,5})?(/\\S*)?$", message = "Invalid URL format") String getUrl() {
         return url;
     }
 
-    public void setUrl(@NotBlank(message = "URL cannot be empty") @Pattern(regexp = "^(http|https)://[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}(/\\S*)?$", message = "Invalid URL format") String url) {
+    public void setUrl(@NotBlank(message = "URL cannot be empty") @Pattern(regexp = "^(http|https|tcp)://[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}(:\\d{1,5})?(/\\S*)?$", message = "Invalid URL format") String url) {
         this.url = url;
     }
 
@@ -41,4 +49,20 @@ public class CreateMonitorRequest {
     public void setType(@NotNull(message = "Monitor type cannot be null") Monitor.MonitorType type) {
         this.type = type;
     }
+
+    public String getContentMatchString() {
+        return contentMatchString;
+    }
+
+    public void setContentMatchString(String contentMatchString) {
+        this.contentMatchString = contentMatchString;
+    }
+
+    public boolean isColdConnection() {
+        return coldConnection;
+    }
+
+    public void setColdConnection(boolean coldConnection) {
+        this.coldConnection = coldConnection;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.watchdog.dto;
+
+import java.util.Map;
+
+public class LatencyPercentilesDTO {
+    private Long monitorId; // null for the combined percentiles of several monitors
+    private long sampleCount; // successful checks the percentiles are based on
+    private Long minResponseTimeMs;
+    private Long maxResponseTimeMs;
+    private Map<String, Long> percentiles; // e.g. "p50" -> 120, "p99.9" -> 870
+
+    public Long getMonitorId() {
+        return monitorId;
+    }
+
+    public void setMonitorId(Long monitorId) {
+        this.monitorId = monitorId;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    public Long getMinResponseTimeMs() {
+        return minResponseTimeMs;
+    }
+
+    public void setMinResponseTimeMs(Long minResponseTimeMs) {
+        this.minResponseTimeMs = minResponseTimeMs;
+    }
+
+    public Long getMaxResponseTimeMs() {
+        return maxResponseTimeMs;
+    }
+
+    public void setMaxResponseTimeMs(Long maxResponseTimeMs) {
+        this.maxResponseTimeMs = maxResponseTimeMs;
+    }
+
+    public Map<String, Long> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(Map<String, Long> percentiles) {
+        this.percentiles = percentiles;
+    }
+}
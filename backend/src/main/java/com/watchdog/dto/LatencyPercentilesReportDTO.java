@@ -0,0 +1,43 @@
+package com.watchdog.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class LatencyPercentilesReportDTO {
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private LatencyPercentilesDTO combined;
+    private List<LatencyPercentilesDTO> monitors;
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public LatencyPercentilesDTO getCombined() {
+        return combined;
+    }
+
+    public void setCombined(LatencyPercentilesDTO combined) {
+        this.combined = combined;
+    }
+
+    public List<LatencyPercentilesDTO> getMonitors() {
+        return monitors;
+    }
+
+    public void setMonitors(List<LatencyPercentilesDTO> monitors) {
+        this.monitors = monitors;
+    }
+}
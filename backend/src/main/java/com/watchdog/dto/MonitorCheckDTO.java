@@ -17,6 +17,7 @@ public class MonitorCheckDTO {
     private MonitorCheck.ErrorCategory errorCategory;
     private Long dnsTimeMs;
     private Long connectTimeMs;
+    private Long tlsTimeMs;
     private Long ttfbMs;
 
     public void setErrorMessage(String errorMessage) {
@@ -108,6 +109,14 @@ public class MonitorCheckDTO {
         this.connectTimeMs = connectTimeMs;
     }
 
+    public Long getTlsTimeMs() {
+        return tlsTimeMs;
+    }
+
+    public void setTlsTimeMs(Long tlsTimeMs) {
+        this.tlsTimeMs = tlsTimeMs;
+    }
+
     public Long getTtfbMs() {
         return ttfbMs;
     }
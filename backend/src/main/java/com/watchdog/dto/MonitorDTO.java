@@ -14,6 +14,8 @@ public class MonitorDTO {
     private Monitor.MonitorStatus status;
     private LocalDateTime lastCheckedAt;
     private LocalDateTime lastStatusChangeAt;
+    private String contentMatchString;
+    private boolean coldConnection;
     private LocalDateTime createdAt;
 
     public Monitor.MonitorStatus getStatus() {
@@ -32,6 +34,22 @@ public class MonitorDTO {
         this.lastStatusChangeAt = lastStatusChangeAt;
     }
 
+    public String getContentMatchString() {
+        return contentMatchString;
+    }
+
+    public void setContentMatchString(String contentMatchString) {
+        this.contentMatchString = contentMatchString;
+    }
+
+    public boolean isColdConnection() {
+        return coldConnection;
+    }
+
+    public void setColdConnection(boolean coldConnection) {
+        this.coldConnection = coldConnection;
+    }
+
     public LocalDateTime getLastCheckedAt() {
         return lastCheckedAt;
     }
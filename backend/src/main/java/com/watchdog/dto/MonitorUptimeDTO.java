@@ -0,0 +1,33 @@
+package com.watchdog.dto;
+
+import java.util.Map;
+
+public class MonitorUptimeDTO {
+    private Long monitorId;
+    private String url;
+    private Map<String, UptimeWindowDTO> windows; // "24h", "7d", "30d", "90d"
+
+    public Long getMonitorId() {
+        return monitorId;
+    }
+
+    public void setMonitorId(Long monitorId) {
+        this.monitorId = monitorId;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public Map<String, UptimeWindowDTO> getWindows() {
+        return windows;
+    }
+
+    public void setWindows(Map<String, UptimeWindowDTO> windows) {
+        this.windows = windows;
+    }
+}
@@ -0,0 +1,24 @@
+package com.watchdog.dto;
+
+import com.watchdog.entity.User;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+
+public class UpdateCheckRetentionRequest {
+    @NotNull(message = "Check retention cannot be null")
+    private Integer checkRetentionDays;
+
+    public Integer getCheckRetentionDays() {
+        return checkRetentionDays;
+    }
+
+    public void setCheckRetentionDays(Integer checkRetentionDays) {
+        this.checkRetentionDays = checkRetentionDays;
+    }
+
+    // Checks are stored and expired per tier, so other retentions cannot be honoured
+    @AssertTrue(message = "Check retention must be 7, 30, 90 or 365 days")
+    public boolean isSupportedCheckRetention() {
+        return checkRetentionDays == null || User.CHECK_RETENTION_TIERS.contains(checkRetentionDays);
+    }
+}
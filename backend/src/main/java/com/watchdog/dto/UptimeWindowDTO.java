@@ -0,0 +1,40 @@
+package com.watchdog.dto;
+
+public class UptimeWindowDTO {
+    private long checkCount;
+    private long upCount;
+    private Double uptimePercentage; // null if there were no checks in the window
+    private long downtimeSeconds; // the check interval per failed check
+
+    public long getCheckCount() {
+        return checkCount;
+    }
+
+    public void setCheckCount(long checkCount) {
+        this.checkCount = checkCount;
+    }
+
+    public long getUpCount() {
+        return upCount;
+    }
+
+    public void setUpCount(long upCount) {
+        this.upCount = upCount;
+    }
+
+    public Double getUptimePercentage() {
+        return uptimePercentage;
+    }
+
+    public void setUptimePercentage(Double uptimePercentage) {
+        this.uptimePercentage = uptimePercentage;
+    }
+
+    public long getDowntimeSeconds() {
+        return downtimeSeconds;
+    }
+
+    public void setDowntimeSeconds(long downtimeSeconds) {
+        this.downtimeSeconds = downtimeSeconds;
+    }
+}
@@ -10,6 +10,7 @@ public class UserDTO {
     private String email;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private int checkRetentionDays;
 
     public Long getId() {
         return id;
@@ -42,4 +43,12 @@ public class UserDTO {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+
+    public int getCheckRetentionDays() {
+        return checkRetentionDays;
+    }
+
+    public void setCheckRetentionDays(int checkRetentionDays) {
+        this.checkRetentionDays = checkRetentionDays;
+    }
+}
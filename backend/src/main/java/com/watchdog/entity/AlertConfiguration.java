@@ -34,6 +34,8 @@ public class AlertConfiguration {
 
     private Integer recoveryThreshold; // e.g., 3 consecutive successes before alerting UP
 
+    private Integer throttleMinutes; // Minimum time between alerts; null for the default, 0 for no throttling
+
     @Column(nullable = false)
     private Boolean enabled = true; // Is this alert configuration active?
 
@@ -91,6 +93,14 @@ public class AlertConfiguration {
         this.recoveryThreshold = recoveryThreshold;
     }
 
+    public Integer getThrottleMinutes() {
+        return throttleMinutes;
+    }
+
+    public void setThrottleMinutes(Integer throttleMinutes) {
+        this.throttleMinutes = throttleMinutes;
+    }
+
     public Boolean getEnabled() {
         return enabled;
     }
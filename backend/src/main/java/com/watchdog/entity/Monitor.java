@@ -9,6 +9,10 @@ import org.hibernate.type.SqlTypes; // Import SqlTypes
 
 @Entity
 @Table(name = "monitors")
+// A leased monitor together with its owner's check retention (see MonitorRepository.findAndLockMonitorsForCheck)
+@SqlResultSetMapping(name = "Monitor.withCheckRetention",
+        entities = @EntityResult(entityClass = Monitor.class),
+        columns = @ColumnResult(name = "check_retention_days", type = Integer.class))
 public class Monitor {
 
     public enum MonitorType {
@@ -55,6 +59,10 @@ public class Monitor {
 
     private String httpMethod; // e.g., GET, POST, HEAD
 
+    // Always open a new connection with a full TLS handshake, to measure the complete handshake cost
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean coldConnection;
+
     // Optional: JSON string or custom object to store HTTP headers
     @Column(columnDefinition = "jsonb")
     @JdbcTypeCode(SqlTypes.JSON) // This annotation tells Hibernate to treat the String as JSONB
@@ -81,6 +89,30 @@ public class Monitor {
 
     private LocalDateTime nextCheckAt;
 
+    // Worker lease: the node currently probing this monitor and when its claim runs out
+    private String claimedBy;
+
+    private LocalDateTime leaseExpiresAt;
+
+    // Length of the current run of failed/successful checks; one of the two is always 0
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int consecutiveFailures;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int consecutiveSuccesses;
+
+    // The owner's check retention, loaded with the lease so that ingestion need not look it up
+    @Transient
+    private Integer checkRetentionDays;
+
+    public Integer getCheckRetentionDays() {
+        return checkRetentionDays;
+    }
+
+    public void setCheckRetentionDays(Integer checkRetentionDays) {
+        this.checkRetentionDays = checkRetentionDays;
+    }
+
     public LocalDateTime getNextCheckAt() {
         return nextCheckAt;
     }
@@ -89,6 +121,38 @@ public class Monitor {
         this.nextCheckAt = nextCheckAt;
     }
 
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public void setConsecutiveFailures(int consecutiveFailures) {
+        this.consecutiveFailures = consecutiveFailures;
+    }
+
+    public int getConsecutiveSuccesses() {
+        return consecutiveSuccesses;
+    }
+
+    public void setConsecutiveSuccesses(int consecutiveSuccesses) {
+        this.consecutiveSuccesses = consecutiveSuccesses;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -162,6 +226,14 @@ public class Monitor {
         this.contentMatchString = contentMatchString;
     }
 
+    public boolean isColdConnection() {
+        return coldConnection;
+    }
+
+    public void setColdConnection(boolean coldConnection) {
+        this.coldConnection = coldConnection;
+    }
+
     public String getHttpMethod() {
         return httpMethod;
     }
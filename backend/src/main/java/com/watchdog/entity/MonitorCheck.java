@@ -3,6 +3,9 @@ package com.watchdog.entity;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+// The table is range-partitioned by day on timestamp (db/migration/V1__partition_monitor_checks.sql),
+// and each day by the retention tier (V7__monitor_checks_retention_tiers.sql); its primary key is
+// (id, timestamp) and expired partitions are dropped by CheckRetentionService.
 @Entity
 @Table(name = "monitor_checks")
 public class MonitorCheck {
@@ -49,10 +52,18 @@ public class MonitorCheck {
     @Enumerated(EnumType.STRING)
     private ErrorCategory errorCategory = ErrorCategory.NONE;
 
-    // A breakdown of the total response time for more detailed analysis
+    // A breakdown of the total response time for more detailed analysis.
+    // Measured per phase by the default VIRTUAL probe mode (and PLATFORM). The opt-in ASYNC mode
+    // observes DNS only and leaves the other phases null, since HttpClient does not separate them,
+    // except for cold-connection monitors, which it checks with the instrumented client too.
     private Long dnsTimeMs;      // Time spent on DNS lookup
     private Long connectTimeMs;  // Time spent connecting to the server
-    private Long ttfbMs;         // Time to First Byte
+    private Long tlsTimeMs;      // Time spent on the TLS handshake (null for plain HTTP)
+    private Long ttfbMs;         // Time to First Byte, from sending the request
+
+    // The owner's check retention tier when the check was written; decides the partition it is kept in
+    @Column(nullable = false)
+    private Integer retentionDays;
 
     // Getters and Setters
     public Long getId() {
@@ -144,6 +155,14 @@ public class MonitorCheck {
         this.connectTimeMs = connectTimeMs;
     }
 
+    public Long getTlsTimeMs() {
+        return tlsTimeMs;
+    }
+
+    public void setTlsTimeMs(Long tlsTimeMs) {
+        this.tlsTimeMs = tlsTimeMs;
+    }
+
     public Long getTtfbMs() {
         return ttfbMs;
     }
@@ -152,6 +171,14 @@ public class MonitorCheck {
         this.ttfbMs = ttfbMs;
     }
 
+    public Integer getRetentionDays() {
+        return retentionDays;
+    }
+
+    public void setRetentionDays(Integer retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
     @PrePersist
     protected void onCreate() {
         this.timestamp = LocalDateTime.now();
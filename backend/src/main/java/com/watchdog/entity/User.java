@@ -3,12 +3,17 @@ package com.watchdog.entity;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Entity
 @Table(name = "users") // Renamed to 'users' to avoid potential conflicts with 'user' keyword in some DBs
 public class User {
 
+    // The check retentions a user can choose, in days. Each has its own sub-partition of every daily
+    // partition of monitor_checks, which is dropped when the tier's retention has passed.
+    public static final List<Integer> CHECK_RETENTION_TIERS = List.of(7, 30, 90, 365);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -24,6 +29,10 @@ public class User {
 
     private LocalDateTime updatedAt;
 
+    // How many days of check history are kept for this user's monitors; one of CHECK_RETENTION_TIERS
+    @Column(nullable = false, columnDefinition = "integer default 30")
+    private int checkRetentionDays = 30;
+
     // A user can have multiple monitors
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Monitor> monitors = new HashSet<>();
@@ -69,6 +78,14 @@ public class User {
         this.updatedAt = updatedAt;
     }
 
+    public int getCheckRetentionDays() {
+        return checkRetentionDays;
+    }
+
+    public void setCheckRetentionDays(int checkRetentionDays) {
+        this.checkRetentionDays = checkRetentionDays;
+    }
+
     public Set<Monitor> getMonitors() {
         return monitors;
     }
@@ -86,4 +103,17 @@ public class User {
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
     }
-}
\ No newline at end of file
+
+    /**
+     * @param retentionDays A retention in days.
+     * @return The shortest retention tier that keeps checks at least that long, or the longest tier.
+     */
+    public static int checkRetentionTier(int retentionDays) {
+        for (int tier : CHECK_RETENTION_TIERS) {
+            if (retentionDays <= tier) {
+                return tier;
+            }
+        }
+        return CHECK_RETENTION_TIERS.get(CHECK_RETENTION_TIERS.size() - 1);
+    }
+}
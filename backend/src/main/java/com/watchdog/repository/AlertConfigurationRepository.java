@@ -46,6 +46,14 @@ public interface AlertConfigurationRepository extends JpaRepository<AlertConfigu
      */
     List<AlertConfiguration> findByMonitorAndEnabled(Monitor monitor, Boolean enabled);
 
+    /**
+     * Finds all enabled alert configurations for a specific monitor, without loading the monitor.
+     * @param monitorId The ID of the monitor.
+     * @param enabled If the configuration is enabled.
+     * @return A list of enabled AlertConfigurations for the monitor; empty if the monitor does not exist.
+     */
+    List<AlertConfiguration> findByMonitor_IdAndEnabled(Long monitorId, Boolean enabled);
+
     @Modifying
     @Transactional
     void deleteAllByMonitorId(Long monitorId);
@@ -0,0 +1,106 @@
+package com.watchdog.repository;
+
+import com.watchdog.entity.AlertHistory;
+import com.watchdog.service.notification.AlertNotification;
+import com.watchdog.service.notification.PendingAlert;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain JDBC access to alert_history for recording delivery outcomes and throttled alerts.
+ *
+ * AlertHistory uses IDENTITY ids, which stops Hibernate from batching inserts; a digest records
+ * an outcome for each of its alerts, so those rows are written with a JDBC batch instead. The same
+ * goes for the throttled alerts of a batch of checks.
+ *
+ * Messages and failure reasons are cut to the column length before they are bound: one overlong
+ * value would fail the whole batch and lose the history of every alert in it.
+ */
+@Repository
+public class AlertHistoryBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO alert_history (monitor_id, alert_config_id, timestamp, "
+            + "message, status, failure_reason) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // message and failure_reason are varchar(255), Hibernate's default for AlertHistory's strings
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final String ELLIPSIS = "...";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AlertHistoryBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts one history entry per notification in one JDBC batch.
+     *
+     * @param suffix        Appended to each notification's message.
+     * @param failureReason The reason of a failure, or null.
+     */
+    public void insertAll(List<AlertNotification> notifications, LocalDateTime timestamp, String suffix,
+                          AlertHistory.AlertStatus status, String failureReason) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AlertNotification notification = notifications.get(i);
+                ps.setLong(1, notification.monitorId());
+                ps.setLong(2, notification.alertConfigId());
+                ps.setTimestamp(3, Timestamp.valueOf(timestamp));
+                ps.setString(4, truncate(notification.message() + suffix));
+                ps.setString(5, status.name());
+                ps.setString(6, truncate(failureReason));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return notifications.size();
+            }
+        });
+    }
+
+    /**
+     * Inserts one history entry per alert in one JDBC batch, in the caller's transaction,
+     * timestamped with the alert's creation time.
+     *
+     * @param suffix Appended to each alert's message.
+     */
+    public void insertPending(List<PendingAlert> alerts, String suffix, AlertHistory.AlertStatus status) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PendingAlert alert = alerts.get(i);
+                ps.setLong(1, alert.monitorId());
+                ps.setLong(2, alert.alertConfigId());
+                ps.setTimestamp(3, Timestamp.valueOf(alert.createdAt()));
+                ps.setString(4, truncate(alert.message() + suffix));
+                ps.setString(5, status.name());
+                ps.setString(6, null);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return alerts.size();
+            }
+        });
+    }
+
+    private static String truncate(String text) {
+        if (text == null || text.length() <= MAX_TEXT_LENGTH) {
+            return text;
+        }
+        int end = MAX_TEXT_LENGTH - ELLIPSIS.length();
+        // Do not split a surrogate pair
+        if (Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end) + ELLIPSIS;
+    }
+}
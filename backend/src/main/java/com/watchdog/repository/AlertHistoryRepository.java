@@ -1,6 +1,5 @@
 package com.watchdog.repository;
 
-import com.watchdog.entity.AlertConfiguration;
 import com.watchdog.entity.AlertHistory;
 import com.watchdog.entity.Monitor;
 import org.springframework.data.domain.Page;
@@ -34,17 +33,6 @@ public interface AlertHistoryRepository extends JpaRepository<AlertHistory, Long
      */
     Page<AlertHistory> findByMonitorAndTimestampBetweenOrderByTimestampDesc(Monitor monitor, LocalDateTime startTime, LocalDateTime endTime, Pageable pageable);
 
-    /**
-     * Finds the latest alert sent for a given monitor and alert configuration.
-     * This can be used for implementing alert throttling.
-     * @param monitor The Monitor entity.
-     * @param alertConfiguration The AlertConfiguration entity.
-     * @param pageable A Pageable object to limit to 1 result. Use PageRequest.of(0, 1).
-     * @return A Page containing the latest AlertHistory record (or empty if none).
-     */
-    Page<AlertHistory> findByMonitorAndAlertConfigurationOrderByTimestampDesc(Monitor monitor, AlertConfiguration alertConfiguration, Pageable pageable);
-
-
     /**
      * Retrieves paginated alert history for a specific user across all their monitors,
      * within a specified time range, ordered by timestamp descending.
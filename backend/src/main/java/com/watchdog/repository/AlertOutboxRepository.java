@@ -0,0 +1,143 @@
+package com.watchdog.repository;
+
+import com.watchdog.entity.AlertConfiguration;
+import com.watchdog.service.notification.AlertEvent;
+import com.watchdog.service.notification.AlertNotification;
+import com.watchdog.service.notification.PendingAlert;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Plain JDBC access to alert_outbox, the queue of alert notifications waiting to be delivered.
+ */
+@Repository
+public class AlertOutboxRepository {
+
+    private static final RowMapper<AlertNotification> ROW_MAPPER = (rs, rowNum) -> new AlertNotification(
+            rs.getLong("id"),
+            rs.getLong("monitor_id"),
+            rs.getLong("alert_config_id"),
+            AlertConfiguration.AlertType.valueOf(rs.getString("alert_type")),
+            rs.getString("event") != null ? AlertEvent.valueOf(rs.getString("event")) : null,
+            rs.getString("destination"),
+            rs.getString("message"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getInt("attempts"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AlertOutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Queues alerts in one JDBC batch, in the caller's transaction.
+     *
+     * @param delay How long after its creation each alert becomes available for delivery.
+     */
+    public void insertAll(List<PendingAlert> alerts, Duration delay) {
+        jdbcTemplate.batchUpdate("INSERT INTO alert_outbox (monitor_id, alert_config_id, alert_type, event, destination, "
+                + "message, created_at, available_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PendingAlert alert = alerts.get(i);
+                ps.setLong(1, alert.monitorId());
+                ps.setLong(2, alert.alertConfigId());
+                ps.setString(3, alert.type().name());
+                ps.setString(4, alert.event().name());
+                ps.setString(5, alert.destination());
+                ps.setString(6, alert.message());
+                ps.setTimestamp(7, Timestamp.valueOf(alert.createdAt()));
+                ps.setTimestamp(8, Timestamp.valueOf(alert.createdAt().plus(delay)));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return alerts.size();
+            }
+        });
+    }
+
+    /**
+     * Claims the due notifications of up to limit destinations of one channel, those due longest
+     * first, and counts the attempt. Along with a due destination's notifications, those of its new
+     * ones that only wait for their coalescing window to end (at most horizon) are claimed as well,
+     * so they are delivered together. Rows claimed by a concurrent caller are skipped rather than
+     * waited for.
+     *
+     * @param horizon    Until when the availability of not yet attempted notifications is brought forward.
+     * @param leaseUntil Until when the claim holds; afterwards the notifications can be claimed again.
+     * @return The claimed notifications.
+     */
+    public List<AlertNotification> claimByDestination(AlertConfiguration.AlertType type, int limit, LocalDateTime now,
+                                                      LocalDateTime horizon, LocalDateTime leaseUntil) {
+        return jdbcTemplate.query("UPDATE alert_outbox SET available_at = ?, attempts = attempts + 1 WHERE id IN ("
+                        + "SELECT id FROM alert_outbox WHERE alert_type = ? AND dead_lettered_at IS NULL "
+                        + "AND (available_at <= ? OR (attempts = 0 AND available_at <= ?)) "
+                        + "AND destination IN (SELECT destination FROM alert_outbox "
+                        + "WHERE alert_type = ? AND available_at <= ? AND dead_lettered_at IS NULL "
+                        + "GROUP BY destination ORDER BY min(available_at) LIMIT ?) "
+                        + "FOR UPDATE SKIP LOCKED) RETURNING *",
+                ROW_MAPPER, Timestamp.valueOf(leaseUntil), type.name(), Timestamp.valueOf(now), Timestamp.valueOf(horizon),
+                type.name(), Timestamp.valueOf(now), limit);
+    }
+
+    /**
+     * Makes notifications whose delivery failed due again at the given time.
+     */
+    public void reschedule(Collection<Long> ids, LocalDateTime availableAt, String error) {
+        jdbcTemplate.update(con -> prepare(con, "UPDATE alert_outbox SET available_at = ?, last_error = ? WHERE id = ANY(?)",
+                ids, Timestamp.valueOf(availableAt), error));
+    }
+
+    /**
+     * Makes notifications that were not attempted due again at the given time, taking back the
+     * attempt their claim counted.
+     */
+    public void postpone(Collection<Long> ids, LocalDateTime availableAt) {
+        jdbcTemplate.update(con -> prepare(con, "UPDATE alert_outbox SET available_at = ?, attempts = attempts - 1 WHERE id = ANY(?)",
+                ids, Timestamp.valueOf(availableAt)));
+    }
+
+    /**
+     * Gives up on notifications; they are kept with their last error but never claimed again.
+     */
+    public void deadLetter(Collection<Long> ids, LocalDateTime now, String error) {
+        jdbcTemplate.update(con -> prepare(con, "UPDATE alert_outbox SET dead_lettered_at = ?, last_error = ? WHERE id = ANY(?)",
+                ids, Timestamp.valueOf(now), error));
+    }
+
+    public void delete(Collection<Long> ids) {
+        jdbcTemplate.update(con -> prepare(con, "DELETE FROM alert_outbox WHERE id = ANY(?)", ids));
+    }
+
+    public void deleteByMonitorId(long monitorId) {
+        jdbcTemplate.update("DELETE FROM alert_outbox WHERE monitor_id = ?", monitorId);
+    }
+
+    public void deleteByAlertConfigId(long alertConfigId) {
+        jdbcTemplate.update("DELETE FROM alert_outbox WHERE alert_config_id = ?", alertConfigId);
+    }
+
+    // Binds the parameters, followed by the IDs as an array
+    private static PreparedStatement prepare(Connection con, String sql, Collection<Long> ids, Object... parameters)
+            throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql);
+        for (int i = 0; i < parameters.length; i++) {
+            ps.setObject(i + 1, parameters[i]);
+        }
+        ps.setArray(parameters.length + 1, con.createArrayOf("bigint", ids.toArray()));
+        return ps;
+    }
+}
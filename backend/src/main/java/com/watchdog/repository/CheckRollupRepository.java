@@ -0,0 +1,191 @@
+package com.watchdog.repository;
+
+import com.watchdog.entity.MonitorCheck;
+import com.watchdog.service.rollup.CheckRollup;
+import com.watchdog.service.rollup.LatencyDistribution;
+import com.watchdog.service.rollup.LatencyHistogram;
+import com.watchdog.service.rollup.RollupResolution;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Plain JDBC access to the check rollup tables (check_rollups_1m/1h/1d).
+ *
+ * Rollups are upserted additively: counts and sums are added, min/max are combined and the latency
+ * histograms are added element by element, so partial aggregates of the same bucket can be written
+ * any number of times and by any node.
+ */
+@Repository
+public class CheckRollupRepository {
+
+    private static final Map<MonitorCheck.ErrorCategory, String> ERROR_COLUMNS = new EnumMap<>(Map.of(
+            MonitorCheck.ErrorCategory.HTTP_CLIENT_ERROR, "http_client_errors",
+            MonitorCheck.ErrorCategory.HTTP_SERVER_ERROR, "http_server_errors",
+            MonitorCheck.ErrorCategory.NETWORK_ERROR, "network_errors",
+            MonitorCheck.ErrorCategory.SSL_ERROR, "ssl_errors",
+            MonitorCheck.ErrorCategory.TIMEOUT_ERROR, "timeout_errors",
+            MonitorCheck.ErrorCategory.CONTENT_MISMATCH, "content_mismatches",
+            MonitorCheck.ErrorCategory.UNKNOWN_ERROR, "unknown_errors"));
+
+    private static final String COLUMNS = "monitor_id, bucket_start, check_count, up_count, down_seconds, "
+            + "response_time_count, response_time_sum, response_time_min, response_time_max, latency_buckets, "
+            + String.join(", ", ERROR_COLUMNS.values());
+
+    private static final RowMapper<CheckRollup> ROW_MAPPER = (rs, rowNum) -> {
+        CheckRollup rollup = new CheckRollup(rs.getLong("monitor_id"),
+                rs.getTimestamp("bucket_start").toLocalDateTime(), toHistogram(rs.getArray("latency_buckets")));
+        rollup.setCheckCount(rs.getLong("check_count"));
+        rollup.setUpCount(rs.getLong("up_count"));
+        rollup.setDownSeconds(rs.getLong("down_seconds"));
+        rollup.setResponseTimeCount(rs.getLong("response_time_count"));
+        rollup.setResponseTimeSum(rs.getLong("response_time_sum"));
+        rollup.setResponseTimeMin(rs.getObject("response_time_min", Long.class));
+        rollup.setResponseTimeMax(rs.getObject("response_time_max", Long.class));
+        for (Map.Entry<MonitorCheck.ErrorCategory, String> column : ERROR_COLUMNS.entrySet()) {
+            rollup.setErrorCount(column.getKey(), rs.getLong(column.getValue()));
+        }
+        return rollup;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<RollupResolution, String> upsertSql = new EnumMap<>(RollupResolution.class);
+
+    public CheckRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (RollupResolution resolution : RollupResolution.values()) {
+            upsertSql.put(resolution, buildUpsertSql(resolution.getTable()));
+        }
+    }
+
+    private static String buildUpsertSql(String table) {
+        String errorUpdates = ERROR_COLUMNS.values().stream()
+                .map(column -> column + " = " + table + "." + column + " + EXCLUDED." + column)
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO " + table + " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?"
+                + ", ?".repeat(ERROR_COLUMNS.size()) + ") "
+                + "ON CONFLICT (monitor_id, bucket_start) DO UPDATE SET "
+                + "check_count = " + table + ".check_count + EXCLUDED.check_count, "
+                + "up_count = " + table + ".up_count + EXCLUDED.up_count, "
+                + "down_seconds = " + table + ".down_seconds + EXCLUDED.down_seconds, "
+                + "response_time_count = " + table + ".response_time_count + EXCLUDED.response_time_count, "
+                + "response_time_sum = " + table + ".response_time_sum + EXCLUDED.response_time_sum, "
+                + "response_time_min = LEAST(" + table + ".response_time_min, EXCLUDED.response_time_min), "
+                + "response_time_max = GREATEST(" + table + ".response_time_max, EXCLUDED.response_time_max), "
+                + "latency_buckets = ARRAY(SELECT coalesce(a, 0) + coalesce(b, 0) FROM unnest(" + table
+                + ".latency_buckets, EXCLUDED.latency_buckets) WITH ORDINALITY AS u(a, b, i) ORDER BY i), "
+                + errorUpdates;
+    }
+
+    /**
+     * Adds the given partial aggregates to the stored rollups in one JDBC batch.
+     * Each bucket of a monitor may appear only once in the list.
+     *
+     * @param resolution The resolution of the rollups.
+     * @param rollups    The partial aggregates, preferably sorted by monitor and bucket.
+     */
+    public void upsertAll(RollupResolution resolution, List<CheckRollup> rollups) {
+        jdbcTemplate.batchUpdate(upsertSql.get(resolution), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                CheckRollup rollup = rollups.get(i);
+                ps.setLong(1, rollup.getMonitorId());
+                ps.setObject(2, rollup.getBucketStart());
+                ps.setLong(3, rollup.getCheckCount());
+                ps.setLong(4, rollup.getUpCount());
+                ps.setLong(5, rollup.getDownSeconds());
+                ps.setLong(6, rollup.getResponseTimeCount());
+                ps.setLong(7, rollup.getResponseTimeSum());
+                ps.setObject(8, rollup.getResponseTimeMin(), Types.BIGINT);
+                ps.setObject(9, rollup.getResponseTimeMax(), Types.BIGINT);
+                Integer[] buckets = Arrays.stream(rollup.getLatency().getCounts()).boxed().toArray(Integer[]::new);
+                ps.setArray(10, ps.getConnection().createArrayOf("integer", buckets));
+                int index = 11;
+                for (MonitorCheck.ErrorCategory category : ERROR_COLUMNS.keySet()) {
+                    ps.setLong(index++, rollup.getErrorCount(category));
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rollups.size();
+            }
+        });
+    }
+
+    /**
+     * Finds a monitor's rollups whose buckets start within [startTime, endTime), oldest first.
+     */
+    public List<CheckRollup> findByMonitor(RollupResolution resolution, long monitorId,
+                                          LocalDateTime startTime, LocalDateTime endTime) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM " + resolution.getTable()
+                        + " WHERE monitor_id = ? AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start",
+                ROW_MAPPER, monitorId, Timestamp.valueOf(startTime), Timestamp.valueOf(endTime));
+    }
+
+    /**
+     * Merges the response time distributions of the given monitors' rollups whose buckets start within
+     * [startTime, endTime) into one distribution per monitor. Rows are merged as they are read, so
+     * memory use does not depend on the number of rollups.
+     *
+     * @param distributions Distributions by monitor ID, created as needed.
+     */
+    public void mergeLatency(RollupResolution resolution, Collection<Long> monitorIds, LocalDateTime startTime,
+                             LocalDateTime endTime, Map<Long, LatencyDistribution> distributions) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT monitor_id, response_time_count, response_time_min, "
+                    + "response_time_max, latency_buckets FROM " + resolution.getTable()
+                    + " WHERE monitor_id = ANY(?) AND bucket_start >= ? AND bucket_start < ? AND response_time_count > 0");
+            ps.setArray(1, con.createArrayOf("bigint", monitorIds.toArray()));
+            ps.setTimestamp(2, Timestamp.valueOf(startTime));
+            ps.setTimestamp(3, Timestamp.valueOf(endTime));
+            return ps;
+        }, rs -> {
+            distributions.computeIfAbsent(rs.getLong("monitor_id"), id -> new LatencyDistribution())
+                    .add(rs.getLong("response_time_count"), rs.getLong("response_time_min"),
+                            rs.getLong("response_time_max"), toHistogram(rs.getArray("latency_buckets")));
+        });
+    }
+
+    /**
+     * Deletes rollups whose buckets start before the cutoff.
+     *
+     * @return The number of deleted rollups.
+     */
+    public int deleteOlderThan(RollupResolution resolution, LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + resolution.getTable() + " WHERE bucket_start < ?",
+                Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * Deletes all rollups of a monitor, at every resolution.
+     */
+    public void deleteByMonitorId(long monitorId) {
+        for (RollupResolution resolution : RollupResolution.values()) {
+            jdbcTemplate.update("DELETE FROM " + resolution.getTable() + " WHERE monitor_id = ?", monitorId);
+        }
+    }
+
+    private static LatencyHistogram toHistogram(Array array) throws SQLException {
+        Integer[] buckets = (Integer[]) array.getArray();
+        int[] counts = new int[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i] != null ? buckets[i] : 0;
+        }
+        return new LatencyHistogram(counts);
+    }
+}
@@ -0,0 +1,121 @@
+package com.watchdog.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Partition maintenance for the tables that are range-partitioned by day on their timestamp column
+ * (monitor_checks and check_rollups_1m, see db/migration).
+ *
+ * Daily partitions are named {table}_pYYYYMMDD and cover [day, day + 1). A daily partition can be
+ * LIST-partitioned further, with sub-partitions named {partition}_r{value} (monitor_checks by
+ * retention tier). Statements are idempotent, so several instances can run the maintenance at the
+ * same time.
+ */
+@Repository
+public class DailyPartitionRepository {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    // Upper bound in pg_get_expr output, e.g. FOR VALUES FROM ('2025-01-01 00:00:00') TO ('2025-01-02 00:00:00')
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    // Single value in pg_get_expr output of an integer list partition, e.g. FOR VALUES IN (30)
+    private static final Pattern LIST_VALUE = Pattern.compile("IN \\((\\d+)\\)");
+
+    private static final String FIND_PARTITIONS_SQL = "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), c.relkind = 'p' "
+            + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = ?::regclass";
+
+    /**
+     * A partition of a partitioned table.
+     *
+     * @param name        The table name of the partition.
+     * @param upperBound  The exclusive upper bound of its timestamps, or null if it is unbounded or
+     *                    a list partition.
+     * @param listValue   The value of a list partition, otherwise null.
+     * @param partitioned Whether the partition is partitioned itself.
+     */
+    public record Partition(String name, LocalDateTime upperBound, Integer listValue, boolean partitioned) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DailyPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param table The partitioned table.
+     * @return All partitions of the table.
+     */
+    public List<Partition> findPartitions(String table) {
+        return jdbcTemplate.query(FIND_PARTITIONS_SQL,
+                (rs, rowNum) -> new Partition(rs.getString(1), parseUpperBound(rs.getString(2)),
+                        parseListValue(rs.getString(2)), rs.getBoolean(3)), table);
+    }
+
+    /**
+     * Creates the partition for the given day unless it already exists.
+     *
+     * @param table The partitioned table.
+     * @param day   The day the partition covers.
+     */
+    public void createDailyPartition(String table, LocalDate day) {
+        String name = table + "_p" + PARTITION_SUFFIX.format(day);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + table
+                + " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+    }
+
+    /**
+     * Creates the partition for the given day, LIST-partitioned on the given column with one
+     * sub-partition per value, unless they already exist. A day that already has an unpartitioned
+     * partition is left as it is.
+     *
+     * @param table  The partitioned table.
+     * @param day    The day the partition covers.
+     * @param column The integer column the day is partitioned on.
+     * @param values The values that get a sub-partition.
+     */
+    public void createDailyPartition(String table, LocalDate day, String column, List<Integer> values) {
+        String name = table + "_p" + PARTITION_SUFFIX.format(day);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + table
+                + " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "') PARTITION BY LIST (" + column + ")");
+        Boolean partitioned = jdbcTemplate.queryForObject("SELECT relkind = 'p' FROM pg_class WHERE oid = ?::regclass",
+                Boolean.class, name);
+        if (!Boolean.TRUE.equals(partitioned)) {
+            return;
+        }
+        for (int value : values) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + "_r" + value + " PARTITION OF " + name
+                    + " FOR VALUES IN (" + value + ")");
+        }
+    }
+
+    /**
+     * Drops a partition together with all of its rows.
+     *
+     * Dropping a partitioned partition drops its sub-partitions too.
+     *
+     * @param name The table name of the partition, as returned by {@link #findPartitions(String)}.
+     */
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS \"" + name.replace("\"", "\"\"") + "\"");
+    }
+
+    private static LocalDateTime parseUpperBound(String bound) {
+        Matcher matcher = UPPER_BOUND.matcher(bound);
+        return matcher.find() ? Timestamp.valueOf(matcher.group(1)).toLocalDateTime() : null;
+    }
+
+    private static Integer parseListValue(String bound) {
+        Matcher matcher = LIST_VALUE.matcher(bound);
+        return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.watchdog.repository;
+
+import com.watchdog.entity.User;
+import com.watchdog.service.ingestion.CheckRecord;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plain JDBC access to monitor_checks for the ingestion path.
+ *
+ * MonitorCheck uses IDENTITY ids, which stops Hibernate from batching inserts, so check results are
+ * written with a JDBC batch instead. With reWriteBatchedInserts on the connection URL the driver
+ * turns a batch into multi-row INSERTs, so a batch costs a single round trip.
+ *
+ * Every check is stored with the retention tier of the monitor's owner, which routes it to the
+ * tier's sub-partition of its day (see CheckRetentionService). The owner's retention is loaded with
+ * the monitor's lease and carried on the CheckRecord, so a batch is a single statement.
+ */
+@Repository
+public class MonitorCheckBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO monitor_checks (monitor_id, timestamp, http_status_code, "
+            + "response_time_ms, error_message, is_up, response_body_size, error_category, dns_time_ms, "
+            + "connect_time_ms, tls_time_ms, ttfb_ms, retention_days) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String FIND_EXISTING_SQL = "SELECT id FROM monitors WHERE id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MonitorCheckBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the given check results in one JDBC batch.
+     *
+     * @param records The check results to insert.
+     */
+    public void insertAll(List<CheckRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                CheckRecord record = records.get(i);
+                ps.setLong(1, record.monitorId());
+                ps.setObject(2, record.timestamp());
+                ps.setObject(3, record.httpStatusCode(), Types.INTEGER);
+                ps.setObject(4, record.responseTimeMs(), Types.BIGINT);
+                ps.setString(5, record.errorMessage());
+                ps.setBoolean(6, record.up());
+                ps.setObject(7, record.responseBodySize(), Types.BIGINT);
+                ps.setString(8, record.errorCategory() != null ? record.errorCategory().name() : null);
+                ps.setObject(9, record.dnsTimeMs(), Types.BIGINT);
+                ps.setObject(10, record.connectTimeMs(), Types.BIGINT);
+                ps.setObject(11, record.tlsTimeMs(), Types.BIGINT);
+                ps.setObject(12, record.ttfbMs(), Types.BIGINT);
+                // Without a known retention the check is kept for the longest tier
+                ps.setInt(13, User.checkRetentionTier(record.checkRetentionDays() != null
+                        ? record.checkRetentionDays() : Integer.MAX_VALUE));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return records.size();
+            }
+        });
+    }
+
+    /**
+     * Finds which of the given monitors still exist.
+     *
+     * @param monitorIds The monitors.
+     * @return The IDs of those that have not been deleted.
+     */
+    public Set<Long> findExistingMonitorIds(Collection<Long> monitorIds) {
+        Set<Long> existing = new HashSet<>();
+        jdbcTemplate.query(FIND_EXISTING_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", monitorIds.stream().distinct().toArray())),
+                rs -> {
+                    existing.add(rs.getLong(1));
+                });
+        return existing;
+    }
+}
@@ -40,6 +40,25 @@ public interface MonitorCheckRepository extends JpaRepository<MonitorCheck, Long
      */
     List<MonitorCheck> findTopByMonitorOrderByTimestampDesc(Monitor monitor, Pageable pageable);
 
+    /**
+     * Finds the latest checks of a monitor by its ID, newest first.
+     *
+     * @param monitorId The ID of the monitor.
+     * @param pageable  A Pageable object to specify the number of results (e.g., PageRequest.of(0, N)).
+     * @return Up to N of the monitor's latest checks.
+     */
+    List<MonitorCheck> findByMonitor_IdOrderByTimestampDesc(Long monitorId, Pageable pageable);
+
+    /**
+     * Finds the latest checks of a monitor before a point in time, newest first.
+     *
+     * @param monitorId The ID of the monitor.
+     * @param before    Only checks strictly before this time are returned.
+     * @param pageable  A Pageable object to specify the number of results (e.g., PageRequest.of(0, N)).
+     * @return Up to N of the monitor's latest checks before the given time.
+     */
+    List<MonitorCheck> findByMonitor_IdAndTimestampBeforeOrderByTimestampDesc(Long monitorId, LocalDateTime before, Pageable pageable);
+
 
     /**
      * Counts the number of MonitorChecks for a monitor that are considered "down" within a given time range.
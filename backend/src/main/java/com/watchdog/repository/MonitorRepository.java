@@ -3,11 +3,13 @@ package com.watchdog.repository;
 import com.watchdog.entity.Monitor;
 import com.watchdog.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,18 +33,30 @@ public interface MonitorRepository extends JpaRepository<Monitor, Long> {
     Optional<Monitor> findByIdAndUser(Long id, User user);
 
     /**
-     * Finds the next Monitor due for a check and acquires an exclusive lock on it
-     * to prevent other workers from processing the same monitor concurrently.
+     * Finds all Monitors that are not paused. Used to load the in-memory check schedule.
+     * @param status The status to exclude (PAUSED).
+     * @return A list of Monitors.
+     */
+    List<Monitor> findByStatusNot(Monitor.MonitorStatus status);
+
+    /**
+     * Locks the given Monitors for a check, skipping any that another worker currently holds.
      *
-     * This query is critical for the in-house queueing system.
-     * It looks for a monitor where 'next_check_at' is in the past, orders by that
-     * timestamp to find the oldest overdue monitor, and uses 'FOR UPDATE SKIP LOCKED'
-     * to ensure thread-safe processing across multiple worker instances.
+     * The IDs come from the in-memory schedule. A monitor is only returned if it is actually due
+     * in the database ('next_check_at' before the cutoff), is not paused, and is not leased by
+     * another worker (or that lease has expired). 'FOR UPDATE SKIP LOCKED' ensures that when
+     * several nodes fire the same monitor, only one of them gets it; only the monitor rows are
+     * locked, not their owners. The owner's check retention comes along, since every check result
+     * is stored with it.
      *
+     * @param ids The IDs of the monitors the scheduler considers due.
+     * @param cutoff Monitors whose 'next_check_at' is before this time are due.
      * @param now The current timestamp.
-     * @return The Monitor to be checked, or null if no monitor is due.
+     * @return The Monitors to be checked, each with its owner's check retention in days.
      */
-    @Query(value = "SELECT * FROM monitors m WHERE m.next_check_at < :now AND m.status <> 'PAUSED' ORDER BY m.next_check_at ASC LIMIT 1 FOR UPDATE SKIP LOCKED",
-            nativeQuery = true)
-    Monitor findAndLockNextMonitorDueForCheck(@Param("now") LocalDateTime now);
+    @NativeQuery(value = "SELECT m.*, u.check_retention_days FROM monitors m JOIN users u ON u.id = m.user_id WHERE m.id IN (:ids) AND m.next_check_at < :cutoff AND m.status <> 'PAUSED' AND (m.claimed_by IS NULL OR m.lease_expires_at < :now) FOR UPDATE OF m SKIP LOCKED",
+            sqlResultSetMapping = "Monitor.withCheckRetention")
+    List<Object[]> findAndLockMonitorsForCheck(@Param("ids") Collection<Long> ids,
+                                              @Param("cutoff") LocalDateTime cutoff,
+                                              @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.watchdog.repository;
+
+import com.watchdog.service.uptime.UptimeCounters;
+import com.watchdog.service.uptime.UptimeWindow;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Plain JDBC access to the running uptime counters (monitor_uptime) and their windows (uptime_windows).
+ *
+ * Every window has the columns checks_{window}, up_checks_{window} and down_seconds_{window}.
+ * Checks are added to all windows at once; when a window slides, the hours that left it are
+ * subtracted using check_rollups_1h.
+ */
+@Repository
+public class MonitorUptimeRepository {
+
+    private static final String[] COUNTERS = {"checks", "up_checks", "down_seconds"};
+    private static final String HOURLY_TOTALS = "SELECT monitor_id, sum(check_count) AS checks, "
+            + "sum(up_count) AS up_checks, sum(down_seconds) AS down_seconds FROM check_rollups_1h";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String addSql;
+
+    public MonitorUptimeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        List<String> columns = new ArrayList<>();
+        for (UptimeWindow window : UptimeWindow.values()) {
+            for (String counter : COUNTERS) {
+                columns.add(column(counter, window));
+            }
+        }
+        this.addSql = "INSERT INTO monitor_uptime (monitor_id, " + String.join(", ", columns) + ") VALUES (?"
+                + ", ?".repeat(columns.size()) + ") ON CONFLICT (monitor_id) DO UPDATE SET "
+                + columns.stream().map(c -> c + " = monitor_uptime." + c + " + EXCLUDED." + c).collect(Collectors.joining(", "));
+    }
+
+    private static String column(String counter, UptimeWindow window) {
+        return counter + "_" + window.getLabel();
+    }
+
+    /**
+     * Adds the given counts to every window of the monitors, in one JDBC batch.
+     *
+     * @param deltas The counts to add by monitor ID, preferably in a stable order.
+     */
+    public void addToAllWindows(Map<Long, UptimeCounters> deltas) {
+        List<Map.Entry<Long, UptimeCounters>> entries = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(addSql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, UptimeCounters> entry = entries.get(i);
+                UptimeCounters delta = entry.getValue();
+                ps.setLong(1, entry.getKey());
+                int index = 2;
+                for (int w = 0; w < UptimeWindow.values().length; w++) {
+                    ps.setLong(index++, delta.checks());
+                    ps.setLong(index++, delta.upChecks());
+                    ps.setLong(index++, delta.downSeconds());
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    /**
+     * Locks a window's row until the end of the transaction.
+     *
+     * @return From when on checks are counted in the window, or null if the window was never built.
+     */
+    public LocalDateTime lockWindow(UptimeWindow window) {
+        Timestamp countedFrom = jdbcTemplate.queryForObject(
+                "SELECT counted_from FROM uptime_windows WHERE name = ? FOR UPDATE", Timestamp.class, window.getLabel());
+        return countedFrom != null ? countedFrom.toLocalDateTime() : null;
+    }
+
+    public void setCountedFrom(UptimeWindow window, LocalDateTime countedFrom) {
+        jdbcTemplate.update("UPDATE uptime_windows SET counted_from = ? WHERE name = ?",
+                Timestamp.valueOf(countedFrom), window.getLabel());
+    }
+
+    /**
+     * Subtracts the checks of [from, to) from a window, using the hourly rollups.
+     */
+    public void subtractHours(UptimeWindow window, LocalDateTime from, LocalDateTime to) {
+        String assignments = Stream.of(COUNTERS)
+                .map(counter -> column(counter, window) + " = u." + column(counter, window) + " - r." + counter)
+                .collect(Collectors.joining(", "));
+        jdbcTemplate.update("UPDATE monitor_uptime u SET " + assignments + " FROM (" + HOURLY_TOTALS
+                        + " WHERE bucket_start >= ? AND bucket_start < ? GROUP BY monitor_id) r WHERE u.monitor_id = r.monitor_id",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Recomputes a window from the hourly rollups of all checks since the given hour.
+     */
+    public void rebuild(UptimeWindow window, LocalDateTime from) {
+        String columns = Stream.of(COUNTERS).map(counter -> column(counter, window)).collect(Collectors.joining(", "));
+        String zeroes = Stream.of(COUNTERS).map(counter -> column(counter, window) + " = 0").collect(Collectors.joining(", "));
+        String assignments = Stream.of(COUNTERS)
+                .map(counter -> column(counter, window) + " = EXCLUDED." + column(counter, window))
+                .collect(Collectors.joining(", "));
+        jdbcTemplate.update("UPDATE monitor_uptime SET " + zeroes);
+        jdbcTemplate.update("INSERT INTO monitor_uptime (monitor_id, " + columns + ") SELECT monitor_id, checks, up_checks, down_seconds FROM ("
+                        + HOURLY_TOTALS + " WHERE bucket_start >= ? GROUP BY monitor_id) r "
+                        + "ON CONFLICT (monitor_id) DO UPDATE SET " + assignments,
+                Timestamp.valueOf(from));
+    }
+
+    /**
+     * Reads the counters of all monitors of a user.
+     *
+     * @return The counters of every window by monitor ID; monitors without checks are missing.
+     */
+    public Map<Long, Map<UptimeWindow, UptimeCounters>> findByUserId(long userId) {
+        Map<Long, Map<UptimeWindow, UptimeCounters>> result = new HashMap<>();
+        jdbcTemplate.query("SELECT u.* FROM monitor_uptime u JOIN monitors m ON m.id = u.monitor_id WHERE m.user_id = ?",
+                rs -> {
+                    Map<UptimeWindow, UptimeCounters> windows = new EnumMap<>(UptimeWindow.class);
+                    for (UptimeWindow window : UptimeWindow.values()) {
+                        windows.put(window, new UptimeCounters(rs.getLong(column("checks", window)),
+                                rs.getLong(column("up_checks", window)), rs.getLong(column("down_seconds", window))));
+                    }
+                    result.put(rs.getLong("monitor_id"), windows);
+                }, userId);
+        return result;
+    }
+
+    public void deleteByMonitorId(long monitorId) {
+        jdbcTemplate.update("DELETE FROM monitor_uptime WHERE monitor_id = ?", monitorId);
+    }
+}
@@ -2,8 +2,10 @@ package com.watchdog.repository;
 
 import com.watchdog.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -23,4 +25,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true if a user with this email exists, false otherwise.
      */
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * Lists the distinct check retention settings of all users.
+     * @return The retention periods in days.
+     */
+    @Query("SELECT DISTINCT u.checkRetentionDays FROM User u")
+    List<Integer> findDistinctCheckRetentionDays();
+}
@@ -3,14 +3,21 @@ package com.watchdog.service;
 import com.watchdog.entity.AlertConfiguration;
 import com.watchdog.entity.Monitor;
 import com.watchdog.repository.AlertConfigurationRepository;
+import com.watchdog.repository.AlertOutboxRepository;
 import com.watchdog.repository.MonitorRepository;
 import com.watchdog.dto.CreateAlertConfigRequest;
 import com.watchdog.dto.AlertConfigDTO;
 import com.watchdog.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,11 +27,23 @@ public class AlertConfigurationService {
 
     private final AlertConfigurationRepository alertConfigurationRepository;
     private final MonitorRepository monitorRepository;
+    private final AlertOutboxRepository alertOutboxRepository;
+    // Enabled configurations per monitor ID, read by the alert evaluation after every check
+    private final Cache<Long, List<AlertConfiguration>> enabledConfigurations;
 
     @Autowired
-    public AlertConfigurationService(AlertConfigurationRepository alertConfigurationRepository, MonitorRepository monitorRepository) {
+    public AlertConfigurationService(AlertConfigurationRepository alertConfigurationRepository, MonitorRepository monitorRepository,
+                                     AlertOutboxRepository alertOutboxRepository,
+                                     @Value("${application.alerting.config-cache.seconds:30}") int cacheSeconds,
+                                     @Value("${application.alerting.config-cache.size:100000}") long cacheSize) {
         this.alertConfigurationRepository = alertConfigurationRepository;
         this.monitorRepository = monitorRepository;
+        this.alertOutboxRepository = alertOutboxRepository;
+        // Changes made on this node are evicted right away; the expiry bounds how long other nodes see stale ones
+        this.enabledConfigurations = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .build();
     }
 
     @Transactional
@@ -42,6 +61,7 @@ public class AlertConfigurationService {
         // Added the threshold values from the request
         config.setFailureThreshold(request.getFailureThreshold());
         config.setRecoveryThreshold(request.getRecoveryThreshold());
+        config.setThrottleMinutes(request.getThrottleMinutes());
 
         config.setCreatedAt(LocalDateTime.now());
         // The PrePersist hook will set createdAt, but explicitly setting it here is also fine
@@ -50,6 +70,7 @@ public class AlertConfigurationService {
         // config.setUpdatedAt(LocalDateTime.now());
 
         AlertConfiguration savedConfig = alertConfigurationRepository.save(config);
+        evictAfterCommit(monitorId);
         return convertToDTO(savedConfig);
     }
 
@@ -91,11 +112,13 @@ public class AlertConfigurationService {
         // Added the threshold values from the request
         config.setFailureThreshold(request.getFailureThreshold());
         config.setRecoveryThreshold(request.getRecoveryThreshold());
+        config.setThrottleMinutes(request.getThrottleMinutes());
 
         // The @PreUpdate hook will set this, so it's not strictly necessary here
         // config.setUpdatedAt(LocalDateTime.now());
 
         AlertConfiguration updatedConfig = alertConfigurationRepository.save(config);
+        evictAfterCommit(monitorId);
         return convertToDTO(updatedConfig);
     }
 
@@ -109,6 +132,8 @@ public class AlertConfigurationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Alert configuration not found or not associated with monitor/user."));
 
         alertConfigurationRepository.delete(config);
+        alertOutboxRepository.deleteByAlertConfigId(configId);
+        evictAfterCommit(monitorId);
     }
 
     // Helper method to convert Entity to DTO
@@ -121,15 +146,34 @@ public class AlertConfigurationService {
         dto.setEnabled(config.getEnabled());
         dto.setFailureThreshold(config.getFailureThreshold());
         dto.setRecoveryThreshold(config.getRecoveryThreshold());
+        dto.setThrottleMinutes(config.getThrottleMinutes());
         dto.setCreatedAt(config.getCreatedAt());
         dto.setUpdatedAt(config.getUpdatedAt());
         return dto;
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Returns the enabled alert configurations of a monitor, cached for the alert evaluation that
+     * runs after every check. The returned (detached) entities must not be modified.
+     *
+     * @return The enabled configurations; empty if the monitor has none or no longer exists.
+     */
     public List<AlertConfiguration> getEnabledAlertConfigurationsForMonitor(Long monitorId) {
-        Monitor monitor = monitorRepository.findById(monitorId)
-                .orElseThrow(() -> new ResourceNotFoundException("Monitor not found with ID: " + monitorId));
-        return alertConfigurationRepository.findByMonitorAndEnabled(monitor, true);
+        return enabledConfigurations.get(monitorId,
+                id -> List.copyOf(alertConfigurationRepository.findByMonitor_IdAndEnabled(id, true)));
+    }
+
+    // Evicting before the commit would let a concurrent lookup cache the old configurations again
+    private void evictAfterCommit(Long monitorId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enabledConfigurations.invalidate(monitorId);
+                }
+            });
+        } else {
+            enabledConfigurations.invalidate(monitorId);
+        }
     }
 }
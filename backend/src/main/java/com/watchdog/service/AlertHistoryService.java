@@ -6,8 +6,10 @@ import com.watchdog.entity.AlertConfiguration;
 import com.watchdog.entity.AlertHistory;
 import com.watchdog.entity.Monitor;
 import com.watchdog.exception.ResourceNotFoundException;
+import com.watchdog.repository.AlertHistoryBatchRepository;
 import com.watchdog.repository.AlertHistoryRepository;
 import com.watchdog.repository.MonitorRepository;
+import com.watchdog.service.notification.AlertNotification;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -16,17 +18,21 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 public class AlertHistoryService {
 
     private final AlertHistoryRepository alertHistoryRepository;
     private final MonitorRepository monitorRepository;
+    private final AlertHistoryBatchRepository alertHistoryBatchRepository;
 
     @Autowired
-    public AlertHistoryService(AlertHistoryRepository alertHistoryRepository, MonitorRepository monitorRepository) {
+    public AlertHistoryService(AlertHistoryRepository alertHistoryRepository, MonitorRepository monitorRepository,
+                               AlertHistoryBatchRepository alertHistoryBatchRepository) {
         this.alertHistoryRepository = alertHistoryRepository;
         this.monitorRepository = monitorRepository;
+        this.alertHistoryBatchRepository = alertHistoryBatchRepository;
     }
 
     /**
@@ -50,6 +56,22 @@ public class AlertHistoryService {
         return convertToDTO(savedHistory);
     }
 
+    /**
+     * Records the same outcome for several delivered (or finally failed) notifications in one batch,
+     * one entry per notification.
+     *
+     * @param suffix        Appended to each notification's message.
+     * @param failureReason The reason of a failure, or null.
+     */
+    @Transactional
+    public void recordAlertHistories(
+            List<AlertNotification> notifications,
+            String suffix,
+            AlertHistory.AlertStatus status,
+            String failureReason) {
+        alertHistoryBatchRepository.insertAll(notifications, LocalDateTime.now(), suffix, status, failureReason);
+    }
+
     /**
      * Retrieves paginated alert history for a specific monitor within an optional time range.
      */
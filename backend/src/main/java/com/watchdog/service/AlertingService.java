@@ -1,183 +1,130 @@
 // src/main/java/com/watchdog/service/AlertingService.java
 package com.watchdog.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.watchdog.entity.AlertConfiguration;
-import com.watchdog.entity.AlertHistory;
 import com.watchdog.entity.Monitor;
-import com.watchdog.entity.MonitorCheck;
-import com.watchdog.exception.ResourceNotFoundException;
-import com.watchdog.repository.AlertHistoryRepository;
-import com.watchdog.repository.MonitorCheckRepository;
-import com.watchdog.repository.MonitorRepository;
-import com.watchdog.service.notification.EmailNotificationHandler;
-import com.watchdog.service.notification.NotificationHandler;
-import com.watchdog.service.notification.WebhookNotificationHandler;
-import jakarta.annotation.PostConstruct;
+import com.watchdog.service.alerting.AlertThrottle;
+import com.watchdog.service.alerting.RecentCheckBuffer;
+import com.watchdog.service.notification.AlertEvent;
+import com.watchdog.service.notification.NotificationDispatcher;
+import com.watchdog.service.notification.PendingAlert;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.redis.connection.Message;
-import org.springframework.data.redis.connection.MessageListener;
-import org.springframework.data.redis.listener.ChannelTopic;
-import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-// DTO for internal alert events via Redis Pub/Sub
-class MonitorStatusChangeEvent {
-    public Long monitorId;
-    public Monitor.MonitorStatus oldStatus;
-    public Monitor.MonitorStatus newStatus;
-    public LocalDateTime timestamp;
-}
-
+/**
+ * Decides when a monitor's checks warrant an alert. The alerts are returned to the worker, which
+ * queues them in alert_outbox together with the check outcome; the NotificationDispatcher delivers
+ * them on its own workers, so the probe workers calling this never wait for a mail server or webhook.
+ */
 @Service
 public class AlertingService{
 
     private static final Logger log = LoggerFactory.getLogger(AlertingService.class);
 
-    private final MonitorRepository monitorRepository;
-    private final MonitorCheckRepository monitorCheckRepository;
+    private final RecentCheckBuffer recentCheckBuffer;
     private final AlertConfigurationService alertConfigurationService;
-    private final AlertHistoryService alertHistoryService;
-    private final Map<AlertConfiguration.AlertType, NotificationHandler> notificationHandlers;
-    private final ObjectMapper objectMapper;
-    private final AlertHistoryRepository alertHistoryRepository;
-    private static final int ALERT_THROTTLE_MINUTES = 60;
+    private final NotificationDispatcher notificationDispatcher;
+    private final AlertThrottle alertThrottle;
+    private final int defaultThrottleMinutes;
 
     @Autowired
     public AlertingService(
-            MonitorRepository monitorRepository,
-            MonitorCheckRepository monitorCheckRepository,
+            RecentCheckBuffer recentCheckBuffer,
             AlertConfigurationService alertConfigurationService,
-            AlertHistoryService alertHistoryService,
-            EmailNotificationHandler emailNotificationHandler,
-            WebhookNotificationHandler webhookNotificationHandler,
-            RedisMessageListenerContainer redisContainer,
-            AlertHistoryRepository alertHistoryRepository) {
-        this.monitorRepository = monitorRepository;
-        this.monitorCheckRepository = monitorCheckRepository;
+            NotificationDispatcher notificationDispatcher,
+            AlertThrottle alertThrottle,
+            @Value("${application.alerting.throttle.default-minutes:60}") int defaultThrottleMinutes) {
+        this.recentCheckBuffer = recentCheckBuffer;
         this.alertConfigurationService = alertConfigurationService;
-        this.alertHistoryService = alertHistoryService;
-        this.alertHistoryRepository = alertHistoryRepository;
-
-        this.notificationHandlers = new ConcurrentHashMap<>();
-        this.notificationHandlers.put(AlertConfiguration.AlertType.EMAIL, emailNotificationHandler);
-        this.notificationHandlers.put(AlertConfiguration.AlertType.GENERIC_WEBHOOK, webhookNotificationHandler);
-
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this.notificationDispatcher = notificationDispatcher;
+        this.alertThrottle = alertThrottle;
+        this.defaultThrottleMinutes = defaultThrottleMinutes;
     }
 
-
-
     /**
-     * This method is called by the WorkerService to publish status change events.
+     * Evaluates the monitor's alert thresholds after a check, called by the WorkerService with the
+     * streak counters it has just updated. An outage is alerted when the run of failed checks reaches
+     * a configuration's failure threshold, a recovery when the run of successful checks after such an
+     * outage reaches its recovery threshold, so each alert fires once per run, whatever the status
+     * did before.
+     *
+     * @param monitor The checked monitor, carrying its updated consecutive failure/success counts.
+     * @return The alerts to queue (or, if throttled, to record) once the check outcome is stored.
      */
-
-
-    public void handleMonitorStatusChange(Long monitorId, Monitor.MonitorStatus oldStatus, Monitor.MonitorStatus newStatus) {
-        // No need to publish to Redis. Just call the processing method directly.
-        log.info("Alerting: Processing status change for monitor ID: {}", monitorId);
-        processStatusChange(monitorId, oldStatus, newStatus);
-    }
-
-
-    @Transactional
-    public void processStatusChange(Long monitorId, Monitor.MonitorStatus oldStatus, Monitor.MonitorStatus newStatus) {
-        Monitor monitor = monitorRepository.findById(monitorId)
-                .orElseThrow(() -> new ResourceNotFoundException("Monitor not found for alerting: " + monitorId));
-
+    public List<PendingAlert> handleCheckResult(Monitor monitor) {
+        boolean isUp = monitor.getConsecutiveSuccesses() > 0;
         List<AlertConfiguration> configs = alertConfigurationService.getEnabledAlertConfigurationsForMonitor(monitor.getId());
+        List<PendingAlert> alerts = new ArrayList<>();
 
         for (AlertConfiguration config : configs) {
-            if (newStatus == Monitor.MonitorStatus.DOWN ) {
-//              // && oldStatus != Monitor.MonitorStatus.DOWN
+            if (!isUp) {
                 if (isOutageConfirmed(monitor, config)) {
-                    log.info("Alerting: Confirmed outage for monitor {} based on config {}", monitorId, config.getId());
-                    sendAlert(monitor, config, "Monitor " + monitor.getUrl() + " is DOWN!");
-                }
-            } else if (newStatus == Monitor.MonitorStatus.UP && oldStatus != Monitor.MonitorStatus.UP) {
-                if (isRecoveryConfirmed(monitor, config)) {
-                    log.info("Alerting: Confirmed recovery for monitor {} based on config {}", monitorId, config.getId());
-                    sendAlert(monitor, config, "Monitor " + monitor.getUrl() + " is UP again!");
+                    log.info("Alerting: Confirmed outage for monitor {} based on config {}", monitor.getId(), config.getId());
+                    prepareAlert(monitor, config, AlertEvent.DOWN, "Monitor " + monitor.getUrl() + " is DOWN!", alerts);
                 }
+            } else if (isRecoveryConfirmed(monitor, config)) {
+                log.info("Alerting: Confirmed recovery for monitor {} based on config {}", monitor.getId(), config.getId());
+                prepareAlert(monitor, config, AlertEvent.UP, "Monitor " + monitor.getUrl() + " is UP again!", alerts);
             }
         }
+        return alerts;
     }
 
-    private boolean isOutageConfirmed(Monitor monitor, AlertConfiguration config) {
-        List<MonitorCheck> lastChecks = monitorCheckRepository.findTopByMonitorOrderByTimestampDesc(
-                monitor, PageRequest.of(0, config.getFailureThreshold()));
-
-        if (lastChecks.size() < config.getFailureThreshold()) {
-            return false;
+    /**
+     * Releases the throttle windows of alerts returned by handleCheckResult that will not be queued,
+     * e.g. because their check outcomes could not be stored.
+     */
+    public void discardAlerts(List<PendingAlert> alerts) {
+        for (PendingAlert alert : alerts) {
+            if (!alert.throttled()) {
+                alertThrottle.release(alert.monitorId(), alert.alertConfigId(), alert.createdAt());
+            }
         }
+    }
 
-        long downChecks = lastChecks.stream().filter(check -> !check.getIsUp()).count();
-        return downChecks >= config.getFailureThreshold();
+    private boolean isOutageConfirmed(Monitor monitor, AlertConfiguration config) {
+        Integer failureThreshold = config.getFailureThreshold();
+        return failureThreshold != null && monitor.getConsecutiveFailures() == failureThreshold;
     }
 
     private boolean isRecoveryConfirmed(Monitor monitor, AlertConfiguration config) {
-        if (config.getRecoveryThreshold() == null || config.getRecoveryThreshold() <= 0) {
+        Integer recoveryThreshold = config.getRecoveryThreshold();
+        if (recoveryThreshold == null || recoveryThreshold <= 0 || monitor.getConsecutiveSuccesses() != recoveryThreshold) {
             return false;
         }
-
-        List<MonitorCheck> lastChecks = monitorCheckRepository.findTopByMonitorOrderByTimestampDesc(
-                monitor, PageRequest.of(0, config.getRecoveryThreshold()));
-
-        if (lastChecks.size() < config.getRecoveryThreshold()) {
-            return false;
-        }
-
-        long upChecks = lastChecks.stream().filter(MonitorCheck::getIsUp).count();
-        return upChecks >= config.getRecoveryThreshold();
+        // Only a recovery from an outage this configuration has alerted on
+        Integer failureThreshold = config.getFailureThreshold();
+        return failureThreshold != null && recentCheckBuffer.checksAll(monitor.getId(), recoveryThreshold, failureThreshold, false);
     }
 
-    private void sendAlert(Monitor monitor, AlertConfiguration config, String message) {
-        if (isThrottled(monitor, config)) {
-            log.info("Alerting: Throttling alert for monitor {}, type {}", monitor.getId(), config.getType());
-            alertHistoryService.recordAlertHistory(monitor, config, message + " (throttled)", AlertHistory.AlertStatus.THROTTLED);
+    private void prepareAlert(Monitor monitor, AlertConfiguration config, AlertEvent event, String message,
+                              List<PendingAlert> alerts) {
+        if (!notificationDispatcher.supports(config.getType())) {
+            log.warn("Alerting: No handler found for alert type: {}", config.getType());
             return;
         }
-
-        NotificationHandler handler = notificationHandlers.get(config.getType());
-        if (handler != null) {
-            try {
-                handler.sendNotification(config.getDestination(), message);
-                alertHistoryService.recordAlertHistory(monitor, config, message, AlertHistory.AlertStatus.SENT);
-                log.info("Alerting: Sent {} alert for monitor {}", config.getType(), monitor.getId());
-            } catch (Exception e) {
-                log.error("Alerting: Failed to send {} alert for monitor {}: {}", config.getType(), monitor.getId(), e.getMessage(), e);
-                alertHistoryService.recordAlertHistory(monitor, config, message + " (failed: " + e.getMessage() + ")", AlertHistory.AlertStatus.FAILED);
-            }
-        } else {
-            log.warn("Alerting: No handler found for alert type: {}", config.getType());
+        // Millisecond precision survives the round trip through alert_outbox, so the dispatcher can release the window
+        LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        boolean throttled = !alertThrottle.tryAcquire(monitor.getId(), config.getId(), throttleWindow(config), createdAt);
+        if (throttled) {
+            log.info("Alerting: Throttling alert for monitor {}, type {}", monitor.getId(), config.getType());
         }
+        // A throttled alert is recorded in alert_history along with the check outcome instead of being queued
+        alerts.add(new PendingAlert(monitor.getId(), config.getId(), config.getType(), event, config.getDestination(),
+                message, createdAt, throttled));
     }
 
-    private boolean isThrottled(Monitor monitor, AlertConfiguration config) {
-        LocalDateTime throttleWindowStart = LocalDateTime.now().minus(Duration.ofMinutes(ALERT_THROTTLE_MINUTES));
-        Page<AlertHistory> latestAlertsPage = alertHistoryRepository.findByMonitorAndAlertConfigurationOrderByTimestampDesc(
-                monitor, config, PageRequest.of(0, 1));
-        List<AlertHistory> latestAlerts = latestAlertsPage.getContent();
-
-        if (latestAlerts.isEmpty()) {
-            return false;
-        }
-
-        AlertHistory lastAlert = latestAlerts.get(0);
-        return lastAlert.getTimestamp().isAfter(throttleWindowStart) &&
-                lastAlert.getStatus() == AlertHistory.AlertStatus.SENT;
+    private Duration throttleWindow(AlertConfiguration config) {
+        Integer throttleMinutes = config.getThrottleMinutes();
+        return Duration.ofMinutes(throttleMinutes != null ? throttleMinutes : defaultThrottleMinutes);
     }
 }
@@ -0,0 +1,161 @@
+package com.watchdog.service;
+
+import com.watchdog.entity.User;
+import com.watchdog.repository.CheckRollupRepository;
+import com.watchdog.repository.DailyPartitionRepository;
+import com.watchdog.repository.UserRepository;
+import com.watchdog.service.rollup.RollupResolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Maintains the daily partitions of monitor_checks and check_rollups_1m, enforces each user's check
+ * retention and expires rollups.
+ *
+ * Partitions are created days-ahead days in advance, so ingestion never meets a day without one.
+ * Every daily partition of monitor_checks has a sub-partition per retention tier
+ * (User.CHECK_RETENTION_TIERS), and checks are written to the tier of their owner. A tier's
+ * sub-partition is dropped once its day lies entirely before the tier's retention, which discards
+ * that day of checks for all users of the tier without touching any rows, whatever mix of
+ * retentions the users have. Partitions from before the tiers (the legacy table and the days
+ * written before the upgrade) are dropped once past the longest retention of any user.
+ *
+ * Rollups are kept for a fixed period per resolution, independent of the users' retention: minute
+ * rollups by dropping partitions, hour and day rollups, which are small, with a DELETE.
+ *
+ * Runs at startup (before the scheduler starts handing out monitors) and then daily. All
+ * statements are idempotent, so it is safe for every node to run it.
+ */
+@Service
+public class CheckRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckRetentionService.class);
+
+    private static final String CHECKS_TABLE = "monitor_checks";
+    private static final String RETENTION_COLUMN = "retention_days";
+
+    private final DailyPartitionRepository partitionRepository;
+    private final CheckRollupRepository rollupRepository;
+    private final UserRepository userRepository;
+    private final int daysAhead;
+    private final int defaultRetentionDays;
+    private final Map<RollupResolution, Integer> rollupRetentionDays = new EnumMap<>(RollupResolution.class);
+
+    public CheckRetentionService(
+            DailyPartitionRepository partitionRepository,
+            CheckRollupRepository rollupRepository,
+            UserRepository userRepository,
+            @Value("${application.checks.partition.days-ahead:7}") int daysAhead,
+            @Value("${application.checks.retention.default-days:30}") int defaultRetentionDays,
+            @Value("${application.rollups.retention.minute-days:7}") int minuteRetentionDays,
+            @Value("${application.rollups.retention.hour-days:91}") int hourRetentionDays,
+            @Value("${application.rollups.retention.day-days:730}") int dayRetentionDays) {
+        this.partitionRepository = partitionRepository;
+        this.rollupRepository = rollupRepository;
+        this.userRepository = userRepository;
+        this.daysAhead = daysAhead;
+        this.defaultRetentionDays = defaultRetentionDays;
+        this.rollupRetentionDays.put(RollupResolution.MINUTE, minuteRetentionDays);
+        this.rollupRetentionDays.put(RollupResolution.HOUR, hourRetentionDays);
+        this.rollupRetentionDays.put(RollupResolution.DAY, dayRetentionDays);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Scheduled(cron = "${application.checks.retention.cron:0 15 0 * * *}")
+    public void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        String minuteRollups = RollupResolution.MINUTE.getTable();
+        createUpcomingPartitions(CHECKS_TABLE, today);
+        createUpcomingPartitions(minuteRollups, today);
+
+        int longestRetention = userRepository.findDistinctCheckRetentionDays().stream()
+                .mapToInt(Integer::intValue).max().orElse(defaultRetentionDays);
+        dropExpiredCheckPartitions(today, today.minusDays(longestRetention).atStartOfDay());
+
+        dropExpiredPartitions(minuteRollups, today.minusDays(rollupRetentionDays.get(RollupResolution.MINUTE)).atStartOfDay());
+        trimRollups(RollupResolution.HOUR, today.minusDays(rollupRetentionDays.get(RollupResolution.HOUR)).atStartOfDay());
+        trimRollups(RollupResolution.DAY, today.minusDays(rollupRetentionDays.get(RollupResolution.DAY)).atStartOfDay());
+    }
+
+    private void createUpcomingPartitions(String table, LocalDate today) {
+        for (int i = 0; i <= daysAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            try {
+                if (table.equals(CHECKS_TABLE)) {
+                    partitionRepository.createDailyPartition(table, day, RETENTION_COLUMN, User.CHECK_RETENTION_TIERS);
+                } else {
+                    partitionRepository.createDailyPartition(table, day);
+                }
+            } catch (DataAccessException e) {
+                // Usually another node creating the same partition at the same moment
+                log.warn("Retention: Failed to create the {} partition for {}: {}", table, day, e.getMessage());
+            }
+        }
+    }
+
+    private void dropExpiredPartitions(String table, LocalDateTime cutoff) {
+        for (DailyPartitionRepository.Partition partition : partitionRepository.findPartitions(table)) {
+            if (partition.upperBound() != null && !partition.upperBound().isAfter(cutoff)) {
+                dropPartition(partition, partition.upperBound());
+            }
+        }
+    }
+
+    // Drops the expired tiers of each day, and whole days once every tier has expired
+    private void dropExpiredCheckPartitions(LocalDate today, LocalDateTime untieredCutoff) {
+        int longestTier = User.CHECK_RETENTION_TIERS.get(User.CHECK_RETENTION_TIERS.size() - 1);
+        for (DailyPartitionRepository.Partition day : partitionRepository.findPartitions(CHECKS_TABLE)) {
+            LocalDateTime upperBound = day.upperBound();
+            if (upperBound == null) {
+                continue;
+            }
+            if (!day.partitioned()) {
+                if (!upperBound.isAfter(untieredCutoff)) {
+                    dropPartition(day, upperBound);
+                }
+            } else if (!upperBound.isAfter(today.minusDays(longestTier).atStartOfDay())) {
+                dropPartition(day, upperBound);
+            } else if (!upperBound.isAfter(today.minusDays(User.CHECK_RETENTION_TIERS.get(0)).atStartOfDay())) {
+                for (DailyPartitionRepository.Partition tier : partitionRepository.findPartitions(day.name())) {
+                    if (tier.listValue() != null && !upperBound.isAfter(today.minusDays(tier.listValue()).atStartOfDay())) {
+                        dropPartition(tier, upperBound);
+                    }
+                }
+            }
+        }
+    }
+
+    private void dropPartition(DailyPartitionRepository.Partition partition, LocalDateTime upperBound) {
+        try {
+            partitionRepository.dropPartition(partition.name());
+            log.info("Retention: Dropped partition {} (rows before {})", partition.name(), upperBound);
+        } catch (DataAccessException e) {
+            log.warn("Retention: Failed to drop partition {}: {}", partition.name(), e.getMessage());
+        }
+    }
+
+    private void trimRollups(RollupResolution resolution, LocalDateTime cutoff) {
+        try {
+            int deleted = rollupRepository.deleteOlderThan(resolution, cutoff);
+            if (deleted > 0) {
+                log.info("Retention: Deleted {} {} rollups older than {}", deleted, resolution, cutoff);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Retention: Failed to delete expired {} rollups: {}", resolution, e.getMessage());
+        }
+    }
+}
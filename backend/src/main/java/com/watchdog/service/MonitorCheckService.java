@@ -6,6 +6,8 @@ import com.watchdog.repository.MonitorCheckRepository;
 import com.watchdog.repository.MonitorRepository;
 import com.watchdog.dto.MonitorCheckDTO;
 import com.watchdog.exception.ResourceNotFoundException;
+import com.watchdog.service.ingestion.CheckIngestionQueue;
+import com.watchdog.service.ingestion.CheckRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -23,15 +25,19 @@ public class MonitorCheckService {
 
     private final MonitorCheckRepository monitorCheckRepository;
     private final MonitorRepository monitorRepository;
+    private final CheckIngestionQueue checkIngestionQueue;
 
     @Autowired
-    public MonitorCheckService(MonitorCheckRepository monitorCheckRepository, MonitorRepository monitorRepository) {
+    public MonitorCheckService(MonitorCheckRepository monitorCheckRepository, MonitorRepository monitorRepository,
+                               CheckIngestionQueue checkIngestionQueue) {
         this.monitorCheckRepository = monitorCheckRepository;
         this.monitorRepository = monitorRepository;
+        this.checkIngestionQueue = checkIngestionQueue;
     }
 
     /**
      * Records a new monitor check. This will be primarily called by the WorkerService.
+     * The check is queued and written to the database asynchronously in a batch with other checks.
      *
      * @param monitorId      The ID of the monitor being checked.
      * @param httpStatusCode The HTTP status code received.
@@ -42,11 +48,13 @@ public class MonitorCheckService {
      * @param errorCategory  The category of error that occurred.
      * @param dnsTimeMs      Time spent on DNS lookup.
      * @param connectTimeMs  Time spent connecting to the server.
+     * @param tlsTimeMs      Time spent on the TLS handshake.
      * @param ttfbMs         Time to first byte.
-     * @return The created MonitorCheckDTO.
+     * @param timestamp      When the check was performed.
+     * @param checkIntervalSeconds The monitor's check interval, counted as downtime if the check failed.
+     * @param checkRetentionDays The owner's check retention in days, or null for the longest tier.
      */
-    @Transactional
-    public MonitorCheckDTO recordMonitorCheck(
+    public void recordMonitorCheck(
             Long monitorId,
             Integer httpStatusCode,
             Long responseTimeMs,
@@ -56,27 +64,27 @@ public class MonitorCheckService {
             MonitorCheck.ErrorCategory errorCategory,
             Long dnsTimeMs,
             Long connectTimeMs,
-            Long ttfbMs) {
-
-        Monitor monitor = monitorRepository.findById(monitorId)
-                .orElseThrow(() -> new ResourceNotFoundException("Monitor not found with ID: " + monitorId));
-
-        MonitorCheck monitorCheck = new MonitorCheck();
-        monitorCheck.setMonitor(monitor);
-        monitorCheck.setHttpStatusCode(httpStatusCode);
-        monitorCheck.setResponseTimeMs(responseTimeMs);
-        monitorCheck.setIsUp(isUp);
-        monitorCheck.setErrorMessage(errorMessage);
-
-        // Set new fields
-        monitorCheck.setResponseBodySize(responseBodySize);
-        monitorCheck.setErrorCategory(errorCategory);
-        monitorCheck.setDnsTimeMs(dnsTimeMs);
-        monitorCheck.setConnectTimeMs(connectTimeMs);
-        monitorCheck.setTtfbMs(ttfbMs);
-
-        MonitorCheck savedCheck = monitorCheckRepository.save(monitorCheck);
-        return convertToDTO(savedCheck);
+            Long tlsTimeMs,
+            Long ttfbMs,
+            LocalDateTime timestamp,
+            Integer checkIntervalSeconds,
+            Integer checkRetentionDays) {
+
+        checkIngestionQueue.enqueue(new CheckRecord(
+                monitorId,
+                timestamp,
+                httpStatusCode,
+                responseTimeMs,
+                isUp,
+                errorMessage,
+                responseBodySize,
+                errorCategory,
+                dnsTimeMs,
+                connectTimeMs,
+                tlsTimeMs,
+                ttfbMs,
+                checkIntervalSeconds,
+                checkRetentionDays));
     }
 
     /**
@@ -148,6 +156,7 @@ public class MonitorCheckService {
         dto.setErrorCategory(check.getErrorCategory());
         dto.setDnsTimeMs(check.getDnsTimeMs());
         dto.setConnectTimeMs(check.getConnectTimeMs());
+        dto.setTlsTimeMs(check.getTlsTimeMs());
         dto.setTtfbMs(check.getTtfbMs());
 
         return dto;
@@ -0,0 +1,141 @@
+package com.watchdog.service;
+
+import com.watchdog.entity.AlertHistory;
+import com.watchdog.entity.Monitor;
+import com.watchdog.repository.AlertHistoryBatchRepository;
+import com.watchdog.repository.AlertOutboxRepository;
+import com.watchdog.repository.MonitorRepository;
+import com.watchdog.service.alerting.AlertThrottle;
+import com.watchdog.service.notification.PendingAlert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Hands out short-lived leases on monitors so that probes can run without an open transaction.
+ * Claiming and completing are each a short transaction; the HTTP call happens in between.
+ * A lease that is not completed in time (e.g. the worker died) can be reclaimed by another node.
+ */
+@Service
+public class MonitorLeaseService {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorLeaseService.class);
+
+    private static final int DUE_TOLERANCE_SECONDS = 1;
+
+    private final MonitorRepository monitorRepository;
+    private final AlertOutboxRepository alertOutboxRepository;
+    private final AlertHistoryBatchRepository alertHistoryBatchRepository;
+    private final AlertThrottle alertThrottle;
+    private final Duration coalesceWindow;
+
+    @Autowired
+    public MonitorLeaseService(
+            MonitorRepository monitorRepository,
+            AlertOutboxRepository alertOutboxRepository,
+            AlertHistoryBatchRepository alertHistoryBatchRepository,
+            AlertThrottle alertThrottle,
+            @Value("${application.notifications.coalesce-window-seconds:10}") int coalesceWindowSeconds) {
+        this.monitorRepository = monitorRepository;
+        this.alertOutboxRepository = alertOutboxRepository;
+        this.alertHistoryBatchRepository = alertHistoryBatchRepository;
+        this.alertThrottle = alertThrottle;
+        this.coalesceWindow = Duration.ofSeconds(coalesceWindowSeconds);
+    }
+
+    /**
+     * Claims the given due monitors for the given worker node.
+     * Monitors that are not due in the database or are held by another node are left out.
+     *
+     * @param nodeId       The ID of the claiming worker node.
+     * @param monitorIds   The IDs of the monitors the scheduler considers due.
+     * @param leaseSeconds How long the claim stays valid before another node may take over.
+     * @return The claimed monitors (detached once this transaction commits).
+     */
+    @Transactional
+    public List<Monitor> claimMonitors(String nodeId, Collection<Long> monitorIds, int leaseSeconds) {
+        LocalDateTime now = LocalDateTime.now();
+        // Tolerate small differences between the in-memory deadline and the persisted next_check_at
+        LocalDateTime cutoff = now.plusSeconds(DUE_TOLERANCE_SECONDS);
+        List<Monitor> monitors = new ArrayList<>(monitorIds.size());
+        for (Object[] row : monitorRepository.findAndLockMonitorsForCheck(monitorIds, cutoff, now)) {
+            Monitor monitor = (Monitor) row[0];
+            monitor.setCheckRetentionDays((Integer) row[1]);
+            monitors.add(monitor);
+            monitor.setClaimedBy(nodeId);
+            monitor.setLeaseExpiresAt(now.plusSeconds(leaseSeconds));
+        }
+        return monitorRepository.saveAll(monitors);
+    }
+
+    /**
+     * Writes back the outcome of a batch of checks, queues the alerts it caused and releases the leases.
+     * Monitors whose lease has meanwhile been taken over by another node are left untouched, and
+     * their alerts are dropped (releasing their throttle windows); the node that took over evaluates
+     * them again from the stored streaks. The alerts are held back for the coalescing window, so that
+     * alerts to the same destination during an incident go out as one digest. Throttled alerts are
+     * recorded in alert_history instead.
+     *
+     * @param nodeId   The ID of the worker node that ran the checks.
+     * @param monitors The checked monitors, carrying their new status, streak counters and next check time.
+     * @param alerts   The alerts caused by the checks.
+     */
+    @Transactional
+    public void completeChecks(String nodeId, List<Monitor> monitors, List<PendingAlert> alerts) {
+        Map<Long, Monitor> checked = monitors.stream()
+                .collect(Collectors.toMap(Monitor::getId, Function.identity()));
+
+        List<Monitor> toSave = new ArrayList<>(monitors.size());
+        for (Monitor monitor : monitorRepository.findAllById(checked.keySet())) {
+            if (!nodeId.equals(monitor.getClaimedBy())) {
+                log.warn("Worker: Lease on monitor {} was lost to {}, discarding result", monitor.getId(), monitor.getClaimedBy());
+                continue;
+            }
+            Monitor result = checked.get(monitor.getId());
+            monitor.setStatus(result.getStatus());
+            monitor.setLastCheckedAt(result.getLastCheckedAt());
+            monitor.setLastStatusChangeAt(result.getLastStatusChangeAt());
+            monitor.setConsecutiveFailures(result.getConsecutiveFailures());
+            monitor.setConsecutiveSuccesses(result.getConsecutiveSuccesses());
+            monitor.setNextCheckAt(result.getNextCheckAt());
+            monitor.setClaimedBy(null);
+            monitor.setLeaseExpiresAt(null);
+            toSave.add(monitor);
+        }
+        monitorRepository.saveAll(toSave);
+
+        Set<Long> saved = toSave.stream().map(Monitor::getId).collect(Collectors.toSet());
+        List<PendingAlert> toQueue = new ArrayList<>();
+        List<PendingAlert> throttled = new ArrayList<>();
+        for (PendingAlert alert : alerts) {
+            if (!saved.contains(alert.monitorId())) {
+                if (!alert.throttled()) {
+                    alertThrottle.release(alert.monitorId(), alert.alertConfigId(), alert.createdAt());
+                }
+            } else if (alert.throttled()) {
+                throttled.add(alert);
+            } else {
+                toQueue.add(alert);
+            }
+        }
+        if (!toQueue.isEmpty()) {
+            alertOutboxRepository.insertAll(toQueue, coalesceWindow);
+        }
+        if (!throttled.isEmpty()) {
+            alertHistoryBatchRepository.insertPending(throttled, " (throttled)", AlertHistory.AlertStatus.THROTTLED);
+        }
+    }
+}
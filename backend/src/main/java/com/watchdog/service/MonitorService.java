@@ -6,12 +6,19 @@ import com.watchdog.repository.MonitorRepository;
 import com.watchdog.repository.MonitorCheckRepository;
 import com.watchdog.repository.AlertConfigurationRepository; // Import the new repository
 import com.watchdog.repository.AlertHistoryRepository;
+import com.watchdog.repository.CheckRollupRepository;
+import com.watchdog.repository.MonitorUptimeRepository;
+import com.watchdog.repository.AlertOutboxRepository;
+import com.watchdog.service.alerting.RecentCheckBuffer;
 import com.watchdog.dto.CreateMonitorRequest;
 import com.watchdog.dto.MonitorDTO;
 import com.watchdog.exception.ResourceNotFoundException;
+import com.watchdog.service.scheduling.MonitorScheduler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,18 +33,33 @@ public class MonitorService {
     private final MonitorCheckRepository monitorCheckRepository;
     private final AlertConfigurationRepository alertConfigurationRepository; // Add new repository
     private final AlertHistoryRepository alertHistoryRepository;
+    private final MonitorScheduler monitorScheduler;
+    private final CheckRollupRepository checkRollupRepository;
+    private final MonitorUptimeRepository monitorUptimeRepository;
+    private final RecentCheckBuffer recentCheckBuffer;
+    private final AlertOutboxRepository alertOutboxRepository;
 
     @Autowired
     public MonitorService(MonitorRepository monitorRepository,
                           AuthService authService,
                           MonitorCheckRepository monitorCheckRepository,
                           AlertConfigurationRepository alertConfigurationRepository,
-                          AlertHistoryRepository alertHistoryRepository) {
+                          AlertHistoryRepository alertHistoryRepository,
+                          MonitorScheduler monitorScheduler,
+                          CheckRollupRepository checkRollupRepository,
+                          MonitorUptimeRepository monitorUptimeRepository,
+                          RecentCheckBuffer recentCheckBuffer,
+                          AlertOutboxRepository alertOutboxRepository) {
         this.monitorRepository = monitorRepository;
         this.authService = authService;
         this.monitorCheckRepository = monitorCheckRepository;
         this.alertConfigurationRepository = alertConfigurationRepository; // Initialize it
         this.alertHistoryRepository = alertHistoryRepository; // Initialize it
+        this.monitorScheduler = monitorScheduler;
+        this.checkRollupRepository = checkRollupRepository;
+        this.monitorUptimeRepository = monitorUptimeRepository;
+        this.recentCheckBuffer = recentCheckBuffer;
+        this.alertOutboxRepository = alertOutboxRepository;
     }
 
     @Transactional
@@ -50,6 +72,8 @@ public class MonitorService {
         monitor.setUrl(request.getUrl());
         monitor.setCheckIntervalSeconds(request.getCheckIntervalSeconds());
         monitor.setType(request.getType());
+        monitor.setContentMatchString(request.getContentMatchString());
+        monitor.setColdConnection(request.isColdConnection());
         monitor.setStatus(Monitor.MonitorStatus.UNKNOWN); // Initial status
         monitor.setCreatedAt(LocalDateTime.now());
         monitor.setUpdatedAt(LocalDateTime.now());
@@ -57,6 +81,7 @@ public class MonitorService {
         monitor.setNextCheckAt(LocalDateTime.now());
 
         Monitor savedMonitor = monitorRepository.save(monitor);
+        afterCommit(() -> monitorScheduler.schedule(savedMonitor));
         return convertToMonitorDTO(savedMonitor);
     }
 
@@ -88,12 +113,15 @@ public class MonitorService {
         monitor.setUrl(request.getUrl());
         monitor.setCheckIntervalSeconds(request.getCheckIntervalSeconds());
         monitor.setType(request.getType());
+        monitor.setContentMatchString(request.getContentMatchString());
+        monitor.setColdConnection(request.isColdConnection());
         monitor.setUpdatedAt(LocalDateTime.now());
         // --- New: Recalculate next_check_at on update ---
         // This is important if the check interval has changed
         monitor.setNextCheckAt(LocalDateTime.now().plusSeconds(monitor.getCheckIntervalSeconds()));
 
         Monitor updatedMonitor = monitorRepository.save(monitor);
+        afterCommit(() -> monitorScheduler.schedule(updatedMonitor));
         return convertToMonitorDTO(updatedMonitor);
     }
 
@@ -109,6 +137,27 @@ public class MonitorService {
                 .orElseThrow(() -> new ResourceNotFoundException("Monitor not found or not owned by user with ID: " + monitorId));
 
         monitorRepository.delete(monitor); // cascade removes checks, alert configs, alert histories
+        checkRollupRepository.deleteByMonitorId(monitorId);
+        monitorUptimeRepository.deleteByMonitorId(monitorId);
+        alertOutboxRepository.deleteByMonitorId(monitorId);
+        afterCommit(() -> {
+            monitorScheduler.unschedule(monitorId);
+            recentCheckBuffer.evict(monitorId);
+        });
+    }
+
+    // The scheduler's tick claims monitors from the database, so it must not see changes that are not committed yet
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 
     // This method will be called by the Scheduler/Worker service internally
@@ -137,6 +186,8 @@ public class MonitorService {
         dto.setStatus(monitor.getStatus());
         dto.setLastCheckedAt(monitor.getLastCheckedAt());
         dto.setLastStatusChangeAt(monitor.getLastStatusChangeAt());
+        dto.setContentMatchString(monitor.getContentMatchString());
+        dto.setColdConnection(monitor.isColdConnection());
         dto.setCreatedAt(monitor.getCreatedAt());
         return dto;
     }
@@ -0,0 +1,49 @@
+package com.watchdog.service;
+
+import com.watchdog.dto.UpdateCheckRetentionRequest;
+import com.watchdog.dto.UserDTO;
+import com.watchdog.entity.User;
+import com.watchdog.exception.ResourceNotFoundException;
+import com.watchdog.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class UserService {
+
+    private final UserRepository userRepository;
+
+    public UserService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public UserDTO getUser(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        return convertToUserDTO(user);
+    }
+
+    /**
+     * Changes how long the user's check history is kept. Checks are stored with the retention tier
+     * they were written under, so the new retention applies to checks written from now on; older
+     * checks expire with their original tier, see CheckRetentionService.
+     */
+    @Transactional
+    public UserDTO updateCheckRetention(Long userId, UpdateCheckRetentionRequest request) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        user.setCheckRetentionDays(request.getCheckRetentionDays());
+        return convertToUserDTO(userRepository.save(user));
+    }
+
+    private UserDTO convertToUserDTO(User user) {
+        UserDTO dto = new UserDTO();
+        dto.setId(user.getId());
+        dto.setEmail(user.getEmail());
+        dto.setCreatedAt(user.getCreatedAt());
+        dto.setUpdatedAt(user.getUpdatedAt());
+        dto.setCheckRetentionDays(user.getCheckRetentionDays());
+        return dto;
+    }
+}
@@ -2,26 +2,29 @@ package com.watchdog.service;
 
 import com.watchdog.entity.Monitor;
 import com.watchdog.entity.MonitorCheck;
-import com.watchdog.repository.MonitorRepository;
+import com.watchdog.service.alerting.RecentCheckBuffer;
+import com.watchdog.service.ingestion.CheckIngestionQueue;
+import com.watchdog.service.notification.PendingAlert;
+import com.watchdog.service.probe.ProbeEngine;
+import com.watchdog.service.probe.ProbeResult;
+import com.watchdog.service.scheduling.MonitorScheduler;
+import com.watchdog.service.scheduling.WorkerMembership;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.RequestEntity;
-import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.RestTemplate;
 
-import java.net.ConnectException;
-import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -30,144 +33,171 @@ public class WorkerService {
 
     private static final Logger log = LoggerFactory.getLogger(WorkerService.class);
 
-    private final MonitorRepository monitorRepository;
+    private final MonitorLeaseService monitorLeaseService;
     private final MonitorCheckService monitorCheckService;
+    private final CheckIngestionQueue checkIngestionQueue;
     private final AlertingService alertingService;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RecentCheckBuffer recentCheckBuffer;
+    private final ThreadPoolTaskExecutor probeExecutor;
+    private final MonitorScheduler monitorScheduler;
+    private final List<ProbeEngine> probeEngines;
+    private final String nodeId;
+
+    @Value("${application.worker.batch-size:100}")
+    private int batchSize;
+
+    @Value("${application.worker.lease-seconds:60}")
+    private int leaseSeconds;
 
     @Autowired
     public WorkerService(
-            MonitorRepository monitorRepository,
+            MonitorLeaseService monitorLeaseService,
             MonitorCheckService monitorCheckService,
-            AlertingService alertingService) {
-        this.monitorRepository = monitorRepository;
+            CheckIngestionQueue checkIngestionQueue,
+            AlertingService alertingService,
+            RecentCheckBuffer recentCheckBuffer,
+            @Qualifier("probeExecutor") ThreadPoolTaskExecutor probeExecutor,
+            MonitorScheduler monitorScheduler,
+            WorkerMembership workerMembership,
+            List<ProbeEngine> probeEngines) {
+        this.monitorLeaseService = monitorLeaseService;
         this.monitorCheckService = monitorCheckService;
+        this.checkIngestionQueue = checkIngestionQueue;
         this.alertingService = alertingService;
+        this.recentCheckBuffer = recentCheckBuffer;
+        this.probeExecutor = probeExecutor;
+        this.monitorScheduler = monitorScheduler;
+        this.probeEngines = probeEngines;
+        // Identifies this node in monitors.claimed_by
+        this.nodeId = workerMembership.getNodeId();
     }
 
     /**
-     * Workers continuously poll for and execute monitor checks.
+     * Workers continuously execute the monitor checks that the in-memory schedule reports as due.
+     * Each tick leases the due batch in one short transaction and starts the probes on the
+     * probe engine for each monitor's type without waiting for them. When every probe of the batch has
+     * completed, the results are written back in a second short transaction.
+     * The database is not touched at all on ticks where nothing is due.
      */
-    @Scheduled(fixedDelay = 2000, timeUnit = TimeUnit.MILLISECONDS)
-    @Async
-    @Transactional // A new transaction is started for each worker task
+    @Scheduled(fixedDelayString = "${application.worker.tick-ms:250}", timeUnit = TimeUnit.MILLISECONDS)
     public void processMonitorCheckTasks() {
-        // Poll for a monitor that is due for a check and lock it
-        Monitor monitor = monitorRepository.findAndLockNextMonitorDueForCheck(LocalDateTime.now());
-
-        if (monitor != null) {
-            log.info("Worker: Processing monitor ID: {}", monitor.getId());
-
-            // --- The missing part: Call the check logic directly ---
-            performCheck(monitor);
-
-            // At the end of the check, update the next check time
-            monitor.setNextCheckAt(LocalDateTime.now().plusSeconds(monitor.getCheckIntervalSeconds()));
-            monitorRepository.save(monitor);
+        // Never claim more than any probe engine can take in flight, or than the result queue can absorb
+        int capacity = Math.min(batchSize, checkIngestionQueue.remainingCapacity());
+        for (ProbeEngine probeEngine : probeEngines) {
+            capacity = Math.min(capacity, probeEngine.availableSlots());
         }
-    }
-
-    @Transactional
-    public void performCheck(Monitor monitor) {
-        // Your existing performCheck logic, but it now takes a Monitor object
-        // and doesn't need to look it up again by ID.
-        if (monitor == null || monitor.getStatus() == Monitor.MonitorStatus.PAUSED) {
-            log.info("Worker: Monitor {} not found or paused, skipping check.", monitor.getId());
+        if (capacity <= 0) {
+            return;
+        }
+        List<Long> dueMonitorIds = monitorScheduler.pollDue(capacity);
+        if (dueMonitorIds.isEmpty()) {
             return;
         }
 
-        Integer httpStatusCode = null;
-        Long responseTimeMs = null;
-        Boolean isUp = false;
-        String errorMessage = null;
-        LocalDateTime checkTimestamp = LocalDateTime.now();
-
-        Long responseBodySize = null;
-        MonitorCheck.ErrorCategory errorCategory = MonitorCheck.ErrorCategory.NONE;
-        Long dnsTimeMs = null;
-        Long connectTimeMs = null;
-        Long ttfbMs = null;
-
-        long startTime = System.currentTimeMillis();
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("User-Agent", "..."); // User-Agent header from your original code
-
-        try {
-            RequestEntity<Void> requestEntity = new RequestEntity<>(headers, HttpMethod.GET, new URI(monitor.getUrl()));
-            ResponseEntity<String> response = restTemplate.exchange(requestEntity, String.class);
+        // Lease the monitors that are due for a check
+        List<Monitor> monitors = monitorLeaseService.claimMonitors(nodeId, dueMonitorIds, leaseSeconds);
+        if (monitors.isEmpty()) {
+            return;
+        }
 
-            long endTime = System.currentTimeMillis();
-            responseTimeMs = endTime - startTime;
-            httpStatusCode = response.getStatusCode().value();
+        log.info("Worker: Processing batch of {} monitors", monitors.size());
+
+        List<CompletableFuture<Void>> checks = new ArrayList<>(monitors.size());
+        Queue<PendingAlert> alerts = new ConcurrentLinkedQueue<>();
+        for (Monitor monitor : monitors) {
+            checks.add(probe(monitor)
+                    // Recording the result touches the database, so keep it off the probe engine's threads
+                    .thenAcceptAsync(result -> alerts.addAll(recordResult(monitor, result)), probeExecutor)
+                    .exceptionally(e -> {
+                        log.error("Worker: Check for monitor {} failed unexpectedly: {}", monitor.getId(), e.getMessage(), e);
+                        return null;
+                    }));
+        }
 
-            isUp = response.getStatusCode().is2xxSuccessful() || response.getStatusCode().is3xxRedirection();
-            log.info("Worker: Check for monitor {} completed. URL: {}, Status: {}, Response time: {}ms",
-                    monitor.getId(), monitor.getUrl(), httpStatusCode, responseTimeMs);
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, e) -> completeBatch(monitors, List.copyOf(alerts)));
+    }
 
-            if (response.getHeaders().getContentLength() != -1) {
-                responseBodySize = response.getHeaders().getContentLength();
+    private CompletableFuture<ProbeResult> probe(Monitor monitor) {
+        for (ProbeEngine probeEngine : probeEngines) {
+            if (probeEngine.supports(monitor.getType())) {
+                return probeEngine.probe(monitor);
             }
+        }
+        return CompletableFuture.completedFuture(ProbeResult.failure(MonitorCheck.ErrorCategory.UNKNOWN_ERROR,
+                "Unsupported monitor type: " + monitor.getType(), -2, 0L));
+    }
 
-            ttfbMs = responseTimeMs / 2;
-            connectTimeMs = responseTimeMs / 4;
-            dnsTimeMs = responseTimeMs / 4;
-
-        } catch (HttpClientErrorException e) {
-            long endTime = System.currentTimeMillis();
-            responseTimeMs = endTime - startTime;
-            isUp = false;
-            errorMessage = "HTTP Error " + e.getStatusCode() + ": " + e.getStatusText();
-            httpStatusCode = e.getStatusCode().value();
-
-            // ... your existing error handling logic
-        } catch (ResourceAccessException e) {
-            long endTime = System.currentTimeMillis();
-            responseTimeMs = endTime - startTime;
-            isUp = false;
-            errorMessage = "Connection Error: " + (e.getCause() instanceof ConnectException ? "Could not establish connection." : e.getMessage());
-            httpStatusCode = -1;
-            errorCategory = MonitorCheck.ErrorCategory.NETWORK_ERROR;
-            log.error("Worker: Network error for monitor {}: {}", monitor.getId(), errorMessage, e);
+    // Checkpoints the scheduled next check times, queues the batch's alerts and releases the leases of a finished batch
+    private void completeBatch(List<Monitor> monitors, List<PendingAlert> alerts) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Monitor monitor : monitors) {
+            LocalDateTime nextCheckAt = monitorScheduler.getNextCheckAt(monitor.getId());
+            monitor.setNextCheckAt(nextCheckAt != null ? nextCheckAt : now.plusSeconds(monitor.getCheckIntervalSeconds()));
+        }
+        try {
+            monitorLeaseService.completeChecks(nodeId, monitors, alerts);
         } catch (Exception e) {
-            long endTime = System.currentTimeMillis();
-            responseTimeMs = endTime - startTime;
-            isUp = false;
-            errorMessage = "Unknown Error: " + e.getMessage();
-            httpStatusCode = -2;
-            errorCategory = MonitorCheck.ErrorCategory.UNKNOWN_ERROR;
-            log.error("Worker: General error for monitor {}: {}", monitor.getId(), errorMessage, e);
+            // The leases expire on their own and the monitors are picked up again
+            log.error("Worker: Failed to complete batch of {} monitors: {}", monitors.size(), e.getMessage(), e);
+            alertingService.discardAlerts(alerts);
         }
+    }
+
+    /**
+     * Records the outcome of a probe, updates the monitor's status and streak counters and evaluates its alerts.
+     * The monitor itself and the alerts are persisted by MonitorLeaseService.completeChecks once the batch is done.
+     *
+     * @param monitor The checked monitor.
+     * @param result  The outcome of the probe.
+     * @return The alerts the check caused.
+     */
+    public List<PendingAlert> recordResult(Monitor monitor, ProbeResult result) {
+        boolean isUp = result.isUp();
+        log.info("Worker: Check for monitor {} completed. URL: {}, Status: {}, Response time: {}ms",
+                monitor.getId(), monitor.getUrl(), result.getHttpStatusCode(), result.getResponseTimeMs());
 
         // Record the check result
         monitorCheckService.recordMonitorCheck(
                 monitor.getId(),
-                httpStatusCode,
-                responseTimeMs,
+                result.getHttpStatusCode(),
+                result.getResponseTimeMs(),
                 isUp,
-                errorMessage,
-                responseBodySize,
-                errorCategory,
-                dnsTimeMs,
-                connectTimeMs,
-                ttfbMs);
+                result.getErrorMessage(),
+                result.getResponseBodySize(),
+                result.getErrorCategory(),
+                result.getDnsTimeMs(),
+                result.getConnectTimeMs(),
+                result.getTlsTimeMs(),
+                result.getTtfbMs(),
+                result.getTimestamp(),
+                monitor.getCheckIntervalSeconds(),
+                monitor.getCheckRetentionDays());
+
+        // Before lastCheckedAt moves on, which tells the buffer whether it missed checks made elsewhere
+        recentCheckBuffer.record(monitor, isUp, result.getResponseTimeMs(), result.getTimestamp());
 
         log.debug("Worker: Recorded check for monitor {}. isUp: {}", monitor.getId(), isUp);
 
         // Detect status change and trigger alert logic
+        LocalDateTime checkTimestamp = result.getTimestamp();
         Monitor.MonitorStatus newStatus = isUp ? Monitor.MonitorStatus.UP : Monitor.MonitorStatus.DOWN;
         Monitor.MonitorStatus oldStatus = monitor.getStatus();
 
         monitor.setLastCheckedAt(checkTimestamp);
+        if (isUp) {
+            monitor.setConsecutiveSuccesses(monitor.getConsecutiveSuccesses() + 1);
+            monitor.setConsecutiveFailures(0);
+        } else {
+            monitor.setConsecutiveFailures(monitor.getConsecutiveFailures() + 1);
+            monitor.setConsecutiveSuccesses(0);
+        }
 
         if (newStatus != oldStatus) {
             monitor.setStatus(newStatus);
             monitor.setLastStatusChangeAt(checkTimestamp);
             log.info("Worker: Monitor {} status changed from {} to {}", monitor.getId(), oldStatus, newStatus);
-            if (newStatus == Monitor.MonitorStatus.DOWN) {
-                alertingService.handleMonitorStatusChange(monitor.getId(), oldStatus, newStatus);
-            }
         }
-        // monitorRepository.save(monitor) is now done in the calling method
+        return alertingService.handleCheckResult(monitor);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+package com.watchdog.service.alerting;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers, per monitor and alert configuration, until when further alerts are throttled.
+ *
+ * The throttle windows live in Redis as keys set with SET NX PX, so across all nodes exactly one
+ * alert per window gets through: whoever creates the key sends, everybody else is throttled until
+ * it expires. Every node caches the windows it has seen (in a Caffeine cache whose entries expire
+ * with the window), so checking a throttled alert again is a memory lookup; only an alert that
+ * may be sent costs a Redis round trip.
+ *
+ * A window belongs to the alert that started it: its key holds the alert's creation time. If that
+ * alert is never sent (its check outcome was not stored, or delivery was given up on), the window
+ * is released, so the next alert is not throttled by one nobody received.
+ *
+ * If Redis is unreachable the local cache alone decides, so alerts are still throttled per node
+ * rather than dropped.
+ */
+@Component
+public class AlertThrottle {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertThrottle.class);
+
+    private static final String KEY_PREFIX = "watchdog:alert-throttle:";
+
+    // Deletes the key only if it still holds the given alert's window
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private record Key(long monitorId, long alertConfigId) {
+    }
+
+    // until is the end of the window in epoch milliseconds; owner is null for windows started on other nodes
+    private record Window(long until, String owner) {
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<Key, Window> windows;
+
+    public AlertThrottle(
+            StringRedisTemplate redisTemplate,
+            @Value("${application.alerting.throttle.cache-size:100000}") long cacheSize) {
+        this.redisTemplate = redisTemplate;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(Expiry.<Key, Window>writing((key, window) ->
+                        Duration.ofMillis(Math.max(0, window.until() - System.currentTimeMillis()))))
+                .build();
+    }
+
+    /**
+     * Starts a throttle window for the given monitor and alert configuration unless one is running.
+     * Atomic across nodes: of concurrent callers for the same pair, only one gets true.
+     *
+     * @param window         The length of the throttle window; zero disables throttling.
+     * @param alertCreatedAt The creation time of the alert, identifying the window it starts.
+     * @return True if the alert may be sent, false if it is throttled.
+     */
+    public boolean tryAcquire(long monitorId, long alertConfigId, Duration window, LocalDateTime alertCreatedAt) {
+        if (window.isZero() || window.isNegative()) {
+            return true;
+        }
+        Key key = new Key(monitorId, alertConfigId);
+        long now = System.currentTimeMillis();
+        Window running = windows.getIfPresent(key);
+        if (running != null && running.until() > now) {
+            return false;
+        }
+
+        String redisKey = key(monitorId, alertConfigId);
+        String owner = alertCreatedAt.toString();
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(redisKey, owner, window))) {
+                windows.put(key, new Window(now + window.toMillis(), owner));
+                return true;
+            }
+            // Another node started the window; remember until when it runs
+            Long remainingMs = redisTemplate.getExpire(redisKey, TimeUnit.MILLISECONDS);
+            if (remainingMs != null && remainingMs > 0) {
+                windows.put(key, new Window(now + remainingMs, null));
+                return false;
+            }
+            // The window ran out in between
+            boolean acquired = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(redisKey, owner, window));
+            if (acquired) {
+                windows.put(key, new Window(now + window.toMillis(), owner));
+            }
+            return acquired;
+        } catch (DataAccessException e) {
+            log.warn("Alerting: Failed to check the throttle of monitor {} and config {} in Redis, throttling locally: {}",
+                    monitorId, alertConfigId, e.getMessage());
+            windows.put(key, new Window(now + window.toMillis(), owner));
+            return true;
+        }
+    }
+
+    /**
+     * Ends the throttle window started by the given alert, because the alert will not be sent.
+     * Does nothing if the window has run out or belongs to another alert by now.
+     *
+     * @param alertCreatedAt The creation time of the alert, as passed to tryAcquire.
+     */
+    public void release(long monitorId, long alertConfigId, LocalDateTime alertCreatedAt) {
+        String owner = alertCreatedAt.toString();
+        windows.asMap().computeIfPresent(new Key(monitorId, alertConfigId),
+                (key, window) -> owner.equals(window.owner()) ? null : window);
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key(monitorId, alertConfigId)), owner);
+        } catch (DataAccessException e) {
+            log.warn("Alerting: Failed to release the throttle of monitor {} and config {} in Redis: {}",
+                    monitorId, alertConfigId, e.getMessage());
+        }
+    }
+
+    private static String key(long monitorId, long alertConfigId) {
+        return KEY_PREFIX + monitorId + ":" + alertConfigId;
+    }
+}
@@ -0,0 +1,142 @@
+package com.watchdog.service.alerting;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The most recent checks of one monitor (outcome, response time and timestamp), the oldest
+ * overwritten first. Kept in primitive arrays, so recording and scanning allocate nothing.
+ * Not thread-safe; callers synchronize on the ring.
+ */
+class CheckRing {
+
+    private static final long NO_RESPONSE_TIME = -1;
+
+    private boolean[] up;
+    private long[] responseTimesMs;
+    private long[] timestampsMicros;
+    private int head; // index of the next write
+    private int size;
+    // Whether the ring holds every check of the monitor, i.e. there is nothing older to load
+    private boolean complete;
+
+    CheckRing(int capacity) {
+        this.up = new boolean[capacity];
+        this.responseTimesMs = new long[capacity];
+        this.timestampsMicros = new long[capacity];
+    }
+
+    int capacity() {
+        return up.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    /**
+     * Appends the newest check, overwriting the oldest one if the ring is full.
+     */
+    void add(boolean isUp, Long responseTimeMs, LocalDateTime timestamp) {
+        if (size == up.length) {
+            complete = false;
+        } else {
+            size++;
+        }
+        set(head, isUp, responseTimeMs, timestamp);
+        head = (head + 1) % up.length;
+    }
+
+    /**
+     * Inserts a check older than every check in the ring. Ignored if the ring is full.
+     */
+    void addOldest(boolean isUp, Long responseTimeMs, LocalDateTime timestamp) {
+        if (size == up.length) {
+            return;
+        }
+        set(Math.floorMod(head - size - 1, up.length), isUp, responseTimeMs, timestamp);
+        size++;
+    }
+
+    private void set(int index, boolean isUp, Long responseTimeMs, LocalDateTime timestamp) {
+        up[index] = isUp;
+        responseTimesMs[index] = responseTimeMs != null ? responseTimeMs : NO_RESPONSE_TIME;
+        timestampsMicros[index] = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+
+    /**
+     * Moves the checks into larger arrays, keeping their order.
+     */
+    void grow(int capacity) {
+        if (capacity <= up.length) {
+            return;
+        }
+        boolean[] newUp = new boolean[capacity];
+        long[] newResponseTimesMs = new long[capacity];
+        long[] newTimestampsMicros = new long[capacity];
+        for (int i = 0; i < size; i++) {
+            int index = Math.floorMod(head - size + i, up.length);
+            newUp[i] = up[index];
+            newResponseTimesMs[i] = responseTimesMs[index];
+            newTimestampsMicros[i] = timestampsMicros[index];
+        }
+        up = newUp;
+        responseTimesMs = newResponseTimesMs;
+        timestampsMicros = newTimestampsMicros;
+        head = size;
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+        complete = false;
+    }
+
+    /**
+     * @return The timestamp of the i-th most recent check (0 = newest).
+     */
+    LocalDateTime timestamp(int i) {
+        long micros = timestampsMicros[Math.floorMod(head - 1 - i, up.length)];
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * @return The response time of the i-th most recent check (0 = newest), or null if it had none.
+     */
+    Long responseTimeMs(int i) {
+        long responseTimeMs = responseTimesMs[Math.floorMod(head - 1 - i, up.length)];
+        return responseTimeMs != NO_RESPONSE_TIME ? responseTimeMs : null;
+    }
+
+    /**
+     * @return Whether the i-th most recent check (0 = newest) was up.
+     */
+    boolean isUp(int i) {
+        return up[Math.floorMod(head - 1 - i, up.length)];
+    }
+
+    /**
+     * @return Whether the count checks before the skip most recent ones all had the given outcome;
+     * false if there are fewer checks.
+     */
+    boolean allMatch(int skip, int count, boolean isUp) {
+        if (skip + count > size) {
+            return false;
+        }
+        for (int i = skip; i < skip + count; i++) {
+            if (up[Math.floorMod(head - 1 - i, up.length)] != isUp) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
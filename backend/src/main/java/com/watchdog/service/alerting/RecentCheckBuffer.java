@@ -0,0 +1,116 @@
+package com.watchdog.service.alerting;
+
+import com.watchdog.entity.Monitor;
+import com.watchdog.entity.MonitorCheck;
+import com.watchdog.repository.MonitorCheckRepository;
+import com.watchdog.service.scheduling.WorkerMembership;
+import com.watchdog.service.scheduling.WorkerMembershipChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The most recent checks of every monitor this node has checked, held in memory for alert evaluation.
+ *
+ * The worker records every check result here as it completes, so alert evaluation can look at the
+ * checks before the current streak (e.g. whether a recovery follows an alerted outage) with a scan
+ * over a small array instead of querying monitor_checks, which, being written behind, may not even
+ * contain the latest checks yet. A monitor's ring grows to the most checks asked of it.
+ * When it holds fewer checks than asked for, e.g. after a restart, the missing older checks are
+ * loaded from the database once.
+ *
+ * If another node checked the monitor in the meantime (the monitor's lastCheckedAt is newer than
+ * the ring's newest check), the ring is discarded and rebuilt from the database. When the worker
+ * membership changes, the rings of monitors that moved to another node are dropped right away,
+ * so they neither pile up nor come back stale should the monitor return to this node.
+ */
+@Component
+public class RecentCheckBuffer {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final MonitorCheckRepository monitorCheckRepository;
+    private final WorkerMembership workerMembership;
+    private final Map<Long, CheckRing> rings = new ConcurrentHashMap<>();
+
+    public RecentCheckBuffer(MonitorCheckRepository monitorCheckRepository, WorkerMembership workerMembership) {
+        this.monitorCheckRepository = monitorCheckRepository;
+        this.workerMembership = workerMembership;
+    }
+
+    /**
+     * Records a check result. Must be called before the monitor's lastCheckedAt is set to the check's timestamp.
+     */
+    public void record(Monitor monitor, boolean isUp, Long responseTimeMs, LocalDateTime timestamp) {
+        CheckRing ring = ring(monitor.getId(), INITIAL_CAPACITY);
+        synchronized (ring) {
+            LocalDateTime lastCheckedAt = monitor.getLastCheckedAt();
+            if (ring.size() > 0 && lastCheckedAt != null && ring.timestamp(0).isBefore(lastCheckedAt)) {
+                // Checked elsewhere since; the older checks are loaded again when needed
+                ring.clear();
+            }
+            if (ring.size() == 0 && lastCheckedAt == null) {
+                // Never checked before, so there is nothing older to load
+                ring.setComplete(true);
+            }
+            ring.add(isUp, responseTimeMs, timestamp);
+        }
+    }
+
+    /**
+     * @return Whether the count checks before the monitor's skip most recent ones all had the given
+     * outcome; false if it has had fewer checks.
+     */
+    public boolean checksAll(Long monitorId, int skip, int count, boolean isUp) {
+        if (count <= 0) {
+            return false;
+        }
+        CheckRing ring = ring(monitorId, skip + count);
+        synchronized (ring) {
+            ensureHistory(monitorId, ring, skip + count);
+            return ring.allMatch(skip, count, isUp);
+        }
+    }
+
+    public void evict(Long monitorId) {
+        rings.remove(monitorId);
+    }
+
+    /**
+     * Drops the rings of the monitors that are now checked by another node.
+     */
+    @EventListener
+    public void onMembershipChanged(WorkerMembershipChangedEvent event) {
+        rings.keySet().removeIf(monitorId -> !workerMembership.owns(monitorId));
+    }
+
+    private CheckRing ring(Long monitorId, int capacity) {
+        return rings.computeIfAbsent(monitorId, id -> new CheckRing(Math.max(INITIAL_CAPACITY, capacity)));
+    }
+
+    // Loads older checks from the database until the ring holds at least count checks, if there are that many
+    private void ensureHistory(Long monitorId, CheckRing ring, int count) {
+        if (ring.size() >= count) {
+            return;
+        }
+        ring.grow(count);
+        if (ring.isComplete()) {
+            return;
+        }
+        int missing = count - ring.size();
+        PageRequest page = PageRequest.of(0, missing);
+        List<MonitorCheck> older = ring.size() == 0
+                ? monitorCheckRepository.findByMonitor_IdOrderByTimestampDesc(monitorId, page)
+                : monitorCheckRepository.findByMonitor_IdAndTimestampBeforeOrderByTimestampDesc(
+                        monitorId, ring.timestamp(ring.size() - 1), page);
+        for (MonitorCheck check : older) {
+            ring.addOldest(Boolean.TRUE.equals(check.getIsUp()), check.getResponseTimeMs(), check.getTimestamp());
+        }
+        ring.setComplete(older.size() < missing);
+    }
+}
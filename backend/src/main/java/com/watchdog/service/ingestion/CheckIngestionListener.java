@@ -0,0 +1,17 @@
+package com.watchdog.service.ingestion;
+
+import java.util.List;
+
+/**
+ * Derived data that is maintained from ingested check results.
+ *
+ * Listeners are called by CheckIngestionQueue in the same transaction that inserts the checks,
+ * so a batch is either counted everywhere or, when the write is retried, nowhere.
+ */
+public interface CheckIngestionListener {
+
+    /**
+     * @param records The check results just inserted; must not be modified.
+     */
+    void onChecksWritten(List<CheckRecord> records);
+}
@@ -0,0 +1,309 @@
+package com.watchdog.service.ingestion;
+
+import com.watchdog.repository.MonitorCheckBatchRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for check results.
+ *
+ * Results are queued in memory and written by a single flusher thread in JDBC batches of up to
+ * batch-size rows, at least every flush-interval-ms while results are coming in. The queue is
+ * bounded: the worker stops claiming monitors while it is nearly full, and recording threads block
+ * when it is full, so a slow database pushes back on the probes instead of growing the heap.
+ * On shutdown everything still queued is written before the application context closes.
+ *
+ * Each batch is inserted in one transaction together with the updates of the CheckIngestionListeners
+ * (rollups and other derived data), so a retried batch is never counted twice. Only transient failures
+ * (lost connections, deadlocks, timeouts) are retried. When a batch fails for any other reason, the
+ * results of monitors deleted in the meantime are dropped and the rest written again as one batch;
+ * only if that fails too is the batch bisected down to the rows that are dropped, so one bad result
+ * neither stalls ingestion nor turns a batch into hundreds of single-row transactions.
+ */
+@Component
+public class CheckIngestionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckIngestionQueue.class);
+
+    private static final long MAX_RETRY_BACKOFF_MS = 5000;
+
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+    private static final String CONNECTION_EXCEPTION_CLASS = "08";
+
+    private final MonitorCheckBatchRepository batchRepository;
+    private final List<CheckIngestionListener> listeners;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<CheckRecord> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long shutdownTimeoutMs;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public CheckIngestionQueue(
+            MonitorCheckBatchRepository batchRepository,
+            List<CheckIngestionListener> listeners,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.ingestion.queue-capacity:20000}") int queueCapacity,
+            @Value("${application.ingestion.batch-size:500}") int batchSize,
+            @Value("${application.ingestion.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${application.ingestion.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.batchRepository = batchRepository;
+        this.listeners = listeners;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.flusher = Thread.ofPlatform().name("check-ingestion").daemon().start(this::flushLoop);
+    }
+
+    /**
+     * Queues a check result for writing, blocking while the queue is full.
+     *
+     * @param record The check result.
+     */
+    public void enqueue(CheckRecord record) {
+        if (!running) {
+            // Late results after shutdown started are written directly
+            write(new ArrayList<>(List.of(record)));
+            return;
+        }
+        try {
+            while (!queue.offer(record, flushIntervalMs * 10, TimeUnit.MILLISECONDS)) {
+                log.warn("Ingestion: Queue full ({} results), waiting for the database to catch up", queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write(new ArrayList<>(List.of(record)));
+        }
+    }
+
+    /**
+     * @return How many more results can be queued without blocking.
+     */
+    public int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    private void flushLoop() {
+        List<CheckRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                CheckRecord first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Collect until the batch is full or the flush interval has passed since the first result
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remainingNanos <= 0 || !running) {
+                        break;
+                    }
+                    CheckRecord next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                // Shutdown: keep draining until the queue is empty
+                running = false;
+            } catch (Exception e) {
+                log.error("Ingestion: Unexpected error, dropping {} check results: {}", batch.size(), e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Retries transient failures with backoff; while this blocks, the queue fills and pushes back on the probes
+    private void writeWithRetry(List<CheckRecord> batch) throws InterruptedException {
+        long backoffMs = 100;
+        while (true) {
+            try {
+                write(batch);
+                return;
+            } catch (RuntimeException e) {
+                // write() only lets transient failures through
+                if (!running) {
+                    log.error("Ingestion: Dropping {} check results during shutdown: {}", batch.size(), e.getMessage());
+                    return;
+                }
+                log.warn("Ingestion: Failed to write {} check results, retrying in {}ms: {}", batch.size(), backoffMs, e.getMessage());
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction. If that fails for any reason other than a transient one,
+     * the results of monitors that no longer exist (deleted while their results were queued, the
+     * usual cause) are dropped and the rest is written again. If that still fails, the batch is split
+     * in halves until the rows the database or a listener rejects are isolated and dropped. Records
+     * are removed from the batch once written or dropped, so after a transient failure a retry writes
+     * only the rest.
+     *
+     * @throws RuntimeException A transient failure; the records left in the batch should be retried.
+     */
+    private void write(List<CheckRecord> batch) {
+        try {
+            insert(batch);
+            batch.clear();
+            return;
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+        }
+        Rejected rejected = new Rejected();
+        Set<CheckRecord> done = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            Set<Long> existing = existingMonitorIds(batch);
+            List<CheckRecord> survivors = new ArrayList<>(batch.size());
+            for (CheckRecord record : batch) {
+                if (existing == null || existing.contains(record.monitorId())) {
+                    survivors.add(record);
+                } else {
+                    rejected.missingMonitorIds.add(record.monitorId());
+                    done.add(record);
+                }
+            }
+            if (!survivors.isEmpty()) {
+                insertBisecting(survivors, done, rejected);
+            }
+        } finally {
+            batch.removeIf(done::contains);
+            if (!rejected.missingMonitorIds.isEmpty()) {
+                log.warn("Ingestion: Dropped {} check results of missing monitors {}", rejected.missingMonitorIds.size(),
+                        new TreeSet<>(rejected.missingMonitorIds));
+            }
+            if (!rejected.failedMonitorIds.isEmpty()) {
+                log.error("Ingestion: Dropped {} check results of monitors {} that could not be written: {}",
+                        rejected.failedMonitorIds.size(), new TreeSet<>(rejected.failedMonitorIds),
+                        rejected.firstFailure.getMessage(), rejected.firstFailure);
+            }
+        }
+    }
+
+    // The monitors of the batch that still exist, or null if that cannot be told (then nothing is dropped up front)
+    private Set<Long> existingMonitorIds(List<CheckRecord> batch) {
+        try {
+            return batchRepository.findExistingMonitorIds(batch.stream().map(CheckRecord::monitorId).toList());
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+            return null;
+        }
+    }
+
+    // Inserts the records in one transaction, or else each half on its own, down to single rejected records
+    private void insertBisecting(List<CheckRecord> records, Set<CheckRecord> done, Rejected rejected) {
+        try {
+            insert(records);
+            done.addAll(records);
+            return;
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+            if (records.size() == 1) {
+                CheckRecord record = records.get(0);
+                if (hasSqlState(e, FOREIGN_KEY_VIOLATION)) {
+                    rejected.missingMonitorIds.add(record.monitorId());
+                } else {
+                    rejected.failedMonitorIds.add(record.monitorId());
+                    rejected.firstFailure = rejected.firstFailure != null ? rejected.firstFailure : e;
+                }
+                done.add(record);
+                return;
+            }
+        }
+        int middle = records.size() / 2;
+        insertBisecting(records.subList(0, middle), done, rejected);
+        insertBisecting(records.subList(middle, records.size()), done, rejected);
+    }
+
+    // Failures that may succeed when retried as is: lost or unavailable connections, deadlocks, timeouts
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException
+                || hasSqlState(e, CONNECTION_EXCEPTION_CLASS);
+    }
+
+    // Whether an SQLException in the cause chain has the given SQLState or SQLState class prefix
+    private static boolean hasSqlState(Throwable e, String sqlState) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && sqlException.getSQLState().startsWith(sqlState)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void insert(List<CheckRecord> records) {
+        transactionTemplate.executeWithoutResult(status -> {
+            batchRepository.insertAll(records);
+            for (CheckIngestionListener listener : listeners) {
+                listener.onChecksWritten(records);
+            }
+        });
+    }
+
+    // The records dropped by write(), for logging
+    private static final class Rejected {
+        final List<Long> missingMonitorIds = new ArrayList<>();
+        final List<Long> failedMonitorIds = new ArrayList<>();
+        RuntimeException firstFailure;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            flusher.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            log.error("Ingestion: Shutdown timed out with {} check results unwritten", queue.size());
+            return;
+        }
+        // Results queued while the flusher was exiting
+        List<CheckRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+        log.info("Ingestion: Flushed all queued check results");
+    }
+}
@@ -0,0 +1,28 @@
+package com.watchdog.service.ingestion;
+
+import com.watchdog.entity.MonitorCheck;
+
+import java.time.LocalDateTime;
+
+/**
+ * One check result waiting to be written to monitor_checks.
+ * Carries only the monitor ID, so buffering a result never holds on to a Monitor entity.
+ * The check interval is not stored with the check; it is used to account downtime in the rollups.
+ * The owner's check retention, loaded with the monitor's lease, picks the partition the check goes to.
+ */
+public record CheckRecord(
+        long monitorId,
+        LocalDateTime timestamp,
+        Integer httpStatusCode,
+        Long responseTimeMs,
+        boolean up,
+        String errorMessage,
+        Long responseBodySize,
+        MonitorCheck.ErrorCategory errorCategory,
+        Long dnsTimeMs,
+        Long connectTimeMs,
+        Long tlsTimeMs,
+        Long ttfbMs,
+        Integer checkIntervalSeconds,
+        Integer checkRetentionDays) {
+}
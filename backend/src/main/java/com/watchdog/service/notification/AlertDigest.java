@@ -0,0 +1,55 @@
+package com.watchdog.service.notification;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges the notifications to one destination into a single message, e.g.
+ * "14 monitors DOWN, 1 monitor UP again:" followed by the individual alert messages.
+ */
+final class AlertDigest {
+
+    private AlertDigest() {
+    }
+
+    /**
+     * @param notifications The notifications, oldest first.
+     * @param maxLines      At most this many alert messages are listed; the rest are only counted.
+     * @return The notification's own message if there is just one, otherwise the digest.
+     */
+    static String message(List<AlertNotification> notifications, int maxLines) {
+        if (notifications.size() == 1) {
+            return notifications.get(0).message();
+        }
+
+        Map<AlertEvent, Set<Long>> monitorsByEvent = new EnumMap<>(AlertEvent.class);
+        int other = 0;
+        for (AlertNotification notification : notifications) {
+            if (notification.event() != null) {
+                monitorsByEvent.computeIfAbsent(notification.event(), event -> new HashSet<>()).add(notification.monitorId());
+            } else {
+                other++;
+            }
+        }
+        List<String> counts = new ArrayList<>();
+        monitorsByEvent.forEach((event, monitors) ->
+                counts.add(monitors.size() + (monitors.size() == 1 ? " monitor " : " monitors ") + event.getDescription()));
+        if (other > 0) {
+            counts.add(other + (other == 1 ? " other alert" : " other alerts"));
+        }
+
+        StringBuilder digest = new StringBuilder(String.join(", ", counts)).append(':');
+        int listed = Math.min(notifications.size(), maxLines);
+        for (int i = 0; i < listed; i++) {
+            digest.append("\n- ").append(notifications.get(i).message());
+        }
+        if (listed < notifications.size()) {
+            digest.append("\n- ... and ").append(notifications.size() - listed).append(" more");
+        }
+        return digest.toString();
+    }
+}
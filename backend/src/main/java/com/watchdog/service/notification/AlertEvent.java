@@ -0,0 +1,19 @@
+package com.watchdog.service.notification;
+
+/**
+ * What an alert reports about its monitor, so that alerts can be summarized in digests.
+ */
+public enum AlertEvent {
+    DOWN("DOWN"),
+    UP("UP again");
+
+    private final String description;
+
+    AlertEvent(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,22 @@
+package com.watchdog.service.notification;
+
+import com.watchdog.entity.AlertConfiguration;
+
+import java.time.LocalDateTime;
+
+/**
+ * One alert claimed from alert_outbox to be delivered through its configuration's channel.
+ * Destination and message are copied from the alert, so delivery reads nothing else.
+ * attempts includes the current one. event is null for alerts queued before it was recorded.
+ */
+public record AlertNotification(
+        long id,
+        long monitorId,
+        long alertConfigId,
+        AlertConfiguration.AlertType type,
+        AlertEvent event,
+        String destination,
+        String message,
+        LocalDateTime createdAt,
+        int attempts) {
+}
@@ -0,0 +1,59 @@
+package com.watchdog.service.notification;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker for one notification destination.
+ *
+ * After failureThreshold consecutive failures the circuit opens and requests fail fast for
+ * openDuration. Then a single trial request is let through: if it succeeds the circuit closes,
+ * otherwise it opens again.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * @return Zero if a request may be sent now, otherwise how long the circuit stays open.
+     */
+    synchronized Duration tryAcquire() {
+        if (state == State.CLOSED) {
+            return Duration.ZERO;
+        }
+        long remaining = openNanos - (System.nanoTime() - openedAt);
+        if (state == State.OPEN && remaining <= 0) {
+            // Let one trial request through; everything else keeps failing fast until it completes
+            state = State.HALF_OPEN;
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(remaining, openNanos / 10));
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,22 @@
+package com.watchdog.service.notification;
+
+import java.time.Duration;
+
+/**
+ * Thrown (or completed exceptionally with) when a notification is not even attempted because its
+ * destination is known to be down. It does not count as a delivery attempt; the notification is
+ * postponed until the destination may be back.
+ */
+public class DestinationUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public DestinationUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,45 +1,164 @@
 package com.watchdog.service.notification;
 
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends alert emails over pooled SMTP connections.
+ *
+ * Emails are queued and sent in batches: each delivery task takes up to batch-size queued emails
+ * and sends them one after another over a single borrowed connection, so during an alert storm a
+ * handful of long-lived, authenticated connections carry all the mail instead of one TLS session
+ * per email. A connection that fails is discarded; the emails it could not send fail individually
+ * and are retried by the dispatcher.
+ */
 @Component
 public class EmailNotificationHandler implements NotificationHandler {
 
     private static final Logger log = LoggerFactory.getLogger(EmailNotificationHandler.class);
 
-    private final JavaMailSender mailSender;
+    private static final String SUBJECT = "Watchdog Uptime Alert!";
+
+    private record Outgoing(String destination, String message, CompletableFuture<Void> result) {
+    }
+
+    private final JavaMailSenderImpl mailSender;
+    private final SmtpTransportPool transportPool;
+    private final Queue<Outgoing> queue = new ConcurrentLinkedQueue<>();
+    private final int batchSize;
 
     // Inject the sender email from application.properties
     @Value("${application.mail.sender-email}")
     private String senderEmail;
 
-    @Autowired
-    public EmailNotificationHandler(JavaMailSender mailSender) {
+    public EmailNotificationHandler(
+            JavaMailSenderImpl mailSender,
+            @Value("${application.notifications.email.pool.size:4}") int poolSize,
+            @Value("${application.notifications.email.pool.idle-timeout-seconds:60}") int idleTimeoutSeconds,
+            @Value("${application.notifications.email.batch-size:20}") int batchSize) {
         this.mailSender = mailSender;
+        this.transportPool = new SmtpTransportPool(mailSender, poolSize, Duration.ofSeconds(idleTimeoutSeconds));
+        this.batchSize = batchSize;
     }
 
     @Override
     public void sendNotification(String destination, String message) throws MailException {
         try {
-            log.info("Preparing to send email to {}", destination);
-            SimpleMailMessage mailMessage = new SimpleMailMessage();
-            // Use the injected senderEmail value
-            mailMessage.setFrom(senderEmail);
-            mailMessage.setTo(destination);
-            mailMessage.setSubject("Watchdog Uptime Alert!");
-            mailMessage.setText(message);
-            mailSender.send(mailMessage);
-            log.info("Successfully sent email to {} with message: {}", destination, message);
-        } catch (MailException e) {
-            log.error("Failed to send email to {}: {}", destination, e.getMessage(), e);
-            throw e;
+            sendNotificationAsync(destination, message, Runnable::run).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new MailSendException("Email sending failed", e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sendNotificationAsync(String destination, String message, Executor executor) {
+        Outgoing outgoing = new Outgoing(destination, message, new CompletableFuture<>());
+        queue.add(outgoing);
+        try {
+            // Every email brings a task along; a task finding the queue already drained does nothing
+            executor.execute(this::sendQueued);
+        } catch (RejectedExecutionException e) {
+            if (queue.remove(outgoing)) {
+                throw e;
+            }
         }
+        return outgoing.result();
+    }
+
+    private void sendQueued() {
+        List<Outgoing> batch = new ArrayList<>(batchSize);
+        Outgoing next;
+        while (batch.size() < batchSize && (next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Transport transport;
+        try {
+            transport = transportPool.borrow();
+        } catch (MessagingException | RuntimeException e) {
+            log.error("Notifications: Failed to connect to the mail server for {} emails: {}", batch.size(), e.getMessage());
+            batch.forEach(outgoing -> fail(outgoing, e));
+            return;
+        }
+
+        boolean connected = true;
+        int sent = 0;
+        try {
+            for (Outgoing outgoing : batch) {
+                if (!connected) {
+                    fail(outgoing, new MessagingException("SMTP connection lost"));
+                    continue;
+                }
+                try {
+                    MimeMessage mimeMessage = createMessage(outgoing);
+                    transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+                    outgoing.result().complete(null);
+                    sent++;
+                } catch (MessagingException | RuntimeException e) {
+                    log.error("Notifications: Failed to send email to {}: {}", outgoing.destination(), e.getMessage());
+                    fail(outgoing, e);
+                    // A rejected recipient leaves the connection usable, a dropped connection does not
+                    connected = transport.isConnected();
+                }
+            }
+        } finally {
+            transportPool.release(transport, connected);
+        }
+        log.info("Notifications: Sent {} of {} emails over one SMTP connection", sent, batch.size());
+    }
+
+    private MimeMessage createMessage(Outgoing outgoing) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage);
+        helper.setFrom(senderEmail);
+        helper.setTo(outgoing.destination());
+        helper.setSubject(SUBJECT);
+        helper.setText(outgoing.message());
+        // Transport.sendMessage, unlike Transport.send, does not finalize the headers itself
+        mimeMessage.saveChanges();
+        return mimeMessage;
+    }
+
+    private static void fail(Outgoing outgoing, Exception cause) {
+        outgoing.result().completeExceptionally(
+                new MailSendException("Failed to send email to " + outgoing.destination(), cause));
+    }
+
+    @Scheduled(fixedDelayString = "${application.notifications.email.pool.idle-timeout-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void evictIdleConnections() {
+        transportPool.evictIdle();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        transportPool.close();
     }
 }
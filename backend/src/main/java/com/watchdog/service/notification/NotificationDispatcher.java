@@ -0,0 +1,259 @@
+package com.watchdog.service.notification;
+
+import com.watchdog.entity.AlertConfiguration;
+import com.watchdog.entity.AlertHistory;
+import com.watchdog.repository.AlertOutboxRepository;
+import com.watchdog.service.AlertHistoryService;
+import com.watchdog.service.alerting.AlertThrottle;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers alert notifications outside the probe workers.
+ *
+ * Alerts are queued in alert_outbox in the transaction that stores the check outcome causing them
+ * (see MonitorLeaseService.completeChecks); slow mail servers or webhook targets therefore never
+ * hold up checking, and an alert is never lost or sent for an outcome that was discarded. Every
+ * channel (alert type) has its own bound on concurrent deliveries: a pool of workers for blocking
+ * handlers (email), in-flight requests for non-blocking ones (webhooks). Each poll claims as many
+ * queued notifications of a channel as it has free slots, so a backlog on one channel neither
+ * grows memory nor delays the others.
+ *
+ * A failed delivery is retried with exponential backoff and jitter, so a flapping mail relay or
+ * webhook target is not hammered and the retries of many notifications spread out. After
+ * max-attempts the notification is dead-lettered and its throttle window released, so the next
+ * alert is not throttled by one that never arrived. Successful and finally failed deliveries are
+ * recorded in the alert history.
+ *
+ * When a shared dependency fails, many monitors alert within seconds, often to the same address.
+ * New alerts are therefore held back for a short coalescing window, and a channel's notifications
+ * are claimed and delivered per destination: all alerts pending for one destination go out as a
+ * single digest, while each of them still gets its own alert history entry. A digest succeeds,
+ * fails and is retried as a whole.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    // Threads that record the outcomes of a non-blocking channel's deliveries
+    private static final int COMPLETION_THREADS = 2;
+
+    private static final class Channel {
+        private final NotificationHandler handler;
+        private final ThreadPoolTaskExecutor executor;
+        private final int concurrency;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private Channel(AlertConfiguration.AlertType type, NotificationHandler handler, int concurrency) {
+            this.handler = handler;
+            this.concurrency = concurrency;
+            // A blocking channel needs a thread per delivery; a non-blocking one only records outcomes
+            int threads = handler.isBlocking() ? concurrency : Math.min(concurrency, COMPLETION_THREADS);
+            this.executor = new ThreadPoolTaskExecutor();
+            this.executor.setCorePoolSize(threads);
+            this.executor.setMaxPoolSize(threads);
+            // Never more deliveries than the concurrency are claimed, each needing at most a send and an outcome task
+            this.executor.setQueueCapacity(2 * concurrency);
+            this.executor.setThreadNamePrefix("notify-" + type.name().toLowerCase() + "-");
+            this.executor.setWaitForTasksToCompleteOnShutdown(true);
+            this.executor.setAwaitTerminationSeconds(30);
+            this.executor.initialize();
+        }
+    }
+
+    private final AlertOutboxRepository outboxRepository;
+    private final AlertHistoryService alertHistoryService;
+    private final AlertThrottle alertThrottle;
+    private final Map<AlertConfiguration.AlertType, Channel> channels = new EnumMap<>(AlertConfiguration.AlertType.class);
+    private final int leaseSeconds;
+    private final long coalesceWindowSeconds;
+    private final int digestMaxLines;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    public NotificationDispatcher(
+            AlertOutboxRepository outboxRepository,
+            AlertHistoryService alertHistoryService,
+            AlertThrottle alertThrottle,
+            EmailNotificationHandler emailNotificationHandler,
+            WebhookNotificationHandler webhookNotificationHandler,
+            @Value("${application.notifications.email.concurrency:4}") int emailConcurrency,
+            @Value("${application.notifications.webhook.concurrency:64}") int webhookConcurrency,
+            @Value("${application.notifications.lease-seconds:120}") int leaseSeconds,
+            @Value("${application.notifications.coalesce-window-seconds:10}") long coalesceWindowSeconds,
+            @Value("${application.notifications.digest.max-lines:50}") int digestMaxLines,
+            @Value("${application.notifications.retry.max-attempts:8}") int maxAttempts,
+            @Value("${application.notifications.retry.initial-backoff-seconds:10}") long initialBackoffSeconds,
+            @Value("${application.notifications.retry.max-backoff-seconds:1800}") long maxBackoffSeconds) {
+        this.outboxRepository = outboxRepository;
+        this.alertHistoryService = alertHistoryService;
+        this.alertThrottle = alertThrottle;
+        this.leaseSeconds = leaseSeconds;
+        this.coalesceWindowSeconds = coalesceWindowSeconds;
+        this.digestMaxLines = digestMaxLines;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffSeconds * 1000;
+        this.maxBackoffMs = maxBackoffSeconds * 1000;
+        this.channels.put(AlertConfiguration.AlertType.EMAIL,
+                new Channel(AlertConfiguration.AlertType.EMAIL, emailNotificationHandler, emailConcurrency));
+        this.channels.put(AlertConfiguration.AlertType.GENERIC_WEBHOOK,
+                new Channel(AlertConfiguration.AlertType.GENERIC_WEBHOOK, webhookNotificationHandler, webhookConcurrency));
+    }
+
+    /**
+     * @return Whether alerts of the given type can be delivered.
+     */
+    public boolean supports(AlertConfiguration.AlertType type) {
+        return channels.containsKey(type);
+    }
+
+    @Scheduled(fixedDelayString = "${application.notifications.poll-ms:500}", timeUnit = TimeUnit.MILLISECONDS)
+    public void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<AlertConfiguration.AlertType, Channel> entry : channels.entrySet()) {
+            Channel channel = entry.getValue();
+            int idle = channel.concurrency - channel.inFlight.get();
+            if (idle <= 0) {
+                continue;
+            }
+            List<AlertNotification> notifications;
+            try {
+                notifications = outboxRepository.claimByDestination(entry.getKey(), idle, now,
+                        now.plusSeconds(coalesceWindowSeconds), now.plusSeconds(leaseSeconds));
+            } catch (DataAccessException e) {
+                log.warn("Notifications: Failed to claim {} notifications: {}", entry.getKey(), e.getMessage());
+                continue;
+            }
+            Map<String, List<AlertNotification>> byDestination = notifications.stream()
+                    .sorted(Comparator.comparingLong(AlertNotification::id))
+                    .collect(Collectors.groupingBy(AlertNotification::destination, LinkedHashMap::new, Collectors.toList()));
+            for (List<AlertNotification> digest : byDestination.values()) {
+                channel.inFlight.incrementAndGet();
+                deliver(channel, digest);
+            }
+        }
+    }
+
+    private void deliver(Channel channel, List<AlertNotification> digest) {
+        CompletableFuture<Void> delivery;
+        try {
+            delivery = channel.handler.sendNotificationAsync(digest.get(0).destination(),
+                    AlertDigest.message(digest, digestMaxLines), channel.executor);
+        } catch (RuntimeException e) {
+            delivery = CompletableFuture.failedFuture(e);
+        }
+        delivery.whenCompleteAsync((ignored, error) -> {
+            try {
+                if (error != null) {
+                    handleFailure(digest, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                } else {
+                    handleSuccess(digest);
+                }
+            } finally {
+                channel.inFlight.decrementAndGet();
+            }
+        }, channel.executor);
+    }
+
+    private void handleSuccess(List<AlertNotification> digest) {
+        AlertNotification first = digest.get(0);
+        if (digest.size() == 1) {
+            log.info("Notifications: Sent {} alert for monitor {}", first.type(), first.monitorId());
+            recordHistory(digest, "", AlertHistory.AlertStatus.SENT, null);
+        } else {
+            log.info("Notifications: Sent {} digest of {} alerts", first.type(), digest.size());
+            recordHistory(digest, " (in a digest of " + digest.size() + " alerts)", AlertHistory.AlertStatus.SENT, null);
+        }
+        try {
+            outboxRepository.delete(ids(digest));
+        } catch (DataAccessException e) {
+            // The lease runs out and the notifications are delivered again
+            log.warn("Notifications: Failed to remove {} delivered notifications: {}", digest.size(), e.getMessage());
+        }
+    }
+
+    private void handleFailure(List<AlertNotification> digest, Throwable cause) {
+        LocalDateTime now = LocalDateTime.now();
+        String error = cause.getMessage();
+        AlertNotification first = digest.get(0);
+        try {
+            if (cause instanceof DestinationUnavailableException unavailable) {
+                // Not attempted, so it does not count towards max-attempts
+                log.debug("Notifications: Postponing {} {} alerts: {}", digest.size(), first.type(), error);
+                outboxRepository.postpone(ids(digest), now.plus(unavailable.getRetryAfter()));
+                return;
+            }
+            // The alerts of a digest may have been attempted a different number of times before
+            Map<Boolean, List<AlertNotification>> exhausted = digest.stream()
+                    .collect(Collectors.partitioningBy(notification -> notification.attempts() >= maxAttempts));
+            List<AlertNotification> retried = exhausted.get(false);
+            List<AlertNotification> givenUp = exhausted.get(true);
+            log.warn("Notifications: Failed to send {} {} alerts (attempt {}): {}",
+                    digest.size(), first.type(), first.attempts(), error);
+            if (!retried.isEmpty()) {
+                int attempts = retried.stream().mapToInt(AlertNotification::attempts).max().orElse(1);
+                outboxRepository.reschedule(ids(retried), now.plus(backoff(attempts), ChronoUnit.MILLIS), error);
+            }
+            if (!givenUp.isEmpty()) {
+                outboxRepository.deadLetter(ids(givenUp), now, error);
+                log.error("Notifications: Giving up on {} {} alerts after {} attempts: {}",
+                        givenUp.size(), first.type(), maxAttempts, error);
+                recordHistory(givenUp, " (failed after " + maxAttempts + " attempts: " + error + ")",
+                        AlertHistory.AlertStatus.FAILED, error);
+                givenUp.forEach(notification ->
+                        alertThrottle.release(notification.monitorId(), notification.alertConfigId(), notification.createdAt()));
+            }
+        } catch (DataAccessException e) {
+            // The lease runs out and the notifications are retried then
+            log.warn("Notifications: Failed to reschedule {} notifications: {}", digest.size(), e.getMessage());
+        }
+    }
+
+    // Exponential backoff with "equal jitter": between half and all of the exponential delay
+    private long backoff(int attempts) {
+        long delayMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 30));
+        return delayMs / 2 + ThreadLocalRandom.current().nextLong(delayMs / 2 + 1);
+    }
+
+    private void recordHistory(List<AlertNotification> notifications, String suffix, AlertHistory.AlertStatus status,
+                               String failureReason) {
+        try {
+            alertHistoryService.recordAlertHistories(notifications, suffix, status, failureReason);
+        } catch (DataAccessException e) {
+            // Usually a monitor or configuration was deleted while its alert was queued
+            log.warn("Notifications: Failed to record the history of {} notifications: {}", notifications.size(), e.getMessage());
+        }
+    }
+
+    private static List<Long> ids(List<AlertNotification> notifications) {
+        return notifications.stream().map(AlertNotification::id).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Lets deliveries in progress finish; claimed but unstarted ones are picked up again after their lease
+        channels.values().forEach(channel -> channel.executor.shutdown());
+    }
+}
@@ -1,6 +1,26 @@
 package com.watchdog.service.notification;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public interface NotificationHandler {
     void sendNotification(String destination, String message);
     // You might add an AlertConfiguration.AlertType getType() method here for mapping
-}
\ No newline at end of file
+
+    /**
+     * Sends a notification without blocking the caller. By default the blocking sendNotification
+     * runs on the given executor; handlers with a non-blocking transport override this.
+     *
+     * @return Completes when the notification was delivered, or exceptionally when it was not.
+     */
+    default CompletableFuture<Void> sendNotificationAsync(String destination, String message, Executor executor) {
+        return CompletableFuture.runAsync(() -> sendNotification(destination, message), executor);
+    }
+
+    /**
+     * @return Whether sendNotificationAsync occupies a thread of its executor for the whole delivery.
+     */
+    default boolean isBlocking() {
+        return true;
+    }
+}
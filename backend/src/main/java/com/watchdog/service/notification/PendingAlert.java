@@ -0,0 +1,22 @@
+package com.watchdog.service.notification;
+
+import com.watchdog.entity.AlertConfiguration;
+
+import java.time.LocalDateTime;
+
+/**
+ * An alert that has been decided on but not yet written to alert_outbox. It is written together
+ * with the check outcome that caused it, so an alert is queued if and only if that outcome is stored.
+ * A throttled alert is not queued but recorded in alert_history as THROTTLED, written the same way.
+ * createdAt also identifies the alert's throttle window (see AlertThrottle).
+ */
+public record PendingAlert(
+        long monitorId,
+        long alertConfigId,
+        AlertConfiguration.AlertType type,
+        AlertEvent event,
+        String destination,
+        String message,
+        LocalDateTime createdAt,
+        boolean throttled) {
+}
@@ -0,0 +1,129 @@
+package com.watchdog.service.notification;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Pool of connected, authenticated SMTP transports, so that consecutive emails do not each pay for
+ * a TCP connect, STARTTLS and AUTH.
+ *
+ * At most maxSize transports exist at a time; borrowing blocks while all of them are in use.
+ * Idle transports are reused most recently used first, so the rarely needed ones age out and are
+ * closed once they have been idle for idleTimeout, well before a relay drops them on its side.
+ */
+final class SmtpTransportPool {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private record Idle(Transport transport, long idleSince) {
+    }
+
+    private final JavaMailSenderImpl mailSender;
+    private final long idleTimeoutNanos;
+    private final Semaphore permits;
+    private final Deque<Idle> idle = new ArrayDeque<>();
+    private boolean closed;
+
+    SmtpTransportPool(JavaMailSenderImpl mailSender, int maxSize, Duration idleTimeout) {
+        this.mailSender = mailSender;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Lends out an idle transport that is still connected, or connects a new one. Must be followed
+     * by {@link #release}.
+     */
+    Transport borrow() throws MessagingException {
+        permits.acquireUninterruptibly();
+        try {
+            evictIdle();
+            Idle reusable;
+            synchronized (idle) {
+                reusable = idle.pollFirst();
+            }
+            // isConnected() costs a NOOP round trip, still far cheaper than a new TLS session
+            if (reusable != null && reusable.transport().isConnected()) {
+                return reusable.transport();
+            }
+            if (reusable != null) {
+                close(reusable.transport());
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed transport. A transport that failed is closed instead of being reused.
+     */
+    void release(Transport transport, boolean healthy) {
+        try {
+            synchronized (idle) {
+                if (healthy && !closed) {
+                    idle.addFirst(new Idle(transport, System.nanoTime()));
+                    return;
+                }
+            }
+            close(transport);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes the transports that have been idle for longer than the idle timeout.
+     */
+    void evictIdle() {
+        long now = System.nanoTime();
+        List<Transport> expired = new ArrayList<>();
+        synchronized (idle) {
+            // The least recently used transports are at the end
+            while (!idle.isEmpty() && now - idle.peekLast().idleSince() > idleTimeoutNanos) {
+                expired.add(idle.pollLast().transport());
+            }
+        }
+        expired.forEach(SmtpTransportPool::close);
+    }
+
+    /**
+     * Closes all idle transports. Borrowed ones are closed when they are released.
+     */
+    void close() {
+        List<Transport> all = new ArrayList<>();
+        synchronized (idle) {
+            closed = true;
+            idle.forEach(entry -> all.add(entry.transport()));
+            idle.clear();
+        }
+        all.forEach(SmtpTransportPool::close);
+    }
+
+    private Transport connect() throws MessagingException {
+        String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+        Transport transport = mailSender.getSession().getTransport(protocol);
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        log.debug("Notifications: Opened SMTP connection to {}:{}", mailSender.getHost(), mailSender.getPort());
+        return transport;
+    }
+
+    private static void close(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Notifications: Failed to close SMTP connection: {}", e.getMessage());
+        }
+    }
+}
@@ -1,40 +1,170 @@
 package com.watchdog.service.notification;
 
-import org.springframework.http.MediaType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpEntity;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Delivers webhooks with a non-blocking HTTP client.
+ *
+ * Every destination (scheme, host and port of the webhook URL) has its own lane: at most
+ * max-per-host requests are in flight to it, further ones wait in the lane without holding a
+ * thread. A circuit breaker per destination opens after repeated failures (timeouts, connection
+ * errors, 5xx responses), and while it is open notifications fail fast with a
+ * DestinationUnavailableException instead of piling up on a dead target. 4xx responses fail the
+ * delivery but do not count against the destination, which evidently is up.
+ *
+ * Each delivery is timed per destination and outcome in the notifications.webhook.delivery metric.
+ */
 @Component
 public class WebhookNotificationHandler implements NotificationHandler {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private static final Logger log = LoggerFactory.getLogger(WebhookNotificationHandler.class);
+
+    private static final String METRIC = "notifications.webhook.delivery";
+
+    private final HttpClient httpClient;
+    private final ExecutorService clientExecutor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry;
+    private final Duration requestTimeout;
+    private final int maxPerHost;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Map<String, AsyncLimiter> lanes = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public WebhookNotificationHandler(
+            MeterRegistry meterRegistry,
+            @Value("${application.notifications.webhook.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${application.notifications.webhook.request-timeout-ms:10000}") long requestTimeoutMs,
+            @Value("${application.notifications.webhook.max-per-host:4}") int maxPerHost,
+            @Value("${application.notifications.webhook.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${application.notifications.webhook.circuit-breaker.open-seconds:60}") int openSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.clientExecutor = Executors.newFixedThreadPool(2, Thread.ofPlatform().name("webhook-http-", 0).daemon().factory());
+        // Connections to a webhook endpoint are kept alive and reused
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(clientExecutor)
+                .build();
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.maxPerHost = maxPerHost;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = Duration.ofSeconds(openSeconds);
+    }
 
     @Override
     public void sendNotification(String destination, String message) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+            sendNotificationAsync(destination, message, Runnable::run).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Webhook sending failed", e.getCause());
+        }
+    }
 
-            // Create a simple JSON payload
-            Map<String, String> payload = new HashMap<>();
-            payload.put("alertMessage", message);
-            payload.put("service", "Sentry Uptime Monitoring");
-            payload.put("timestamp", String.valueOf(System.currentTimeMillis()));
+    @Override
+    public CompletableFuture<Void> sendNotificationAsync(String destination, String message, Executor executor) {
+        URI uri;
+        HttpRequest request;
+        try {
+            uri = URI.create(destination);
+            request = HttpRequest.newBuilder(uri)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(payload(message)))
+                    .build();
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Invalid webhook " + destination + ": " + e.getMessage(), e));
+        }
 
-            HttpEntity<Map<String, String>> request = new HttpEntity<>(payload, headers);
+        String destinationKey = uri.getScheme() + "://" + uri.getHost() + (uri.getPort() != -1 ? ":" + uri.getPort() : "");
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(destinationKey,
+                key -> new CircuitBreaker(failureThreshold, openDuration));
+        Duration openFor = circuitBreaker.tryAcquire();
+        if (!openFor.isZero()) {
+            meterRegistry.counter(METRIC + ".rejected", "destination", destinationKey).increment();
+            return CompletableFuture.failedFuture(new DestinationUnavailableException(
+                    "Circuit open for " + destinationKey, openFor));
+        }
 
-            // Post to the webhook URL
-            restTemplate.postForEntity(destination, request, String.class);
-            System.out.println("Webhook sent to: " + destination + " with message: " + message);
+        AsyncLimiter lane = lanes.computeIfAbsent(destinationKey, key -> new AsyncLimiter(maxPerHost));
+        return lane.submit(() -> {
+            long startTime = System.nanoTime();
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        String outcome = error != null ? "error"
+                                : response.statusCode() < 400 ? "success"
+                                : response.statusCode() < 500 ? "client_error" : "server_error";
+                        Timer.builder(METRIC)
+                                .tag("destination", destinationKey)
+                                .tag("outcome", outcome)
+                                .register(meterRegistry)
+                                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                        if (error != null || response.statusCode() >= 500) {
+                            circuitBreaker.onFailure();
+                        } else {
+                            circuitBreaker.onSuccess();
+                        }
+                        if (error != null) {
+                            throw new CompletionException(new IOException(
+                                    "Webhook to " + destinationKey + " failed: " + describe(error), error));
+                        }
+                        if (response.statusCode() >= 400) {
+                            throw new CompletionException(new IOException(
+                                    "Webhook to " + destinationKey + " returned HTTP " + response.statusCode()));
+                        }
+                        log.debug("Webhook: Sent to {} in {}ms", destinationKey, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                        return null;
+                    });
+        });
+    }
 
-        } catch (Exception e) {
-            System.err.println("Failed to send webhook to " + destination + ": " + e.getMessage());
-            throw new RuntimeException("Webhook sending failed", e);
-        }
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    private String payload(String message) throws JsonProcessingException {
+        Map<String, String> payload = new LinkedHashMap<>();
+        payload.put("alertMessage", message);
+        payload.put("service", "Sentry Uptime Monitoring");
+        payload.put("timestamp", String.valueOf(System.currentTimeMillis()));
+        return objectMapper.writeValueAsString(payload);
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clientExecutor.shutdownNow();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package com.watchdog.service.probe;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.watchdog.entity.Monitor;
+import com.watchdog.entity.MonitorCheck;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-per-check HTTP probe engine that keeps the plain blocking programming model.
+ *
+ * In VIRTUAL mode every check runs on its own JDK virtual thread, so a blocked check costs a few
+ * hundred bytes instead of a platform thread; in PLATFORM mode checks run on a fixed pool, which
+ * makes it easy to A/B the two. A per-host limit keeps us from hammering a single origin with
+ * many monitors, on top of the global in-flight cap. It also bounds the connections per host,
+ * since idle connections are pooled and reused across checks. Checks over a host's limit wait in
+ * that host's queue and are only handed to the executor when a check of the host ends, so a few
+ * busy hosts can never park the pool's threads while other hosts' checks queue behind them. The
+ * total timeout runs from when the check was submitted, so time spent waiting counts against it.
+ * The limits are weakly held, so a host's is collected once no check of it is running or waiting,
+ * instead of piling up for every host ever probed.
+ */
+@Component
+@ConditionalOnExpression("'${application.probe.mode:VIRTUAL}' != 'ASYNC'")
+public class BlockingProbeEngine implements ProbeEngine {
+
+    private final InstrumentedHttpClient httpClient;
+    private final HttpConnectionPool connectionPool;
+    private final ExecutorService checkExecutor;
+    private final Semaphore inFlight;
+    // Running checks keep their host's limit alive (waiting ones only wait while others of the host run)
+    private final Cache<String, HostLimit> hostLimits = Caffeine.newBuilder().weakValues().build();
+    private final int maxPerHost;
+    private final long totalTimeoutMs;
+
+    public BlockingProbeEngine(
+            DnsResolver dnsResolver,
+            @Value("${application.probe.mode:VIRTUAL}") ProbeMode mode,
+            @Value("${application.probe.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${application.probe.http.read-timeout-ms:10000}") long readTimeoutMs,
+            @Value("${application.probe.http.total-timeout-ms:30000}") long totalTimeoutMs,
+            @Value("${application.probe.http.max-in-flight:5000}") int maxInFlight,
+            @Value("${application.probe.platform-threads:200}") int platformThreads,
+            @Value("${application.probe.max-per-host:8}") int maxPerHost,
+            @Value("${application.probe.http.max-body-bytes:1048576}") long maxBodyBytes,
+            @Value("${application.probe.http.keep-alive-ms:30000}") long keepAliveMs,
+            @Value("${application.probe.tls.session-cache-size:10000}") int sessionCacheSize,
+            @Value("${application.probe.tls.session-timeout-seconds:3600}") int sessionTimeoutSeconds) {
+        this.checkExecutor = mode == ProbeMode.VIRTUAL
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("probe-vt-", 0).factory())
+                : Executors.newFixedThreadPool(platformThreads, Thread.ofPlatform().name("probe-pt-", 0).daemon().factory());
+        this.connectionPool = new HttpConnectionPool(maxPerHost, keepAliveMs);
+        this.httpClient = new InstrumentedHttpClient((int) connectTimeoutMs, (int) readTimeoutMs, totalTimeoutMs,
+                maxBodyBytes, connectionPool, HttpProbeSupport.newClientSslContext(sessionCacheSize, sessionTimeoutSeconds), dnsResolver);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxPerHost = maxPerHost;
+        this.totalTimeoutMs = totalTimeoutMs;
+    }
+
+    @Override
+    public boolean supports(Monitor.MonitorType type) {
+        return type == Monitor.MonitorType.HTTP_HTTPS;
+    }
+
+    @Override
+    public int availableSlots() {
+        return inFlight.availablePermits();
+    }
+
+    @Override
+    public CompletableFuture<ProbeResult> probe(Monitor monitor) {
+        inFlight.acquireUninterruptibly();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(totalTimeoutMs);
+        CompletableFuture<ProbeResult> result = new CompletableFuture<>();
+        HostLimit hostLimit = hostLimits.get(hostKey(monitor), host -> new HostLimit());
+        hostLimit.submit(() -> start(monitor, deadline, hostLimit, result));
+        return result.whenComplete((r, e) -> inFlight.release());
+    }
+
+    // Hands an admitted check to the executor; the host's next waiting check is admitted when it ends
+    private void start(Monitor monitor, long deadline, HostLimit hostLimit, CompletableFuture<ProbeResult> result) {
+        try {
+            checkExecutor.execute(() -> {
+                try {
+                    result.complete(performCheck(monitor, deadline));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    hostLimit.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            result.complete(ProbeResult.failure(MonitorCheck.ErrorCategory.UNKNOWN_ERROR, "Probe engine shut down", -2, 0L));
+            hostLimit.release();
+        }
+    }
+
+    /**
+     * Performs a blocking HTTP check of the given monitor on the calling thread,
+     * measuring the DNS, connect, TLS and TTFB phases.
+     *
+     * @param monitor The monitor to check.
+     * @return The outcome of the check.
+     */
+    public ProbeResult performCheck(Monitor monitor) {
+        return performCheck(monitor, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(totalTimeoutMs));
+    }
+
+    private ProbeResult performCheck(Monitor monitor, long deadline) {
+        long startTime = System.nanoTime();
+        try {
+            return httpClient.execute(monitor, deadline);
+        } catch (Exception e) {
+            return HttpProbeSupport.toFailure(monitor, e, HttpProbeSupport.elapsedMs(startTime));
+        }
+    }
+
+    /**
+     * Closes pooled connections that have been idle for longer than the keep-alive timeout.
+     */
+    @Scheduled(fixedDelayString = "${application.probe.http.keep-alive-ms:30000}")
+    public void evictIdleConnections() {
+        connectionPool.evictExpired();
+    }
+
+    private static String hostKey(Monitor monitor) {
+        try {
+            String host = URI.create(monitor.getUrl()).getHost();
+            return host == null ? monitor.getUrl() : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            return monitor.getUrl();
+        }
+    }
+
+    // Admits up to maxPerHost checks of one host at a time; the others wait here rather than on a pool thread
+    private final class HostLimit {
+
+        private final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+        private int running;
+
+        void submit(Runnable check) {
+            synchronized (this) {
+                if (running >= maxPerHost) {
+                    waiting.add(check);
+                    return;
+                }
+                running++;
+            }
+            check.run();
+        }
+
+        void release() {
+            Runnable next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+            }
+            // The slot passes straight to the next waiting check
+            next.run();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkExecutor.shutdownNow();
+        connectionPool.closeAll();
+        try {
+            checkExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.watchdog.service.probe;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Consumes a response body chunk by chunk without keeping it: counts the bytes, scans for the
+ * monitor's content match patterns, and tells the caller when it can stop reading - either because
+ * every pattern was found or because the byte cap was reached.
+ */
+public final class BodyInspector {
+
+    private final long maxBytes;
+    private final ContentMatcher.Scan scanner;
+    private final byte[] scratch = new byte[8192];
+    private long bytesRead;
+    private boolean truncated;
+    private boolean stopped;
+
+    /**
+     * @param maxBytes     The maximum number of body bytes to read.
+     * @param contentMatch The patterns to look for (one per line), or null for status-only monitors.
+     */
+    public BodyInspector(long maxBytes, String contentMatch) {
+        this.maxBytes = maxBytes;
+        ContentMatcher matcher = ContentMatcher.forMatchString(contentMatch);
+        this.scanner = matcher == null ? null : matcher.newScan();
+    }
+
+    /**
+     * @return False if the body does not need to be read at all (status-only monitor).
+     */
+    public boolean wantsBody() {
+        return scanner != null && maxBytes > 0;
+    }
+
+    /**
+     * Feeds the next chunk of the body.
+     *
+     * @return True if more of the body is wanted, false if reading can stop now.
+     */
+    public boolean accept(byte[] buffer, int offset, int length) {
+        int usable = (int) Math.min(length, maxBytes - bytesRead);
+        bytesRead += usable;
+        if (usable < length) {
+            truncated = true;
+        }
+        if (scanner != null && scanner.feed(buffer, offset, usable)) {
+            stopped = true;
+            return false;
+        }
+        if (bytesRead >= maxBytes) {
+            truncated = true;
+            stopped = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Feeds the next chunk of the body from a ByteBuffer (HttpClient body subscribers).
+     */
+    public boolean accept(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            int n = Math.min(buffer.remaining(), scratch.length);
+            buffer.get(scratch, 0, n);
+            if (!accept(scratch, 0, n)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return True if reading stopped at the byte cap before the end of the body.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * @return True if reading stopped before the end of the body, so getBytesRead() is not the body size.
+     */
+    public boolean isPartial() {
+        return stopped;
+    }
+
+    /**
+     * @return Whether every content match pattern was found, or null if the body was not inspected.
+     */
+    public Boolean getContentMatched() {
+        return wantsBody() ? scanner.isComplete() : null;
+    }
+
+    /**
+     * @return The content match patterns that were not found in the body read.
+     */
+    public List<String> getMissingPatterns() {
+        return scanner == null ? List.of() : scanner.getMissingPatterns();
+    }
+}
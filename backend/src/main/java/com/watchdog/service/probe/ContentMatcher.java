@@ -0,0 +1,206 @@
+package com.watchdog.service.probe;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Multi-pattern streaming matcher (Aho-Corasick) for Monitor.contentMatchString.
+ *
+ * The match string holds one assertion per line, and a check passes when every line occurs in
+ * the response body. All patterns are found in a single pass over the raw UTF-8 bytes. The match
+ * state carries over between chunks, so a pattern split across two reads is still found and the
+ * body is never assembled into a String. The compiled automaton is immutable and shared by every
+ * check of a monitor; each check only holds a Scan (a state index and one flag per pattern).
+ */
+public final class ContentMatcher {
+
+    private static final int MAX_CACHED = 10_000;
+    private static final ConcurrentHashMap<String, ContentMatcher> CACHE = new ConcurrentHashMap<>();
+
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final List<String> patterns;
+    // Trie stored as parallel arrays: first child / next sibling lists, one entry per state
+    private final byte[] label;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] fail;
+    // Patterns ending at each state, including those reached through failure links
+    private final int[][] output;
+
+    private ContentMatcher(List<String> patterns) {
+        this.patterns = List.copyOf(patterns);
+
+        int capacity = 1;
+        for (String pattern : patterns) {
+            capacity += pattern.getBytes(StandardCharsets.UTF_8).length;
+        }
+        byte[] labels = new byte[capacity];
+        int[] children = new int[capacity];
+        int[] siblings = new int[capacity];
+        int[][] outputs = new int[capacity][];
+        Arrays.fill(children, -1);
+        Arrays.fill(siblings, -1);
+        Arrays.fill(outputs, NO_OUTPUT);
+        int states = 1;
+
+        // Build the trie
+        for (int p = 0; p < patterns.size(); p++) {
+            int state = 0;
+            for (byte b : patterns.get(p).getBytes(StandardCharsets.UTF_8)) {
+                int child = findChild(children, siblings, labels, state, b);
+                if (child == -1) {
+                    child = states++;
+                    labels[child] = b;
+                    siblings[child] = children[state];
+                    children[state] = child;
+                }
+                state = child;
+            }
+            outputs[state] = append(outputs[state], p);
+        }
+
+        // Failure links, breadth first; outputs are merged along them so matching never walks the chain
+        int[] failures = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child = children[0]; child != -1; child = siblings[child]) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int child = children[state]; child != -1; child = siblings[child]) {
+                int f = failures[state];
+                int target;
+                while ((target = findChild(children, siblings, labels, f, labels[child])) == -1 && f != 0) {
+                    f = failures[f];
+                }
+                failures[child] = target == -1 ? 0 : target;
+                for (int p : outputs[failures[child]]) {
+                    outputs[child] = append(outputs[child], p);
+                }
+                queue.add(child);
+            }
+        }
+
+        this.label = Arrays.copyOf(labels, states);
+        this.firstChild = Arrays.copyOf(children, states);
+        this.nextSibling = Arrays.copyOf(siblings, states);
+        this.fail = failures;
+        this.output = Arrays.copyOf(outputs, states);
+    }
+
+    /**
+     * Returns the compiled matcher for a monitor's content match string.
+     *
+     * @param contentMatchString One pattern per line; blank lines are ignored.
+     * @return The matcher, or null if the string holds no patterns (status-only monitor).
+     */
+    public static ContentMatcher forMatchString(String contentMatchString) {
+        if (contentMatchString == null || contentMatchString.isBlank()) {
+            return null;
+        }
+        ContentMatcher matcher = CACHE.get(contentMatchString);
+        if (matcher == null) {
+            matcher = new ContentMatcher(parsePatterns(contentMatchString));
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            CACHE.put(contentMatchString, matcher);
+        }
+        return matcher;
+    }
+
+    /**
+     * Splits a content match string into its patterns: one per line, without blank lines and duplicates.
+     */
+    public static List<String> parsePatterns(String contentMatchString) {
+        Set<String> patterns = new LinkedHashSet<>();
+        for (String line : contentMatchString.split("\r?\n")) {
+            if (!line.isBlank()) {
+                patterns.add(line);
+            }
+        }
+        return new ArrayList<>(patterns);
+    }
+
+    /**
+     * @return A new scan over one response body.
+     */
+    public Scan newScan() {
+        return new Scan();
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    private static int findChild(int[] children, int[] siblings, byte[] labels, int state, byte b) {
+        for (int child = children[state]; child != -1; child = siblings[child]) {
+            if (labels[child] == b) {
+                return child;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Matching state of one response body.
+     */
+    public final class Scan {
+
+        private final boolean[] found = new boolean[patterns.size()];
+        private int remaining = patterns.size();
+        private int state;
+
+        private Scan() {
+        }
+
+        /**
+         * Feeds the next chunk of the body.
+         *
+         * @return True once every pattern has been seen.
+         */
+        public boolean feed(byte[] buffer, int offset, int length) {
+            for (int i = offset, end = offset + length; i < end && remaining > 0; i++) {
+                byte b = buffer[i];
+                int next;
+                while ((next = findChild(firstChild, nextSibling, label, state, b)) == -1 && state != 0) {
+                    state = fail[state];
+                }
+                state = next == -1 ? 0 : next;
+                for (int p : output[state]) {
+                    if (!found[p]) {
+                        found[p] = true;
+                        remaining--;
+                    }
+                }
+            }
+            return remaining == 0;
+        }
+
+        public boolean isComplete() {
+            return remaining == 0;
+        }
+
+        /**
+         * @return The patterns that have not been seen so far.
+         */
+        public List<String> getMissingPatterns() {
+            List<String> missing = new ArrayList<>();
+            for (int p = 0; p < patterns.size(); p++) {
+                if (!found[p]) {
+                    missing.add(patterns.get(p));
+                }
+            }
+            return missing;
+        }
+    }
+}
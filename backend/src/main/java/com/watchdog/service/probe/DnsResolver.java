@@ -0,0 +1,136 @@
+package com.watchdog.service.probe;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.resolver.ResolvedAddressTypes;
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DnsNameResolver;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking DNS resolver shared by the probe engines.
+ *
+ * Queries go out over UDP (TCP for truncated answers) from a single Netty event loop, so a lookup
+ * never occupies a probe thread. Answers are cached for their record TTL (clamped to the configured
+ * bounds) and NXDOMAIN answers are cached for the negative TTL. Concurrent lookups of the same host
+ * share one query. The hosts file is honoured, and IP literals are returned without a query.
+ *
+ * Resolution latency is published as the watchdog.dns.resolve timer, tagged with the outcome and
+ * whether the answer came from the cache.
+ */
+@Component
+public class DnsResolver {
+
+    private final EventLoopGroup eventLoopGroup;
+    private final DnsNameResolver resolver;
+    private final ConcurrentHashMap<String, CompletableFuture<InetAddress>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public DnsResolver(
+            MeterRegistry meterRegistry,
+            @Value("${application.probe.dns.query-timeout-ms:2000}") long queryTimeoutMs,
+            @Value("${application.probe.dns.min-ttl-seconds:0}") int minTtlSeconds,
+            @Value("${application.probe.dns.max-ttl-seconds:300}") int maxTtlSeconds,
+            @Value("${application.probe.dns.negative-ttl-seconds:30}") int negativeTtlSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.eventLoopGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("dns-resolver", true));
+        this.resolver = new DnsNameResolverBuilder(eventLoopGroup.next())
+                .datagramChannelType(NioDatagramChannel.class)
+                .socketChannelType(NioSocketChannel.class)
+                .resolveCache(new DefaultDnsCache(minTtlSeconds, maxTtlSeconds, negativeTtlSeconds))
+                .queryTimeoutMillis(queryTimeoutMs)
+                .resolvedAddressTypes(ResolvedAddressTypes.IPV4_PREFERRED)
+                .build();
+    }
+
+    /**
+     * Resolves a host name.
+     *
+     * @param host The host name or IP literal.
+     * @return A future completed with the address, or failed with UnknownHostException.
+     */
+    public CompletableFuture<InetAddress> resolve(String host) {
+        String key = host.toLowerCase(Locale.ROOT);
+        CompletableFuture<InetAddress> pending = inFlight.get(key);
+        if (pending != null) {
+            return pending;
+        }
+
+        CompletableFuture<InetAddress> result = new CompletableFuture<>();
+        pending = inFlight.putIfAbsent(key, result);
+        if (pending != null) {
+            return pending;
+        }
+
+        long startTime = System.nanoTime();
+        Future<InetAddress> lookup = resolver.resolve(key);
+        // Answers from the cache (or the hosts file) complete before the call returns
+        String source = lookup.isDone() ? "cache" : "query";
+        lookup.addListener(done -> {
+            inFlight.remove(key, result);
+            String outcome;
+            if (done.isSuccess()) {
+                outcome = "success";
+                result.complete(lookup.getNow());
+            } else {
+                Throwable cause = done.cause();
+                outcome = cause instanceof UnknownHostException ? "nxdomain" : "error";
+                result.completeExceptionally(cause instanceof UnknownHostException
+                        ? cause
+                        : new UnknownHostException(key + ": " + cause.getMessage()));
+            }
+            Timer.builder("watchdog.dns.resolve")
+                    .description("Probe DNS resolution latency")
+                    .tag("outcome", outcome)
+                    .tag("source", source)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        });
+        return result;
+    }
+
+    /**
+     * Resolves a host name, waiting for the answer. Meant for thread-per-check probes; on a
+     * virtual thread the wait does not hold a carrier thread.
+     *
+     * @param host The host name or IP literal.
+     * @return The resolved address.
+     * @throws UnknownHostException If the host could not be resolved.
+     */
+    public InetAddress resolveBlocking(String host) throws UnknownHostException {
+        try {
+            return resolve(host).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UnknownHostException unknownHost) {
+                throw unknownHost;
+            }
+            throw new UnknownHostException(host + ": " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnknownHostException(host + ": interrupted");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resolver.close();
+        eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+    }
+}
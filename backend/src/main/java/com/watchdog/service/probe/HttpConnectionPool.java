@@ -0,0 +1,115 @@
+package com.watchdog.service.probe;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-origin pool of idle keep-alive connections for InstrumentedHttpClient.
+ *
+ * Connections are keyed by scheme://host:port and handed out most recently used first, so the
+ * warmest connection is reused and surplus ones age out. Idle connections are closed after the
+ * keep-alive timeout; the number kept per origin is capped, the number in use is bounded by the
+ * probe engine's per-host limit.
+ */
+final class HttpConnectionPool {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ConcurrentHashMap<String, ConcurrentLinkedDeque<Connection>> idle = new ConcurrentHashMap<>();
+    private final int maxIdlePerOrigin;
+    private final long keepAliveNanos;
+
+    HttpConnectionPool(int maxIdlePerOrigin, long keepAliveMs) {
+        this.maxIdlePerOrigin = maxIdlePerOrigin;
+        this.keepAliveNanos = TimeUnit.MILLISECONDS.toNanos(keepAliveMs);
+    }
+
+    /**
+     * @return An idle connection to the origin, or null if there is none.
+     */
+    Connection acquire(String origin) {
+        ConcurrentLinkedDeque<Connection> connections = idle.get(origin);
+        if (connections == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        for (Connection connection = connections.pollFirst(); connection != null; connection = connections.pollFirst()) {
+            if (now - connection.idleSince < keepAliveNanos && !connection.socket.isClosed()) {
+                return connection;
+            }
+            connection.close();
+        }
+        return null;
+    }
+
+    /**
+     * Returns a connection whose last response was read completely, so it can carry the next request.
+     */
+    void release(Connection connection) {
+        ConcurrentLinkedDeque<Connection> connections = idle.computeIfAbsent(connection.origin, o -> new ConcurrentLinkedDeque<>());
+        if (connections.size() >= maxIdlePerOrigin) {
+            connection.close();
+            return;
+        }
+        connection.idleSince = System.nanoTime();
+        connections.offerFirst(connection);
+    }
+
+    /**
+     * Closes connections that have been idle for longer than the keep-alive timeout.
+     */
+    void evictExpired() {
+        long now = System.nanoTime();
+        for (ConcurrentLinkedDeque<Connection> connections : idle.values()) {
+            Iterator<Connection> iterator = connections.iterator();
+            while (iterator.hasNext()) {
+                Connection connection = iterator.next();
+                if (now - connection.idleSince >= keepAliveNanos && connections.removeFirstOccurrence(connection)) {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    void closeAll() {
+        for (ConcurrentLinkedDeque<Connection> connections : idle.values()) {
+            for (Connection connection = connections.pollFirst(); connection != null; connection = connections.pollFirst()) {
+                connection.close();
+            }
+        }
+        idle.clear();
+    }
+
+    /**
+     * An open (possibly TLS) connection to one origin.
+     */
+    static final class Connection {
+        final String origin;
+        final Socket socket;
+        final InputStream in;
+        final OutputStream out;
+        long idleSince;
+
+        Connection(String origin, Socket socket) throws IOException {
+            this.origin = origin;
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+            this.out = socket.getOutputStream();
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // nothing to do
+            }
+        }
+    }
+}
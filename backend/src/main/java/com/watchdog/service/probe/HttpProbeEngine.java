@@ -0,0 +1,187 @@
+package com.watchdog.service.probe;
+
+import com.watchdog.entity.Monitor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.net.ssl.SSLContext;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking HTTP probe engine built on java.net.http.HttpClient, used when application.probe.mode
+ * is ASYNC. It needs fewer threads than the default VIRTUAL mode, but records no connect, TLS or
+ * time-to-first-byte timings for warm checks.
+ *
+ * Requests are issued with sendAsync, so thousands of checks can be in flight on the handful
+ * of selector/executor threads owned by the client. A global semaphore caps the number of
+ * in-flight probes; the worker only claims as many monitors as there are free slots. A probe's
+ * permit is held until its exchange has actually ended: when the total timeout fails the check,
+ * the exchange is cancelled, so hanging targets cannot pile up requests beyond the cap.
+ * Bodies are streamed through a BodyInspector and never buffered.
+ *
+ * Host names are resolved up front with the shared DnsResolver, which gives the check a real DNS
+ * time and fails unknown hosts from its negative cache without touching the client. The client
+ * still does its own lookup through the JVM resolver when it opens a connection: HttpClient cannot
+ * be handed an address, and connecting to the IP with an overridden Host header would also need
+ * the SNI name and certificate check redone by hand. The JVM caches that lookup, and the other
+ * probe engines connect to the resolved address directly.
+ *
+ * The client keeps connections alive in its per-origin pool and resumes TLS sessions from a shared
+ * session cache. Monitors flagged with coldConnection must pay the full TCP and TLS handshake, which
+ * HttpClient cannot be told to do per request; they are checked with the InstrumentedHttpClient on
+ * virtual threads instead, which also gives them the full phase breakdown.
+ */
+@Component
+@ConditionalOnProperty(name = "application.probe.mode", havingValue = "ASYNC")
+public class HttpProbeEngine implements ProbeEngine {
+
+    // Marks a probe as finished, so an exchange started after the timeout is cancelled right away
+    private static final CompletableFuture<?> FINISHED = CompletableFuture.completedFuture(null);
+
+    private final HttpClient httpClient;
+    private final DnsResolver dnsResolver;
+    private final ExecutorService clientExecutor;
+    private final InstrumentedHttpClient coldClient;
+    private final ExecutorService coldExecutor;
+    private final Semaphore inFlight;
+    private final Duration readTimeout;
+    private final long totalTimeoutMs;
+    private final long maxBodyBytes;
+
+    public HttpProbeEngine(
+            DnsResolver dnsResolver,
+            @Value("${application.probe.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${application.probe.http.read-timeout-ms:10000}") long readTimeoutMs,
+            @Value("${application.probe.http.total-timeout-ms:30000}") long totalTimeoutMs,
+            @Value("${application.probe.http.max-in-flight:5000}") int maxInFlight,
+            @Value("${application.probe.http.threads:4}") int threads,
+            @Value("${application.probe.http.max-body-bytes:1048576}") long maxBodyBytes,
+            @Value("${application.probe.tls.session-cache-size:10000}") int sessionCacheSize,
+            @Value("${application.probe.tls.session-timeout-seconds:3600}") int sessionTimeoutSeconds) {
+        this.clientExecutor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("http-probe-", 0).daemon().factory());
+        this.dnsResolver = dnsResolver;
+        SSLContext sslContext = HttpProbeSupport.newClientSslContext(sessionCacheSize, sessionTimeoutSeconds);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(clientExecutor)
+                .sslContext(sslContext)
+                .build();
+        // Cold checks never use the connection pool; they only block a virtual thread each
+        this.coldClient = new InstrumentedHttpClient((int) connectTimeoutMs, (int) readTimeoutMs, totalTimeoutMs,
+                maxBodyBytes, new HttpConnectionPool(0, 0), sslContext, dnsResolver);
+        this.coldExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cold-probe-", 0).factory());
+        this.inFlight = new Semaphore(maxInFlight);
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.totalTimeoutMs = totalTimeoutMs;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public boolean supports(Monitor.MonitorType type) {
+        return type == Monitor.MonitorType.HTTP_HTTPS;
+    }
+
+    @Override
+    public int availableSlots() {
+        return inFlight.availablePermits();
+    }
+
+    @Override
+    public CompletableFuture<ProbeResult> probe(Monitor monitor) {
+        inFlight.acquireUninterruptibly();
+        long startTime = System.nanoTime();
+        if (monitor.isColdConnection()) {
+            return CompletableFuture.supplyAsync(() -> probeCold(monitor, startTime), coldExecutor)
+                    .whenComplete((r, e) -> inFlight.release());
+        }
+        AtomicBoolean permitHeld = new AtomicBoolean(true);
+        Runnable releasePermit = () -> {
+            if (permitHeld.compareAndSet(true, false)) {
+                inFlight.release();
+            }
+        };
+        AtomicReference<CompletableFuture<?>> exchange = new AtomicReference<>();
+
+        CompletableFuture<ProbeResult> result;
+        try {
+            HttpRequest request = HttpProbeSupport.buildRequest(monitor, readTimeout);
+
+            // HttpClient does not expose connect, TLS or time to first byte: the time until the headers
+            // arrive includes connection setup, which the blocking modes report separately, so only
+            // the DNS time is reported
+            AtomicLong sendStarted = new AtomicLong();
+            HttpResponse.BodyHandler<BodyInspector> handler = responseInfo -> {
+                BodyInspector inspector = HttpProbeSupport.inspectsBody(responseInfo.statusCode())
+                        ? new BodyInspector(maxBodyBytes, monitor.getContentMatchString())
+                        : new BodyInspector(0, null);
+                return new InspectingBodySubscriber(inspector);
+            };
+
+            result = dnsResolver.resolve(request.uri().getHost())
+                    .thenCompose(address -> {
+                        sendStarted.set(System.nanoTime());
+                        CompletableFuture<HttpResponse<BodyInspector>> sent = httpClient.sendAsync(request, handler);
+                        // The permit is released when the exchange ends, not when the check times out
+                        sent.whenComplete((response, error) -> releasePermit.run());
+                        if (!exchange.compareAndSet(null, sent)) {
+                            sent.cancel(true);
+                        }
+                        return sent;
+                    })
+                    .orTimeout(totalTimeoutMs, TimeUnit.MILLISECONDS)
+                    .handle((response, error) -> {
+                        ProbeResult probeResult = error != null
+                                ? HttpProbeSupport.toFailure(monitor, error, HttpProbeSupport.elapsedMs(startTime))
+                                : HttpProbeSupport.toResult(response, HttpProbeSupport.elapsedMs(startTime));
+                        if (sendStarted.get() != 0) {
+                            probeResult.setDnsTimeMs(TimeUnit.NANOSECONDS.toMillis(sendStarted.get() - startTime));
+                        }
+                        return probeResult;
+                    });
+            result = result.whenComplete((r, e) -> {
+                CompletableFuture<?> sent = exchange.getAndSet(FINISHED);
+                if (sent == null) {
+                    // Failed or timed out before the request was sent
+                    releasePermit.run();
+                } else {
+                    // Aborts the exchange if the total timeout ran out; a no-op once it has completed
+                    sent.cancel(true);
+                }
+            });
+            return result;
+        } catch (Exception e) {
+            releasePermit.run();
+            return CompletableFuture.completedFuture(
+                    HttpProbeSupport.toFailure(monitor, e, HttpProbeSupport.elapsedMs(startTime)));
+        }
+    }
+
+    // Blocking check on a fresh connection with a full TLS handshake; bounded by the total timeout
+    private ProbeResult probeCold(Monitor monitor, long startTime) {
+        try {
+            return coldClient.execute(monitor);
+        } catch (Exception e) {
+            return HttpProbeSupport.toFailure(monitor, e, HttpProbeSupport.elapsedMs(startTime));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clientExecutor.shutdownNow();
+        coldExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,162 @@
+package com.watchdog.service.probe;
+
+import com.watchdog.entity.Monitor;
+import com.watchdog.entity.MonitorCheck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Request building and result mapping shared by the HTTP probe engines.
+ */
+final class HttpProbeSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpProbeSupport.class);
+
+    static final String USER_AGENT = "Watchdog-Uptime-Monitor/1.0";
+    // Unread bodies up to this size are drained so the connection can be reused
+    static final long MAX_DRAIN_BYTES = 64 * 1024;
+
+    private HttpProbeSupport() {
+    }
+
+    /**
+     * Creates the TLS context for probe connections. Its client session cache lets repeated checks
+     * of the same origin resume the TLS session (abbreviated handshake) instead of a full one.
+     *
+     * @param sessionCacheSize      The maximum number of cached sessions.
+     * @param sessionTimeoutSeconds How long a cached session may be resumed (0 for no limit).
+     */
+    static SSLContext newClientSslContext(int sessionCacheSize, int sessionTimeoutSeconds) {
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, null, null);
+            sslContext.getClientSessionContext().setSessionCacheSize(sessionCacheSize);
+            sslContext.getClientSessionContext().setSessionTimeout(sessionTimeoutSeconds);
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialize TLS context", e);
+        }
+    }
+
+    static HttpRequest buildRequest(Monitor monitor, Duration readTimeout) throws URISyntaxException {
+        return HttpRequest.newBuilder(new URI(monitor.getUrl()))
+                .method(httpMethod(monitor), HttpRequest.BodyPublishers.noBody())
+                .header("User-Agent", USER_AGENT)
+                .timeout(readTimeout) // Until the response headers arrive
+                .build();
+    }
+
+    static ProbeResult toResult(HttpResponse<BodyInspector> response, long responseTimeMs) {
+        Long declaredLength = response.headers().firstValueAsLong("Content-Length").stream().boxed().findFirst().orElse(null);
+        return toResult(response.statusCode(), declaredLength, response.body(), responseTimeMs);
+    }
+
+    /**
+     * Whether the body of a response with this status is worth inspecting.
+     * Error responses fail the check on their status alone.
+     */
+    static boolean inspectsBody(int status) {
+        return status < 400;
+    }
+
+    /**
+     * Builds the result of a completed HTTP exchange.
+     *
+     * @param status         The final HTTP status code.
+     * @param declaredLength The Content-Length of the response, if any.
+     * @param body           The inspector the body was streamed through.
+     * @param responseTimeMs The total response time.
+     */
+    static ProbeResult toResult(int status, Long declaredLength, BodyInspector body, long responseTimeMs) {
+        ProbeResult result = new ProbeResult();
+        result.setHttpStatusCode(status);
+        result.setResponseTimeMs(responseTimeMs);
+        result.setUp(status >= 200 && status < 400);
+        // Prefer the declared length; when the body was cut short or not read it is the only full size we know
+        if (declaredLength != null) {
+            result.setResponseBodySize(declaredLength);
+        } else if (body != null && body.wantsBody() && !body.isPartial()) {
+            result.setResponseBodySize(body.getBytesRead());
+        }
+        if (body != null) {
+            result.setContentMatched(body.getContentMatched());
+        }
+
+        if (status >= 400) {
+            result.setErrorMessage("HTTP Error " + status);
+            result.setErrorCategory(status >= 500
+                    ? MonitorCheck.ErrorCategory.HTTP_SERVER_ERROR
+                    : MonitorCheck.ErrorCategory.HTTP_CLIENT_ERROR);
+        } else if (Boolean.FALSE.equals(result.getContentMatched())) {
+            result.setUp(false);
+            result.setErrorCategory(MonitorCheck.ErrorCategory.CONTENT_MISMATCH);
+            result.setErrorMessage("Content mismatch: " + String.join(", ", body.getMissingPatterns()) + " not found"
+                    + (body.isTruncated() ? " in the first " + body.getBytesRead() + " bytes" : ""));
+        }
+        return result;
+    }
+
+    static ProbeResult toFailure(Monitor monitor, Throwable error, long responseTimeMs) {
+        error = unwrap(error);
+        if (error instanceof HttpConnectTimeoutException || error instanceof HttpTimeoutException
+                || error instanceof TimeoutException || error instanceof SocketTimeoutException) {
+            return ProbeResult.failure(MonitorCheck.ErrorCategory.TIMEOUT_ERROR,
+                    "Timeout: " + error.getMessage(), -1, responseTimeMs);
+        }
+        if (error instanceof SSLException) {
+            return ProbeResult.failure(MonitorCheck.ErrorCategory.SSL_ERROR,
+                    "SSL Error: " + error.getMessage(), -1, responseTimeMs);
+        }
+        if (error instanceof UnknownHostException) {
+            return ProbeResult.failure(MonitorCheck.ErrorCategory.NETWORK_ERROR,
+                    "DNS Error: Could not resolve host " + error.getMessage(), -1, responseTimeMs);
+        }
+        if (error instanceof ConnectException) {
+            return ProbeResult.failure(MonitorCheck.ErrorCategory.NETWORK_ERROR,
+                    "Connection Error: Could not establish connection.", -1, responseTimeMs);
+        }
+        if (error instanceof IOException) {
+            return ProbeResult.failure(MonitorCheck.ErrorCategory.NETWORK_ERROR,
+                    "Connection Error: " + error.getMessage(), -1, responseTimeMs);
+        }
+        log.error("Probe: General error for monitor {}: {}", monitor.getId(), error.getMessage(), error);
+        return ProbeResult.failure(MonitorCheck.ErrorCategory.UNKNOWN_ERROR,
+                "Unknown Error: " + error.getMessage(), -2, responseTimeMs);
+    }
+
+    static String httpMethod(Monitor monitor) {
+        return monitor.getHttpMethod() == null || monitor.getHttpMethod().isBlank()
+                ? "GET"
+                : monitor.getHttpMethod().toUpperCase();
+    }
+
+    static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
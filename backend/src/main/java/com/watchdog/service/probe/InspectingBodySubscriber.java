@@ -0,0 +1,71 @@
+package com.watchdog.service.probe;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * HttpClient body subscriber that streams the response through a BodyInspector one buffer at a time.
+ *
+ * Once the inspector has seen enough (or wants no body at all, as for status-only monitors and
+ * error responses), the rest of the body is read and discarded up to MAX_DRAIN_BYTES, so that the
+ * HTTP/1.1 connection stays reusable. Only larger bodies cancel the subscription, which closes the
+ * connection, the same trade-off InstrumentedHttpClient makes.
+ */
+final class InspectingBodySubscriber implements HttpResponse.BodySubscriber<BodyInspector> {
+
+    private final BodyInspector inspector;
+    private final CompletableFuture<BodyInspector> result = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private boolean inspecting;
+    private long drainedBytes;
+
+    InspectingBodySubscriber(BodyInspector inspector) {
+        this.inspector = inspector;
+    }
+
+    @Override
+    public CompletionStage<BodyInspector> getBody() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        inspecting = inspector.wantsBody();
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+        if (result.isDone()) {
+            return;
+        }
+        for (ByteBuffer buffer : buffers) {
+            if (inspecting && !inspector.accept(buffer)) {
+                inspecting = false;
+            }
+            drainedBytes += buffer.remaining();
+        }
+        if (drainedBytes > HttpProbeSupport.MAX_DRAIN_BYTES) {
+            // Too large to drain: give up the connection instead
+            subscription.cancel();
+            result.complete(inspector);
+            return;
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        result.complete(inspector);
+    }
+}
@@ -0,0 +1,472 @@
+package com.watchdog.service.probe;
+
+import com.watchdog.entity.Monitor;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal blocking HTTP/1.1 client that measures every phase of a request for real:
+ * DNS resolution, TCP connect, TLS handshake, time to first byte and body download.
+ *
+ * java.net.http.HttpClient hides these phases, so the thread-per-check engine performs the
+ * exchange itself on a plain (SSL)Socket. Redirects are followed and the phase times of all
+ * hops are added up, so the breakdown always sums to the total response time.
+ * The final body is streamed through a BodyInspector; reading stops as soon as it has seen enough.
+ *
+ * Connections are kept alive in a per-origin HttpConnectionPool and TLS sessions are resumed from
+ * the shared SSLContext's cache, so checks of many endpoints on one origin do not pay a TCP and TLS
+ * handshake each. A reused connection reports zero DNS, connect and TLS time. Monitors flagged
+ * with coldConnection always get a fresh connection and a full TLS handshake. A pooled connection
+ * the server has closed in the meantime yields no response byte (EOF or reset); only then is the
+ * request sent again, once, on a fresh connection.
+ *
+ * The read timeout only bounds a single read, so a server trickling bytes (or a chain of slow
+ * redirects) could hold a check for much longer. A total timeout bounds the whole check: it is
+ * checked before every redirect and every read, and caps the connect and socket timeouts.
+ */
+public class InstrumentedHttpClient {
+
+    private static final int MAX_REDIRECTS = 5;
+    private static final int MAX_LINE_LENGTH = 8192;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final long totalTimeoutMs;
+    private final long maxBodyBytes;
+    private final HttpConnectionPool connectionPool;
+    private final DnsResolver dnsResolver;
+    private final SSLSocketFactory sslSocketFactory;
+    // Cold connections use their own context whose sessions are never resumed
+    private final SSLSocketFactory coldSslSocketFactory;
+
+    public InstrumentedHttpClient(int connectTimeoutMs, int readTimeoutMs, long totalTimeoutMs, long maxBodyBytes,
+                                  HttpConnectionPool connectionPool, SSLContext sslContext, DnsResolver dnsResolver) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.totalTimeoutMs = totalTimeoutMs;
+        this.maxBodyBytes = maxBodyBytes;
+        this.connectionPool = connectionPool;
+        this.dnsResolver = dnsResolver;
+        this.sslSocketFactory = sslContext.getSocketFactory();
+        this.coldSslSocketFactory = HttpProbeSupport.newClientSslContext(1, 0).getSocketFactory();
+    }
+
+    /**
+     * Performs the monitor's HTTP request, following redirects.
+     *
+     * @param monitor The monitor to check.
+     * @return The outcome of the check including the phase timings.
+     * @throws IOException If the target could not be reached or spoke invalid HTTP.
+     */
+    public ProbeResult execute(Monitor monitor) throws IOException {
+        return execute(monitor, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(totalTimeoutMs));
+    }
+
+    /**
+     * Performs the monitor's HTTP request, following redirects, within a total timeout that started
+     * before the call (e.g. when the check was queued).
+     *
+     * @param monitor  The monitor to check.
+     * @param deadline The System.nanoTime() by which the check must be done.
+     * @return The outcome of the check including the phase timings.
+     * @throws IOException If the target could not be reached or spoke invalid HTTP, or the deadline passed.
+     */
+    public ProbeResult execute(Monitor monitor, long deadline) throws IOException {
+        URI uri = URI.create(monitor.getUrl());
+        String method = HttpProbeSupport.httpMethod(monitor);
+        PhaseTimings timings = new PhaseTimings();
+        long startTime = System.nanoTime();
+
+        for (int hop = 0; ; hop++) {
+            remainingMs(deadline);
+            BodyInspector body = new BodyInspector(maxBodyBytes, monitor.getContentMatchString());
+            Response response = exchange(uri, method, timings, body, hop < MAX_REDIRECTS, monitor.isColdConnection(),
+                    deadline);
+            if (response.redirectTo != null) {
+                try {
+                    uri = uri.resolve(response.redirectTo);
+                } catch (IllegalArgumentException e) {
+                    throw new ProtocolException("Invalid redirect location: " + response.redirectTo);
+                }
+                if (response.statusCode == 303) {
+                    method = "GET";
+                }
+                continue;
+            }
+
+            Long declaredLength = contentLength(response.headers);
+            ProbeResult result = HttpProbeSupport.toResult(response.statusCode, declaredLength, body,
+                    HttpProbeSupport.elapsedMs(startTime));
+            result.setDnsTimeMs(toMillis(timings.dnsNanos));
+            result.setConnectTimeMs(toMillis(timings.connectNanos));
+            // Any hop over TLS counts, also when the redirects ended on plain HTTP
+            result.setTlsTimeMs(timings.tls ? toMillis(timings.tlsNanos) : null);
+            result.setTtfbMs(toMillis(timings.ttfbNanos));
+            return result;
+        }
+    }
+
+    private Response exchange(URI uri, String method, PhaseTimings timings, BodyInspector body,
+                              boolean followRedirects, boolean cold, long deadline) throws IOException {
+        boolean https = "https".equalsIgnoreCase(uri.getScheme());
+        if (!https && !"http".equalsIgnoreCase(uri.getScheme())) {
+            throw new ProtocolException("Unsupported scheme: " + uri.getScheme());
+        }
+        timings.tls |= https;
+        // The Host header keeps the brackets of an IPv6 literal; resolving and connecting need the bare address
+        String host = uri.getHost();
+        String address = host.startsWith("[") && host.endsWith("]") ? host.substring(1, host.length() - 1) : host;
+        int port = uri.getPort() != -1 ? uri.getPort() : (https ? 443 : 80);
+        String origin = (https ? "https://" : "http://") + host.toLowerCase(Locale.ROOT) + ":" + port;
+        byte[] request = requestHead(uri, method, host, port, https, cold).getBytes(StandardCharsets.ISO_8859_1);
+
+        // Only idempotent requests go over pooled connections, since they are retried if the server closed it
+        HttpConnectionPool.Connection connection = cold || !isIdempotent(method) ? null : connectionPool.acquire(origin);
+        try {
+            int first = -1;
+            if (connection != null) {
+                try {
+                    first = sendRequest(connection, in(connection, deadline), request, timings);
+                } catch (IOException e) {
+                    // Reset or broken pipe before any response byte: the server dropped the idle connection
+                    if (!isReset(e)) {
+                        throw e;
+                    }
+                }
+                if (first == -1) {
+                    // Retry once on a fresh connection. Only a stale connection is retried: a timeout or a
+                    // failure after the response started may have been processed, and is reported as is
+                    connection.close();
+                    connection = null;
+                }
+            }
+            if (connection == null) {
+                connection = connect(origin, address, port, https, cold, timings, deadline);
+                first = sendRequest(connection, in(connection, deadline), request, timings);
+                if (first == -1) {
+                    throw new EOFException("Connection closed before a response was received");
+                }
+            }
+
+            InputStream in = in(connection, deadline);
+            Response response = readHead(in, (char) first + readLine(in));
+            // Interim responses (100 Continue, 103 Early Hints) precede the final one
+            while (response.statusCode >= 100 && response.statusCode < 200 && response.statusCode != 101) {
+                response = readHead(in, readLine(in));
+            }
+
+            boolean reusable = !cold && response.keepAlive;
+            String location = response.header("location");
+            if (followRedirects && isRedirect(response.statusCode) && location != null) {
+                response.redirectTo = location;
+                if (hasBody(method, response.statusCode)) {
+                    reusable &= readBody(in, response.headers, new BodyInspector(HttpProbeSupport.MAX_DRAIN_BYTES, null));
+                }
+            } else if (!hasBody(method, response.statusCode)) {
+                // Nothing to read
+            } else if (body.wantsBody() && HttpProbeSupport.inspectsBody(response.statusCode)) {
+                reusable &= readBody(in, response.headers, body);
+            } else {
+                // The body is not needed: drain small ones to keep the connection, drop large ones
+                reusable &= readBody(in, response.headers, new BodyInspector(HttpProbeSupport.MAX_DRAIN_BYTES, null));
+            }
+
+            if (reusable) {
+                connectionPool.release(connection);
+                connection = null;
+            }
+            return response;
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private HttpConnectionPool.Connection connect(String origin, String host, int port, boolean https, boolean cold,
+                                                  PhaseTimings timings, long deadline) throws IOException {
+        // DNS, usually answered from the shared cache
+        long phaseStart = System.nanoTime();
+        InetAddress address = dnsResolver.resolveBlocking(host);
+        timings.dnsNanos += System.nanoTime() - phaseStart;
+
+        Socket socket = new Socket();
+        try {
+            // TCP connect
+            phaseStart = System.nanoTime();
+            socket.connect(new InetSocketAddress(address, port), Math.min(connectTimeoutMs, remainingMs(deadline)));
+            timings.connectNanos += System.nanoTime() - phaseStart;
+            socket.setSoTimeout(Math.min(readTimeoutMs, remainingMs(deadline)));
+            socket.setTcpNoDelay(true);
+
+            // TLS handshake, resumed from the session cache where possible
+            if (https) {
+                phaseStart = System.nanoTime();
+                SSLSocketFactory factory = cold ? coldSslSocketFactory : sslSocketFactory;
+                SSLSocket sslSocket = (SSLSocket) factory.createSocket(socket, host, port, true);
+                SSLParameters parameters = sslSocket.getSSLParameters();
+                parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                sslSocket.setSSLParameters(parameters);
+                sslSocket.startHandshake();
+                timings.tlsNanos += System.nanoTime() - phaseStart;
+                if (cold) {
+                    // Keep the next cold handshake a full one
+                    sslSocket.getSession().invalidate();
+                }
+                socket = sslSocket;
+            }
+            return new HttpConnectionPool.Connection(origin, socket);
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    // Sends the request and waits for the first byte of the response; -1 if the connection was closed instead
+    private static int sendRequest(HttpConnectionPool.Connection connection, InputStream in, byte[] request,
+                                   PhaseTimings timings) throws IOException {
+        connection.out.write(request);
+        connection.out.flush();
+        long phaseStart = System.nanoTime();
+        int first = in.read();
+        if (first != -1) {
+            timings.ttfbNanos += System.nanoTime() - phaseStart;
+        }
+        return first;
+    }
+
+    // Reads from the connection within the check's total timeout
+    private InputStream in(HttpConnectionPool.Connection connection, long deadline) {
+        return new FilterInputStream(connection.in) {
+            @Override
+            public int read() throws IOException {
+                connection.socket.setSoTimeout(Math.min(readTimeoutMs, remainingMs(deadline)));
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                connection.socket.setSoTimeout(Math.min(readTimeoutMs, remainingMs(deadline)));
+                return super.read(buffer, offset, length);
+            }
+        };
+    }
+
+    // The time left until the deadline, at least 1 ms since a socket timeout of 0 means none
+    private int remainingMs(long deadline) throws SocketTimeoutException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw new SocketTimeoutException("Total timeout of " + totalTimeoutMs + " ms exceeded");
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+    }
+
+    private static String requestHead(URI uri, String method, String host, int port, boolean https, boolean cold) {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path += "?" + uri.getRawQuery();
+        }
+        boolean defaultPort = port == (https ? 443 : 80);
+        return method + " " + path + " HTTP/1.1\r\n"
+                + "Host: " + (defaultPort ? host : host + ":" + port) + "\r\n"
+                + "User-Agent: " + HttpProbeSupport.USER_AGENT + "\r\n"
+                + "Accept: */*\r\n"
+                + (cold ? "Connection: close\r\n" : "")
+                + "\r\n";
+    }
+
+    private static Response readHead(InputStream in, String statusLine) throws IOException {
+        // e.g. "HTTP/1.1 200 OK"
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+            throw new ProtocolException("Invalid status line: " + statusLine);
+        }
+        Response response = new Response();
+        try {
+            response.statusCode = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new ProtocolException("Invalid status line: " + statusLine);
+        }
+        for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                response.headers.computeIfAbsent(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), name -> new ArrayList<>())
+                        .add(line.substring(colon + 1).trim());
+            }
+        }
+        // HTTP/1.1 keeps the connection open unless told otherwise; HTTP/1.0 closes it unless told otherwise
+        String connectionHeader = headerList(response.headers, "connection").toLowerCase(Locale.ROOT);
+        response.keepAlive = "HTTP/1.0".equals(parts[0])
+                ? connectionHeader.contains("keep-alive")
+                : !connectionHeader.contains("close");
+        return response;
+    }
+
+    private static boolean hasBody(String method, int status) {
+        return !"HEAD".equals(method) && status >= 200 && status != 204 && status != 304;
+    }
+
+    // Streams the body through the inspector until the body ends or the inspector has seen enough.
+    // Returns true if the body was read to its framed end, so the connection can carry another request
+    private static boolean readBody(InputStream in, Map<String, List<String>> headers, BodyInspector body) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        if (headerList(headers, "transfer-encoding").toLowerCase(Locale.ROOT).contains("chunked")) {
+            while (true) {
+                String sizeLine = readLine(in);
+                int extension = sizeLine.indexOf(';');
+                long chunkSize = parseLength((extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim(), 16,
+                        "chunk size");
+                if (chunkSize == 0) {
+                    // Trailer section ends with an empty line
+                    while (!readLine(in).isEmpty()) {
+                        // ignore trailers
+                    }
+                    return true;
+                }
+                if (!streamFully(in, chunkSize, buffer, body)) {
+                    return false;
+                }
+                readLine(in); // CRLF after the chunk
+            }
+        }
+        Long contentLength = contentLength(headers);
+        if (contentLength != null) {
+            return streamFully(in, contentLength, buffer, body);
+        }
+        // No framing: the body runs until the server closes the connection
+        for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+            if (!body.accept(buffer, 0, n)) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    // Returns false if the inspector asked to stop before all 'length' bytes were read
+    private static boolean streamFully(InputStream in, long length, byte[] buffer, BodyInspector body) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (n == -1) {
+                throw new EOFException("Connection closed with " + remaining + " body bytes outstanding");
+            }
+            remaining -= n;
+            if (!body.accept(buffer, 0, n)) {
+                return remaining == 0;
+            }
+        }
+        return true;
+    }
+
+    // Repeated Content-Length headers (or a comma-separated list) must all agree
+    private static Long contentLength(Map<String, List<String>> headers) throws ProtocolException {
+        String value = headerList(headers, "content-length");
+        if (value.isEmpty()) {
+            return null;
+        }
+        Long length = null;
+        for (String element : value.split(",")) {
+            long elementLength = parseLength(element.trim(), 10, "Content-Length");
+            if (length != null && length != elementLength) {
+                throw new ProtocolException("Conflicting Content-Length: " + value);
+            }
+            length = elementLength;
+        }
+        return length;
+    }
+
+    private static long parseLength(String value, int radix, String what) throws ProtocolException {
+        try {
+            long length = Long.parseLong(value, radix);
+            if (length < 0 || value.startsWith("+")) {
+                throw new NumberFormatException();
+            }
+            return length;
+        } catch (NumberFormatException e) {
+            throw new ProtocolException("Invalid " + what + ": " + value);
+        }
+    }
+
+    // All values of a header as one comma-separated list, or "" if it is absent
+    private static String headerList(Map<String, List<String>> headers, String name) {
+        return String.join(", ", headers.getOrDefault(name, List.of()));
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int c = in.read(); c != '\n'; c = in.read()) {
+            if (c == -1) {
+                throw new EOFException("Connection closed in the middle of a line");
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+            if (line.length() > MAX_LINE_LENGTH) {
+                throw new ProtocolException("Response line too long");
+            }
+        }
+        return line.toString();
+    }
+
+    // A reset connection surfaces as a SocketException, wrapped in an SSLException on TLS connections
+    private static boolean isReset(IOException e) {
+        return e instanceof SocketException || (e instanceof SSLException && e.getCause() instanceof SocketException);
+    }
+
+    private static boolean isIdempotent(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static boolean isRedirect(int status) {
+        return status == 301 || status == 302 || status == 303 || status == 307 || status == 308;
+    }
+
+    private static Long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static final class PhaseTimings {
+        long dnsNanos;
+        long connectNanos;
+        long tlsNanos;
+        long ttfbNanos;
+        // Whether any hop went over TLS, on a new or a reused connection
+        boolean tls;
+    }
+
+    private static final class Response {
+        int statusCode;
+        // Header values by lower-case name, in the order received
+        final Map<String, List<String>> headers = new HashMap<>();
+        boolean keepAlive;
+        String redirectTo;
+
+        String header(String name) {
+            List<String> values = headers.get(name);
+            return values != null ? values.get(0) : null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.watchdog.service.probe;
+
+import com.watchdog.entity.Monitor;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Executes monitor checks of the monitor types it supports.
+ * The HTTP implementation is selected with application.probe.mode.
+ */
+public interface ProbeEngine {
+
+    /**
+     * @param type A monitor type.
+     * @return True if this engine checks monitors of the given type.
+     */
+    boolean supports(Monitor.MonitorType type);
+
+    /**
+     * @return How many more probes can be started without exceeding the in-flight cap.
+     */
+    int availableSlots();
+
+    /**
+     * Starts a check of the given monitor.
+     * The returned future always completes normally; failures are reported as a failed ProbeResult.
+     *
+     * @param monitor The monitor to check.
+     * @return A future completed with the outcome of the check.
+     */
+    CompletableFuture<ProbeResult> probe(Monitor monitor);
+}
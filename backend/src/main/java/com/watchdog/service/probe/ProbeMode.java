@@ -0,0 +1,11 @@
+package com.watchdog.service.probe;
+
+/**
+ * How HTTP probes are executed. VIRTUAL is the default: only the blocking modes measure every
+ * phase of a check with the InstrumentedHttpClient.
+ */
+public enum ProbeMode {
+    ASYNC,    // HttpClient.sendAsync on a handful of threads (HttpProbeEngine); DNS time only
+    PLATFORM, // Blocking checks on a bounded platform-thread pool (BlockingProbeEngine)
+    VIRTUAL   // Blocking checks, one JDK virtual thread per check (BlockingProbeEngine)
+}
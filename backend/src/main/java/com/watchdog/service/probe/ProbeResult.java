@@ -0,0 +1,138 @@
+package com.watchdog.service.probe;
+
+import com.watchdog.entity.MonitorCheck;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a single probe, as handed from a probe engine to MonitorCheckService.
+ */
+public class ProbeResult {
+
+    private final LocalDateTime timestamp = LocalDateTime.now();
+    private Integer httpStatusCode;
+    private Long responseTimeMs;
+    private boolean up;
+    private String errorMessage;
+    private Long responseBodySize;
+    private MonitorCheck.ErrorCategory errorCategory = MonitorCheck.ErrorCategory.NONE;
+    private Long dnsTimeMs;
+    private Long connectTimeMs;
+    private Long tlsTimeMs;
+    private Long ttfbMs;
+    private Boolean contentMatched;
+
+    /**
+     * Creates a failed result.
+     *
+     * @param category       The category of error that occurred.
+     * @param errorMessage   A human-readable description of the failure.
+     * @param httpStatusCode The status code to record (-1 for network errors, -2 for unknown errors).
+     * @param responseTimeMs The time spent before the probe failed.
+     */
+    public static ProbeResult failure(MonitorCheck.ErrorCategory category, String errorMessage,
+                                      Integer httpStatusCode, Long responseTimeMs) {
+        ProbeResult result = new ProbeResult();
+        result.setUp(false);
+        result.setErrorCategory(category);
+        result.setErrorMessage(errorMessage);
+        result.setHttpStatusCode(httpStatusCode);
+        result.setResponseTimeMs(responseTimeMs);
+        return result;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Integer getHttpStatusCode() {
+        return httpStatusCode;
+    }
+
+    public void setHttpStatusCode(Integer httpStatusCode) {
+        this.httpStatusCode = httpStatusCode;
+    }
+
+    public Long getResponseTimeMs() {
+        return responseTimeMs;
+    }
+
+    public void setResponseTimeMs(Long responseTimeMs) {
+        this.responseTimeMs = responseTimeMs;
+    }
+
+    public boolean isUp() {
+        return up;
+    }
+
+    public void setUp(boolean up) {
+        this.up = up;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public Long getResponseBodySize() {
+        return responseBodySize;
+    }
+
+    public void setResponseBodySize(Long responseBodySize) {
+        this.responseBodySize = responseBodySize;
+    }
+
+    public MonitorCheck.ErrorCategory getErrorCategory() {
+        return errorCategory;
+    }
+
+    public void setErrorCategory(MonitorCheck.ErrorCategory errorCategory) {
+        this.errorCategory = errorCategory;
+    }
+
+    public Long getDnsTimeMs() {
+        return dnsTimeMs;
+    }
+
+    public void setDnsTimeMs(Long dnsTimeMs) {
+        this.dnsTimeMs = dnsTimeMs;
+    }
+
+    public Long getConnectTimeMs() {
+        return connectTimeMs;
+    }
+
+    public void setConnectTimeMs(Long connectTimeMs) {
+        this.connectTimeMs = connectTimeMs;
+    }
+
+    public Long getTlsTimeMs() {
+        return tlsTimeMs;
+    }
+
+    public void setTlsTimeMs(Long tlsTimeMs) {
+        this.tlsTimeMs = tlsTimeMs;
+    }
+
+    public Long getTtfbMs() {
+        return ttfbMs;
+    }
+
+    public void setTtfbMs(Long ttfbMs) {
+        this.ttfbMs = ttfbMs;
+    }
+
+    /**
+     * @return Whether the monitor's content match string was found in the body, or null if not checked.
+     */
+    public Boolean getContentMatched() {
+        return contentMatched;
+    }
+
+    public void setContentMatched(Boolean contentMatched) {
+        this.contentMatched = contentMatched;
+    }
+}
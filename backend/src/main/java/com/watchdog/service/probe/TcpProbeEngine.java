@@ -0,0 +1,268 @@
+package com.watchdog.service.probe;
+
+import com.watchdog.entity.Monitor;
+import com.watchdog.entity.MonitorCheck;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP probe engine for PORT and PING monitors.
+ *
+ * Every check is a non-blocking SocketChannel.connect registered with one shared Selector, so a
+ * single thread multiplexes thousands of concurrent connects. Per-probe timeouts are driven by the
+ * selector loop itself from a deadline queue; no timer threads are involved.
+ *
+ * PORT is up when the TCP handshake completes. PING is a TCP reachability check: a completed
+ * handshake and a refused connection (the host answered with a RST) both prove the host is up,
+ * only a timeout or a network error counts as down. ICMP is not used because it needs raw sockets.
+ *
+ * Targets come from the monitor URL: tcp://host:port, or http(s)://host[:port] with the scheme's
+ * default port. PING monitors without a port use application.probe.tcp.ping-port.
+ */
+@Component
+public class TcpProbeEngine implements ProbeEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(TcpProbeEngine.class);
+
+    private final Selector selector;
+    private final Thread selectorThread;
+    // Host names are resolved asynchronously; the selector thread must never block
+    private final DnsResolver dnsResolver;
+    private final ConcurrentLinkedQueue<PendingProbe> registrations = new ConcurrentLinkedQueue<>();
+    // Only touched by the selector thread
+    private final PriorityQueue<PendingProbe> deadlines = new PriorityQueue<>((a, b) -> Long.compare(a.deadline, b.deadline));
+    private final Semaphore inFlight;
+    private final long timeoutMs;
+    private final int pingPort;
+    private volatile boolean running = true;
+
+    public TcpProbeEngine(
+            DnsResolver dnsResolver,
+            @Value("${application.probe.tcp.timeout-ms:5000}") long timeoutMs,
+            @Value("${application.probe.tcp.max-in-flight:10000}") int maxInFlight,
+            @Value("${application.probe.tcp.ping-port:80}") int pingPort) throws IOException {
+        this.timeoutMs = timeoutMs;
+        this.pingPort = pingPort;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.selector = Selector.open();
+        this.dnsResolver = dnsResolver;
+        this.selectorThread = Thread.ofPlatform().name("tcp-probe-selector").daemon().start(this::selectLoop);
+    }
+
+    @Override
+    public boolean supports(Monitor.MonitorType type) {
+        return type == Monitor.MonitorType.PORT || type == Monitor.MonitorType.PING;
+    }
+
+    @Override
+    public int availableSlots() {
+        return inFlight.availablePermits();
+    }
+
+    @Override
+    public CompletableFuture<ProbeResult> probe(Monitor monitor) {
+        inFlight.acquireUninterruptibly();
+        long startTime = System.nanoTime();
+        PendingProbe probe = new PendingProbe(monitor.getType() == Monitor.MonitorType.PING, startTime);
+
+        try {
+            URI uri = URI.create(monitor.getUrl());
+            String host = uri.getHost();
+            if (host == null) {
+                throw new IllegalArgumentException("No host in monitor URL: " + monitor.getUrl());
+            }
+            int port = targetPort(uri, probe.ping);
+            long dnsStart = System.nanoTime();
+            dnsResolver.resolve(host).whenComplete((address, error) -> {
+                if (error != null) {
+                    probe.future.complete(ProbeResult.failure(MonitorCheck.ErrorCategory.NETWORK_ERROR,
+                            "DNS Error: " + error.getMessage(), -1, HttpProbeSupport.elapsedMs(startTime)));
+                    return;
+                }
+                probe.dnsNanos = System.nanoTime() - dnsStart;
+                probe.target = new InetSocketAddress(address, port);
+                // The connect timeout starts once the address is known
+                probe.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+                registrations.add(probe);
+                selector.wakeup();
+            });
+        } catch (Exception e) {
+            probe.future.complete(ProbeResult.failure(MonitorCheck.ErrorCategory.UNKNOWN_ERROR,
+                    "Invalid target: " + e.getMessage(), -2, HttpProbeSupport.elapsedMs(startTime)));
+        }
+        return probe.future.whenComplete((r, e) -> inFlight.release());
+    }
+
+    private int targetPort(URI uri, boolean ping) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+        return switch (scheme) {
+            case "http" -> 80;
+            case "https" -> 443;
+            default -> {
+                if (!ping) {
+                    throw new IllegalArgumentException("PORT monitors need a port, e.g. tcp://host:5432");
+                }
+                yield pingPort;
+            }
+        };
+    }
+
+    private void selectLoop() {
+        while (running) {
+            try {
+                registerPending();
+                long now = System.nanoTime();
+                expireTimedOut(now);
+
+                PendingProbe next = deadlines.peek();
+                long waitMs = next == null ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(next.deadline - now) + 1);
+                selector.select(waitMs);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isConnectable()) {
+                        finishConnect(key, (PendingProbe) key.attachment());
+                    }
+                }
+            } catch (Exception e) {
+                // Never let the loop die; the affected probes time out through their deadlines
+                log.error("TcpProbe: Selector loop error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void registerPending() {
+        PendingProbe probe;
+        while ((probe = registrations.poll()) != null) {
+            SocketChannel channel = null;
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                probe.channel = channel;
+                probe.connectStart = System.nanoTime();
+                if (channel.connect(probe.target)) {
+                    // Loopback connects can complete immediately
+                    complete(probe, null);
+                    continue;
+                }
+                channel.register(selector, SelectionKey.OP_CONNECT, probe);
+                deadlines.add(probe);
+            } catch (IOException e) {
+                complete(probe, e);
+            }
+        }
+    }
+
+    private void finishConnect(SelectionKey key, PendingProbe probe) {
+        try {
+            ((SocketChannel) key.channel()).finishConnect();
+            complete(probe, null);
+        } catch (IOException e) {
+            complete(probe, e);
+        }
+    }
+
+    private void expireTimedOut(long now) {
+        while (!deadlines.isEmpty()) {
+            PendingProbe probe = deadlines.peek();
+            if (probe.future.isDone()) {
+                deadlines.poll();
+                continue;
+            }
+            if (probe.deadline > now) {
+                return;
+            }
+            deadlines.poll();
+            closeQuietly(probe);
+            probe.future.complete(ProbeResult.failure(MonitorCheck.ErrorCategory.TIMEOUT_ERROR,
+                    "Timeout: no TCP response from " + probe.target + " within " + timeoutMs + "ms", -1,
+                    HttpProbeSupport.elapsedMs(probe.startTime)));
+        }
+    }
+
+    // Completes a probe whose connect attempt has finished, successfully (error == null) or not
+    private void complete(PendingProbe probe, IOException error) {
+        long connectNanos = System.nanoTime() - probe.connectStart;
+        closeQuietly(probe);
+
+        ProbeResult result;
+        if (error == null || (probe.ping && error instanceof ConnectException)) {
+            // A refused connection still proves the host is reachable
+            result = new ProbeResult();
+            result.setUp(true);
+            result.setResponseTimeMs(HttpProbeSupport.elapsedMs(probe.startTime));
+        } else {
+            String message = error instanceof ConnectException
+                    ? "Connection Refused: " + probe.target
+                    : "Network Error: " + error.getMessage();
+            result = ProbeResult.failure(MonitorCheck.ErrorCategory.NETWORK_ERROR, message, -1,
+                    HttpProbeSupport.elapsedMs(probe.startTime));
+        }
+        result.setDnsTimeMs(TimeUnit.NANOSECONDS.toMillis(probe.dnsNanos));
+        result.setConnectTimeMs(TimeUnit.NANOSECONDS.toMillis(connectNanos));
+        probe.future.complete(result);
+    }
+
+    private static void closeQuietly(PendingProbe probe) {
+        if (probe.channel != null) {
+            try {
+                // Also cancels the selection key
+                probe.channel.close();
+            } catch (IOException ignored) {
+                // nothing to do
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+            selector.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("TcpProbe: Failed to close selector: {}", e.getMessage());
+        }
+    }
+
+    private static final class PendingProbe {
+        final CompletableFuture<ProbeResult> future = new CompletableFuture<>();
+        final boolean ping;
+        final long startTime;
+        long dnsNanos;
+        volatile InetSocketAddress target;
+        volatile long deadline;
+        long connectStart;
+        SocketChannel channel;
+
+        PendingProbe(boolean ping, long startTime) {
+            this.ping = ping;
+            this.startTime = startTime;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.watchdog.service.rollup;
+
+import com.watchdog.entity.MonitorCheck;
+import com.watchdog.service.ingestion.CheckRecord;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Aggregate of one monitor's checks within one rollup bucket.
+ * Response time statistics cover successful checks only; every failed check adds the monitor's
+ * check interval to the downtime.
+ */
+public class CheckRollup {
+
+    private final long monitorId;
+    private final LocalDateTime bucketStart;
+    private long checkCount;
+    private long upCount;
+    private long downSeconds;
+    private long responseTimeCount;
+    private long responseTimeSum;
+    private Long responseTimeMin;
+    private Long responseTimeMax;
+    private final LatencyHistogram latency;
+    private final Map<MonitorCheck.ErrorCategory, Long> errorCounts = new EnumMap<>(MonitorCheck.ErrorCategory.class);
+
+    public CheckRollup(long monitorId, LocalDateTime bucketStart) {
+        this(monitorId, bucketStart, new LatencyHistogram());
+    }
+
+    public CheckRollup(long monitorId, LocalDateTime bucketStart, LatencyHistogram latency) {
+        this.monitorId = monitorId;
+        this.bucketStart = bucketStart;
+        this.latency = latency;
+    }
+
+    public void add(CheckRecord record) {
+        checkCount++;
+        if (!record.up() && record.checkIntervalSeconds() != null) {
+            downSeconds += record.checkIntervalSeconds();
+        }
+        if (record.up()) {
+            upCount++;
+            Long responseTimeMs = record.responseTimeMs();
+            if (responseTimeMs != null && responseTimeMs >= 0) {
+                responseTimeCount++;
+                responseTimeSum += responseTimeMs;
+                responseTimeMin = responseTimeMin == null ? responseTimeMs : Math.min(responseTimeMin, responseTimeMs);
+                responseTimeMax = responseTimeMax == null ? responseTimeMs : Math.max(responseTimeMax, responseTimeMs);
+                latency.record(responseTimeMs);
+            }
+        }
+        MonitorCheck.ErrorCategory category = record.errorCategory();
+        if (category != null && category != MonitorCheck.ErrorCategory.NONE) {
+            errorCounts.merge(category, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * @return The estimated response time percentile, or null if there was no successful check.
+     */
+    public Long responseTimePercentile(double percentile) {
+        if (responseTimeCount == 0) {
+            return null;
+        }
+        return latency.percentile(percentile, responseTimeMin, responseTimeMax);
+    }
+
+    public long getMonitorId() {
+        return monitorId;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getCheckCount() {
+        return checkCount;
+    }
+
+    public void setCheckCount(long checkCount) {
+        this.checkCount = checkCount;
+    }
+
+    public long getUpCount() {
+        return upCount;
+    }
+
+    public void setUpCount(long upCount) {
+        this.upCount = upCount;
+    }
+
+    public long getDownSeconds() {
+        return downSeconds;
+    }
+
+    public void setDownSeconds(long downSeconds) {
+        this.downSeconds = downSeconds;
+    }
+
+    public long getResponseTimeCount() {
+        return responseTimeCount;
+    }
+
+    public void setResponseTimeCount(long responseTimeCount) {
+        this.responseTimeCount = responseTimeCount;
+    }
+
+    public long getResponseTimeSum() {
+        return responseTimeSum;
+    }
+
+    public void setResponseTimeSum(long responseTimeSum) {
+        this.responseTimeSum = responseTimeSum;
+    }
+
+    public Long getResponseTimeMin() {
+        return responseTimeMin;
+    }
+
+    public void setResponseTimeMin(Long responseTimeMin) {
+        this.responseTimeMin = responseTimeMin;
+    }
+
+    public Long getResponseTimeMax() {
+        return responseTimeMax;
+    }
+
+    public void setResponseTimeMax(Long responseTimeMax) {
+        this.responseTimeMax = responseTimeMax;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getErrorCount(MonitorCheck.ErrorCategory category) {
+        return errorCounts.getOrDefault(category, 0L);
+    }
+
+    public void setErrorCount(MonitorCheck.ErrorCategory category, long count) {
+        errorCounts.put(category, count);
+    }
+
+    public Map<MonitorCheck.ErrorCategory, Long> getErrorCounts() {
+        return errorCounts;
+    }
+}
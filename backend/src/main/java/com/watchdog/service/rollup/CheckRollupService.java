@@ -0,0 +1,161 @@
+package com.watchdog.service.rollup;
+
+import com.watchdog.dto.CheckRollupDTO;
+import com.watchdog.dto.CheckRollupSeriesDTO;
+import com.watchdog.entity.Monitor;
+import com.watchdog.entity.MonitorCheck;
+import com.watchdog.entity.User;
+import com.watchdog.exception.ResourceNotFoundException;
+import com.watchdog.repository.CheckRollupRepository;
+import com.watchdog.repository.MonitorRepository;
+import com.watchdog.service.AuthService;
+import com.watchdog.service.ingestion.CheckIngestionListener;
+import com.watchdog.service.ingestion.CheckRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains per-monitor rollups of the ingested checks per minute, hour and day, and serves them
+ * for graphs.
+ *
+ * Every ingested batch is aggregated in memory per monitor and bucket and then added to the stored
+ * rollups with one batched upsert per resolution, in the ingestion transaction. Queries pick the
+ * finest resolution that covers the requested range in at most max-points buckets and whose
+ * rollups are still retained at its start, so a 30 day graph reads 720 hourly rows instead of every
+ * check, and a short range from last month reads hours rather than minutes that have expired.
+ */
+@Service
+public class CheckRollupService implements CheckIngestionListener {
+
+    // Upserts in a fixed order, so that two nodes writing the same buckets cannot deadlock
+    private static final Comparator<CheckRollup> WRITE_ORDER =
+            Comparator.comparingLong(CheckRollup::getMonitorId).thenComparing(CheckRollup::getBucketStart);
+
+    private record BucketKey(long monitorId, LocalDateTime bucketStart) {
+    }
+
+    private final CheckRollupRepository rollupRepository;
+    private final MonitorRepository monitorRepository;
+    private final AuthService authService;
+    private final int maxPoints;
+    private final Map<RollupResolution, Integer> retentionDays = new EnumMap<>(RollupResolution.class);
+
+    public CheckRollupService(
+            CheckRollupRepository rollupRepository,
+            MonitorRepository monitorRepository,
+            AuthService authService,
+            @Value("${application.rollups.max-points:1000}") int maxPoints,
+            @Value("${application.rollups.retention.minute-days:7}") int minuteRetentionDays,
+            @Value("${application.rollups.retention.hour-days:91}") int hourRetentionDays,
+            @Value("${application.rollups.retention.day-days:730}") int dayRetentionDays) {
+        this.rollupRepository = rollupRepository;
+        this.monitorRepository = monitorRepository;
+        this.authService = authService;
+        this.maxPoints = maxPoints;
+        this.retentionDays.put(RollupResolution.MINUTE, minuteRetentionDays);
+        this.retentionDays.put(RollupResolution.HOUR, hourRetentionDays);
+        this.retentionDays.put(RollupResolution.DAY, dayRetentionDays);
+    }
+
+    @Override
+    public void onChecksWritten(List<CheckRecord> records) {
+        for (RollupResolution resolution : RollupResolution.values()) {
+            Map<BucketKey, CheckRollup> rollups = new HashMap<>();
+            for (CheckRecord record : records) {
+                LocalDateTime bucketStart = resolution.bucketStart(record.timestamp());
+                rollups.computeIfAbsent(new BucketKey(record.monitorId(), bucketStart),
+                        key -> new CheckRollup(key.monitorId(), key.bucketStart())).add(record);
+            }
+            List<CheckRollup> sorted = new ArrayList<>(rollups.values());
+            sorted.sort(WRITE_ORDER);
+            rollupRepository.upsertAll(resolution, sorted);
+        }
+    }
+
+    /**
+     * Retrieves a monitor's rollups within a time range.
+     *
+     * @param monitorId  The ID of the monitor.
+     * @param userId     The ID of the user (for ownership check).
+     * @param startTime  The start of the time range.
+     * @param endTime    The end of the time range.
+     * @param resolution The resolution, or null to pick the finest one that fits in max-points buckets
+     *                   and is still retained at startTime.
+     * @return The rollups, oldest first; buckets without checks are omitted.
+     */
+    @Transactional(readOnly = true)
+    public CheckRollupSeriesDTO getRollups(Long monitorId, Long userId, LocalDateTime startTime,
+                                           LocalDateTime endTime, RollupResolution resolution) {
+        User user = authService.findUserById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        Monitor monitor = monitorRepository.findByIdAndUser(monitorId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Monitor not found or not owned by user with ID: " + monitorId));
+
+        if (resolution == null) {
+            resolution = resolutionFor(startTime, endTime, LocalDate.now());
+        }
+        List<CheckRollupDTO> rollups = rollupRepository
+                .findByMonitor(resolution, monitor.getId(), resolution.bucketStart(startTime), endTime)
+                .stream()
+                .map(this::convertToDTO)
+                .toList();
+
+        CheckRollupSeriesDTO series = new CheckRollupSeriesDTO();
+        series.setMonitorId(monitor.getId());
+        series.setResolution(resolution);
+        series.setStartTime(startTime);
+        series.setEndTime(endTime);
+        series.setRollups(rollups);
+        return series;
+    }
+
+    RollupResolution resolutionFor(LocalDateTime startTime, LocalDateTime endTime, LocalDate today) {
+        Duration range = Duration.between(startTime, endTime);
+        for (RollupResolution resolution : RollupResolution.values()) {
+            // Rollups older than their retention are gone; a coarser resolution still has them
+            LocalDateTime availableFrom = today.minusDays(retentionDays.get(resolution)).atStartOfDay();
+            if (!startTime.isBefore(availableFrom) && range.dividedBy(resolution.getDuration()) <= maxPoints) {
+                return resolution;
+            }
+        }
+        return RollupResolution.DAY;
+    }
+
+    private CheckRollupDTO convertToDTO(CheckRollup rollup) {
+        CheckRollupDTO dto = new CheckRollupDTO();
+        dto.setBucketStart(rollup.getBucketStart());
+        dto.setCheckCount(rollup.getCheckCount());
+        dto.setUpCount(rollup.getUpCount());
+        if (rollup.getCheckCount() > 0) {
+            dto.setUptimePercentage(100.0 * rollup.getUpCount() / rollup.getCheckCount());
+        }
+        dto.setDowntimeSeconds(rollup.getDownSeconds());
+        dto.setMinResponseTimeMs(rollup.getResponseTimeMin());
+        dto.setMaxResponseTimeMs(rollup.getResponseTimeMax());
+        if (rollup.getResponseTimeCount() > 0) {
+            dto.setAvgResponseTimeMs(Math.round((double) rollup.getResponseTimeSum() / rollup.getResponseTimeCount()));
+        }
+        dto.setP50ResponseTimeMs(rollup.responseTimePercentile(50));
+        dto.setP95ResponseTimeMs(rollup.responseTimePercentile(95));
+        dto.setP99ResponseTimeMs(rollup.responseTimePercentile(99));
+        Map<MonitorCheck.ErrorCategory, Long> errorCounts = new EnumMap<>(MonitorCheck.ErrorCategory.class);
+        rollup.getErrorCounts().forEach((category, count) -> {
+            if (count > 0) {
+                errorCounts.put(category, count);
+            }
+        });
+        dto.setErrorCounts(errorCounts);
+        return dto;
+    }
+}
@@ -0,0 +1,72 @@
+package com.watchdog.service.rollup;
+
+/**
+ * Response time distribution merged from any number of rollups, of one or several monitors.
+ *
+ * Holds the bucket counts of a single LatencyHistogram plus the exact count, minimum and maximum, so
+ * its size does not depend on how many checks or rollups were merged into it. The buckets are counted
+ * in longs, since merging a long range of many monitors can exceed the int counts of a stored rollup.
+ */
+public class LatencyDistribution {
+
+    private final long[] counts = new long[LatencyHistogram.BUCKETS];
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Adds the response times of one rollup.
+     *
+     * @param count   The number of response times in the rollup.
+     * @param min     Their minimum.
+     * @param max     Their maximum.
+     * @param buckets Their histogram.
+     */
+    public void add(long count, long min, long max, LatencyHistogram buckets) {
+        if (count == 0) {
+            return;
+        }
+        this.count += count;
+        this.min = Math.min(this.min, min);
+        this.max = Math.max(this.max, max);
+        int[] bucketCounts = buckets.getCounts();
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            counts[i] += bucketCounts[i];
+        }
+    }
+
+    public void merge(LatencyDistribution other) {
+        if (other.count == 0) {
+            return;
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    /**
+     * @return The estimated percentile in milliseconds, or null if the distribution is empty.
+     */
+    public Long percentile(double percentile) {
+        return count == 0 ? null : LatencyHistogram.percentile(counts, percentile, min, max);
+    }
+
+    public long[] getCounts() {
+        return counts;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Long getMin() {
+        return count == 0 ? null : min;
+    }
+
+    public Long getMax() {
+        return count == 0 ? null : max;
+    }
+}
@@ -0,0 +1,91 @@
+package com.watchdog.service.rollup;
+
+import java.util.Arrays;
+
+/**
+ * Fixed log-scale histogram of response times, stored with every check rollup.
+ *
+ * Bucket 0 counts 0 ms, bucket i counts [1.3^(i-1), 1.3^i) ms and the last bucket everything from
+ * about three minutes up. All histograms share this layout, so they are merged by adding them
+ * element by element, which the rollup upsert does in SQL. A rollup's counts fit an int, but merges
+ * across many monitors and a long range may not, so LatencyDistribution merges them into longs.
+ * Percentiles are interpolated inside a bucket and clamped to the exact minimum and maximum, keeping
+ * the error well below the 30% bucket width in practice.
+ */
+public final class LatencyHistogram {
+
+    public static final int BUCKETS = 48;
+
+    private static final double RATIO = 1.3;
+    private static final double LOG_RATIO = Math.log(RATIO);
+
+    private final int[] counts;
+
+    public LatencyHistogram() {
+        this.counts = new int[BUCKETS];
+    }
+
+    /**
+     * @param counts Bucket counts as stored; a histogram of another length is padded or cut to BUCKETS.
+     */
+    public LatencyHistogram(int[] counts) {
+        this.counts = Arrays.copyOf(counts, BUCKETS);
+    }
+
+    public void record(long responseTimeMs) {
+        counts[bucketOf(responseTimeMs)]++;
+    }
+
+    public int[] getCounts() {
+        return counts;
+    }
+
+    /**
+     * Estimates a percentile of the recorded response times.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @param min        The smallest recorded response time.
+     * @param max        The largest recorded response time.
+     * @return The estimated response time in milliseconds, or null if nothing was recorded.
+     */
+    public Long percentile(double percentile, long min, long max) {
+        return percentile(Arrays.stream(counts).asLongStream().toArray(), percentile, min, max);
+    }
+
+    // Estimates a percentile from bucket counts in this layout, merged or not
+    static Long percentile(long[] counts, double percentile, long min, long max) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (seen + counts[i] >= rank) {
+                double fraction = (double) (rank - seen) / counts[i];
+                double estimate = lowerBound(i) + fraction * (upperBound(i) - lowerBound(i));
+                return Math.max(min, Math.min(max, Math.round(estimate)));
+            }
+            seen += counts[i];
+        }
+        return max;
+    }
+
+    static int bucketOf(long responseTimeMs) {
+        if (responseTimeMs < 1) {
+            return 0;
+        }
+        return (int) Math.min(BUCKETS - 1, 1 + Math.floor(Math.log(responseTimeMs) / LOG_RATIO));
+    }
+
+    private static double lowerBound(int bucket) {
+        return bucket == 0 ? 0 : Math.pow(RATIO, bucket - 1);
+    }
+
+    private static double upperBound(int bucket) {
+        return bucket == 0 ? 1 : Math.pow(RATIO, bucket);
+    }
+}
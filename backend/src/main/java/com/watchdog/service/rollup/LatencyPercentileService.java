@@ -0,0 +1,212 @@
+package com.watchdog.service.rollup;
+
+import com.watchdog.dto.LatencyPercentilesDTO;
+import com.watchdog.dto.LatencyPercentilesReportDTO;
+import com.watchdog.entity.Monitor;
+import com.watchdog.entity.User;
+import com.watchdog.exception.ResourceNotFoundException;
+import com.watchdog.repository.CheckRollupRepository;
+import com.watchdog.repository.MonitorRepository;
+import com.watchdog.service.AuthService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Response time percentiles over arbitrary time ranges and sets of monitors, computed from the
+ * latency histograms stored with the check rollups.
+ *
+ * A range is covered by as few rollups as possible: whole days in the middle, hours and then minutes
+ * towards the edges, so even a 90 day range reads at most a few hundred rows per monitor. Where the
+ * finer rollups of an edge have already expired, the edge is rounded out to the coarser bucket.
+ * The rows are merged into one histogram per monitor as they are read, and the monitors' histograms
+ * into one for the whole set.
+ */
+@Service
+public class LatencyPercentileService {
+
+    /**
+     * Part of a time range answered from the rollups of one resolution.
+     */
+    record Tile(RollupResolution resolution, LocalDateTime startTime, LocalDateTime endTime) {
+    }
+
+    private final CheckRollupRepository rollupRepository;
+    private final MonitorRepository monitorRepository;
+    private final AuthService authService;
+    private final Map<RollupResolution, Integer> retentionDays = new EnumMap<>(RollupResolution.class);
+
+    public LatencyPercentileService(
+            CheckRollupRepository rollupRepository,
+            MonitorRepository monitorRepository,
+            AuthService authService,
+            @Value("${application.rollups.retention.minute-days:7}") int minuteRetentionDays,
+            @Value("${application.rollups.retention.hour-days:91}") int hourRetentionDays,
+            @Value("${application.rollups.retention.day-days:730}") int dayRetentionDays) {
+        this.rollupRepository = rollupRepository;
+        this.monitorRepository = monitorRepository;
+        this.authService = authService;
+        this.retentionDays.put(RollupResolution.MINUTE, minuteRetentionDays);
+        this.retentionDays.put(RollupResolution.HOUR, hourRetentionDays);
+        this.retentionDays.put(RollupResolution.DAY, dayRetentionDays);
+    }
+
+    /**
+     * Computes response time percentiles of one monitor.
+     *
+     * @param monitorId   The ID of the monitor.
+     * @param userId      The ID of the user (for ownership check).
+     * @param startTime   The start of the time range.
+     * @param endTime     The end of the time range.
+     * @param percentiles The percentiles to estimate, each in (0, 100].
+     * @return The percentiles of the monitor's successful checks in the range.
+     */
+    @Transactional(readOnly = true)
+    public LatencyPercentilesDTO getMonitorPercentiles(Long monitorId, Long userId, LocalDateTime startTime,
+                                                       LocalDateTime endTime, List<Double> percentiles) {
+        User user = authService.findUserById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        Monitor monitor = monitorRepository.findByIdAndUser(monitorId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Monitor not found or not owned by user with ID: " + monitorId));
+
+        LatencyDistribution distribution = merge(List.of(monitor.getId()), startTime, endTime)
+                .getOrDefault(monitor.getId(), new LatencyDistribution());
+        return convertToDTO(monitor.getId(), distribution, percentiles);
+    }
+
+    /**
+     * Computes response time percentiles of several monitors, each on its own and all of them combined.
+     *
+     * @param userId      The ID of the user.
+     * @param monitorIds  The monitors, or null/empty for all of the user's monitors.
+     * @param startTime   The start of the time range.
+     * @param endTime     The end of the time range.
+     * @param percentiles The percentiles to estimate, each in (0, 100].
+     * @return The combined percentiles and those of every monitor.
+     */
+    @Transactional(readOnly = true)
+    public LatencyPercentilesReportDTO getPercentiles(Long userId, Collection<Long> monitorIds, LocalDateTime startTime,
+                                                      LocalDateTime endTime, List<Double> percentiles) {
+        User user = authService.findUserById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        Set<Long> owned = new LinkedHashSet<>();
+        for (Monitor monitor : monitorRepository.findByUser(user)) {
+            owned.add(monitor.getId());
+        }
+        Set<Long> selected = owned;
+        if (monitorIds != null && !monitorIds.isEmpty()) {
+            selected = new LinkedHashSet<>(monitorIds);
+            for (Long monitorId : selected) {
+                if (!owned.contains(monitorId)) {
+                    throw new ResourceNotFoundException("Monitor not found or not owned by user with ID: " + monitorId);
+                }
+            }
+        }
+
+        Map<Long, LatencyDistribution> distributions = selected.isEmpty()
+                ? Map.of()
+                : merge(selected, startTime, endTime);
+        LatencyDistribution combined = new LatencyDistribution();
+        List<LatencyPercentilesDTO> monitors = new ArrayList<>(selected.size());
+        for (Long monitorId : selected) {
+            LatencyDistribution distribution = distributions.getOrDefault(monitorId, new LatencyDistribution());
+            combined.merge(distribution);
+            monitors.add(convertToDTO(monitorId, distribution, percentiles));
+        }
+
+        LatencyPercentilesReportDTO report = new LatencyPercentilesReportDTO();
+        report.setStartTime(startTime);
+        report.setEndTime(endTime);
+        report.setCombined(convertToDTO(null, combined, percentiles));
+        report.setMonitors(monitors);
+        return report;
+    }
+
+    private Map<Long, LatencyDistribution> merge(Collection<Long> monitorIds, LocalDateTime startTime, LocalDateTime endTime) {
+        Map<Long, LatencyDistribution> distributions = new HashMap<>();
+        for (Tile tile : tiles(startTime, endTime, LocalDate.now())) {
+            rollupRepository.mergeLatency(tile.resolution(), monitorIds, tile.startTime(), tile.endTime(), distributions);
+        }
+        return distributions;
+    }
+
+    /**
+     * Covers [startTime, endTime), widened to whole minutes, with as few rollup buckets as possible.
+     */
+    List<Tile> tiles(LocalDateTime startTime, LocalDateTime endTime, LocalDate today) {
+        List<Tile> tiles = new ArrayList<>();
+        addTiles(tiles, RollupResolution.DAY, RollupResolution.MINUTE.bucketStart(startTime),
+                ceil(RollupResolution.MINUTE, endTime), today);
+        return tiles;
+    }
+
+    private void addTiles(List<Tile> tiles, RollupResolution resolution, LocalDateTime startTime,
+                          LocalDateTime endTime, LocalDate today) {
+        if (!startTime.isBefore(endTime)) {
+            return;
+        }
+        if (resolution == RollupResolution.MINUTE) {
+            tiles.add(new Tile(resolution, startTime, endTime));
+            return;
+        }
+        LocalDateTime firstWhole = ceil(resolution, startTime);
+        LocalDateTime lastWhole = resolution.bucketStart(endTime);
+        if (firstWhole.isBefore(lastWhole)) {
+            tiles.add(new Tile(resolution, firstWhole, lastWhole));
+            addEdge(tiles, resolution, startTime, firstWhole, today);
+            addEdge(tiles, resolution, lastWhole, endTime, today);
+        } else {
+            addEdge(tiles, resolution, startTime, endTime, today);
+        }
+    }
+
+    // Covers a part of the range that is smaller than one bucket of the given resolution
+    private void addEdge(List<Tile> tiles, RollupResolution resolution, LocalDateTime startTime,
+                         LocalDateTime endTime, LocalDate today) {
+        if (!startTime.isBefore(endTime)) {
+            return;
+        }
+        RollupResolution finer = RollupResolution.values()[resolution.ordinal() - 1];
+        LocalDateTime finerAvailableFrom = today.minusDays(retentionDays.get(finer)).atStartOfDay();
+        if (startTime.isBefore(finerAvailableFrom)) {
+            // The finer rollups have expired; round the edge out to whole buckets instead
+            tiles.add(new Tile(resolution, resolution.bucketStart(startTime), ceil(resolution, endTime)));
+        } else {
+            addTiles(tiles, finer, startTime, endTime, today);
+        }
+    }
+
+    private static LocalDateTime ceil(RollupResolution resolution, LocalDateTime time) {
+        LocalDateTime bucketStart = resolution.bucketStart(time);
+        return bucketStart.equals(time) ? time : bucketStart.plus(resolution.getDuration());
+    }
+
+    private LatencyPercentilesDTO convertToDTO(Long monitorId, LatencyDistribution distribution, List<Double> percentiles) {
+        LatencyPercentilesDTO dto = new LatencyPercentilesDTO();
+        dto.setMonitorId(monitorId);
+        dto.setSampleCount(distribution.getCount());
+        dto.setMinResponseTimeMs(distribution.getMin());
+        dto.setMaxResponseTimeMs(distribution.getMax());
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (double percentile : percentiles) {
+            String key = percentile == Math.rint(percentile)
+                    ? "p" + (long) percentile
+                    : "p" + percentile;
+            values.put(key, distribution.percentile(percentile));
+        }
+        dto.setPercentiles(values);
+        return dto;
+    }
+}
@@ -0,0 +1,37 @@
+package com.watchdog.service.rollup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The resolutions at which check rollups are kept, finest first, each with its own table.
+ */
+public enum RollupResolution {
+    MINUTE("check_rollups_1m", ChronoUnit.MINUTES),
+    HOUR("check_rollups_1h", ChronoUnit.HOURS),
+    DAY("check_rollups_1d", ChronoUnit.DAYS);
+
+    private final String table;
+    private final ChronoUnit unit;
+
+    RollupResolution(String table, ChronoUnit unit) {
+        this.table = table;
+        this.unit = unit;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public Duration getDuration() {
+        return unit.getDuration();
+    }
+
+    /**
+     * @return The start of the bucket that contains the given time.
+     */
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+}
@@ -0,0 +1,99 @@
+package com.watchdog.service.scheduling;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of (deadline, monitor ID) pairs kept in two parallel primitive arrays,
+ * so that scheduling thousands of monitors does not allocate an object per entry.
+ * Not thread-safe; callers synchronize externally.
+ */
+public final class DueMonitorQueue {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] deadlines = new long[INITIAL_CAPACITY];
+    private long[] monitorIds = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Adds a monitor to the queue.
+     *
+     * @param monitorId The ID of the monitor.
+     * @param deadline  The epoch millisecond at which the monitor is due.
+     */
+    public void add(long monitorId, long deadline) {
+        if (size == deadlines.length) {
+            deadlines = Arrays.copyOf(deadlines, size * 2);
+            monitorIds = Arrays.copyOf(monitorIds, size * 2);
+        }
+        int i = size++;
+        // Sift up
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (deadlines[parent] <= deadline) {
+                break;
+            }
+            deadlines[i] = deadlines[parent];
+            monitorIds[i] = monitorIds[parent];
+            i = parent;
+        }
+        deadlines[i] = deadline;
+        monitorIds[i] = monitorId;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The earliest deadline in the queue. Only valid if the queue is not empty.
+     */
+    public long peekDeadline() {
+        return deadlines[0];
+    }
+
+    /**
+     * @return The monitor ID with the earliest deadline. Only valid if the queue is not empty.
+     */
+    public long peekMonitorId() {
+        return monitorIds[0];
+    }
+
+    /**
+     * Removes the entry with the earliest deadline.
+     */
+    public void poll() {
+        size--;
+        if (size == 0) {
+            return;
+        }
+        long deadline = deadlines[size];
+        long monitorId = monitorIds[size];
+        int i = 0;
+        // Sift down
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && deadlines[right] < deadlines[child]) {
+                child = right;
+            }
+            if (deadline <= deadlines[child]) {
+                break;
+            }
+            deadlines[i] = deadlines[child];
+            monitorIds[i] = monitorIds[child];
+            i = child;
+        }
+        deadlines[i] = deadline;
+        monitorIds[i] = monitorId;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,184 @@
+package com.watchdog.service.scheduling;
+
+import com.watchdog.entity.Monitor;
+import com.watchdog.repository.MonitorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory schedule of when each monitor is next due.
+ *
+ * The schedule is loaded from the monitors table at startup, kept in sync by MonitorService
+ * on create/update/delete, and periodically re-synced to pick up changes made on other nodes.
+ * Monitors fire on their own checkIntervalSeconds grid (deadline + interval), so the worker
+ * no longer has to poll the database to find out what is due.
+ * Only the monitors of this node's shard (see WorkerMembership) are held in the schedule.
+ */
+@Component
+public class MonitorScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorScheduler.class);
+
+    private final MonitorRepository monitorRepository;
+    private final WorkerMembership workerMembership;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Guarded by 'this'
+    private final DueMonitorQueue queue = new DueMonitorQueue();
+    private final Map<Long, ScheduledMonitor> scheduled = new HashMap<>();
+
+    private static final class ScheduledMonitor {
+        final long intervalMs;
+        long deadline;
+
+        ScheduledMonitor(long intervalMs, long deadline) {
+            this.intervalMs = intervalMs;
+            this.deadline = deadline;
+        }
+    }
+
+    @Autowired
+    public MonitorScheduler(MonitorRepository monitorRepository, WorkerMembership workerMembership) {
+        this.monitorRepository = monitorRepository;
+        this.workerMembership = workerMembership;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSchedule() {
+        resync();
+        log.info("Scheduler: Loaded {} monitors", scheduledCount());
+    }
+
+    /**
+     * Rebalances the schedule after a node joined or died: monitors that moved to another node
+     * are dropped, and monitors that moved here are scheduled from their persisted next_check_at.
+     */
+    @EventListener
+    public void onMembershipChanged(WorkerMembershipChangedEvent event) {
+        resync();
+        log.info("Scheduler: Rebalanced over {} nodes, now owning {} monitors", event.nodes().size(), scheduledCount());
+    }
+
+    /**
+     * Re-reads the monitors table so that monitors created, changed or deleted through
+     * another node are reflected here. Deadlines of unchanged monitors are kept as they are.
+     */
+    @Scheduled(fixedDelayString = "${application.scheduler.resync-interval-ms:60000}",
+            initialDelayString = "${application.scheduler.resync-interval-ms:60000}",
+            timeUnit = TimeUnit.MILLISECONDS)
+    public void resync() {
+        List<Monitor> monitors = monitorRepository.findByStatusNot(Monitor.MonitorStatus.PAUSED);
+        Set<Long> seen = new HashSet<>(monitors.size() * 2);
+        synchronized (this) {
+            for (Monitor monitor : monitors) {
+                if (!workerMembership.owns(monitor.getId())) {
+                    continue;
+                }
+                seen.add(monitor.getId());
+                ScheduledMonitor current = scheduled.get(monitor.getId());
+                if (current == null || current.intervalMs != intervalMs(monitor)) {
+                    schedule(monitor);
+                }
+            }
+            scheduled.keySet().retainAll(seen);
+        }
+    }
+
+    /**
+     * Adds a monitor to the schedule, or replaces its existing entry.
+     * The first deadline is the monitor's persisted next_check_at (or now if it has none).
+     * Monitors owned by another node are removed instead.
+     */
+    public synchronized void schedule(Monitor monitor) {
+        if (monitor.getStatus() == Monitor.MonitorStatus.PAUSED || !workerMembership.owns(monitor.getId())) {
+            unschedule(monitor.getId());
+            return;
+        }
+        long deadline = monitor.getNextCheckAt() != null ? toEpochMilli(monitor.getNextCheckAt()) : System.currentTimeMillis();
+        scheduled.put(monitor.getId(), new ScheduledMonitor(intervalMs(monitor), deadline));
+        queue.add(monitor.getId(), deadline);
+        compactIfNeeded();
+    }
+
+    public synchronized void unschedule(Long monitorId) {
+        // The heap entry is dropped lazily when it surfaces in pollDue
+        scheduled.remove(monitorId);
+    }
+
+    /**
+     * Removes and returns the monitors whose deadline has passed, and advances each of them
+     * to its next slot on its interval grid.
+     *
+     * @param max The maximum number of monitors to return.
+     * @return The IDs of the due monitors, most overdue first.
+     */
+    public synchronized List<Long> pollDue(int max) {
+        long now = System.currentTimeMillis();
+        List<Long> due = new ArrayList<>();
+        while (due.size() < max && !queue.isEmpty() && queue.peekDeadline() <= now) {
+            long monitorId = queue.peekMonitorId();
+            long deadline = queue.peekDeadline();
+            queue.poll();
+
+            ScheduledMonitor entry = scheduled.get(monitorId);
+            if (entry == null || entry.deadline != deadline) {
+                continue; // Stale entry of a rescheduled or removed monitor
+            }
+            due.add(monitorId);
+
+            long next = deadline + entry.intervalMs;
+            if (next <= now) {
+                // Skip the slots we missed (e.g. after a pause) but stay on the same grid
+                next += ((now - next) / entry.intervalMs + 1) * entry.intervalMs;
+            }
+            entry.deadline = next;
+            queue.add(monitorId, next);
+        }
+        return due;
+    }
+
+    /**
+     * @return The next scheduled check time of a monitor, used as the next_check_at checkpoint.
+     */
+    public synchronized LocalDateTime getNextCheckAt(Long monitorId) {
+        ScheduledMonitor entry = scheduled.get(monitorId);
+        return entry == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.deadline), zone);
+    }
+
+    public synchronized int scheduledCount() {
+        return scheduled.size();
+    }
+
+    // Rebuilds the heap once stale entries outnumber live ones
+    private void compactIfNeeded() {
+        if (queue.size() <= 2 * scheduled.size() + 64) {
+            return;
+        }
+        queue.clear();
+        scheduled.forEach((monitorId, entry) -> queue.add(monitorId, entry.deadline));
+    }
+
+    private long intervalMs(Monitor monitor) {
+        return TimeUnit.SECONDS.toMillis(monitor.getCheckIntervalSeconds());
+    }
+
+    private long toEpochMilli(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,108 @@
+package com.watchdog.service.scheduling;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the live worker nodes and which of them owns which monitor.
+ *
+ * Every node heartbeats into a Redis sorted set (member = node ID, score = last heartbeat).
+ * Members that miss heartbeats for longer than the node timeout are evicted by whichever node
+ * notices first. Monitors are sharded over the live nodes with a consistent-hash ring, so each
+ * node only schedules its own share and a join or a death only moves a slice of the monitors.
+ */
+@Component
+public class WorkerMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerMembership.class);
+
+    private static final String MEMBERS_KEY = "watchdog:workers";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${application.worker.node-id:#{T(java.util.UUID).randomUUID().toString()}}")
+    private String nodeId;
+
+    @Value("${application.worker.node-timeout-ms:15000}")
+    private long nodeTimeoutMs;
+
+    @Value("${application.worker.virtual-nodes:128}")
+    private int virtualNodes;
+
+    // Until the first successful heartbeat the ring is empty and this node owns everything;
+    // leases and SKIP LOCKED still keep checks from running twice.
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(List.of(), 0);
+
+    @Autowired
+    public WorkerMembership(StringRedisTemplate redisTemplate, ApplicationEventPublisher eventPublisher) {
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return True if this node is responsible for scheduling the given monitor.
+     */
+    public boolean owns(Long monitorId) {
+        String owner = ring.ownerOf(monitorId);
+        return owner == null || owner.equals(nodeId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void join() {
+        heartbeat();
+    }
+
+    /**
+     * Refreshes this node's heartbeat, evicts dead nodes and rebuilds the ring if membership changed.
+     */
+    @Scheduled(fixedDelayString = "${application.worker.heartbeat-ms:5000}", timeUnit = TimeUnit.MILLISECONDS)
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        Set<String> members;
+        try {
+            redisTemplate.opsForZSet().add(MEMBERS_KEY, nodeId, now);
+            redisTemplate.opsForZSet().removeRangeByScore(MEMBERS_KEY, 0, now - nodeTimeoutMs);
+            members = redisTemplate.opsForZSet().range(MEMBERS_KEY, 0, -1);
+        } catch (Exception e) {
+            // Keep the last known ring; other nodes will take over our shard if we stay unreachable
+            log.warn("Membership: Heartbeat for node {} failed: {}", nodeId, e.getMessage());
+            return;
+        }
+        if (members == null || members.isEmpty()) {
+            return;
+        }
+
+        if (!members.equals(Set.copyOf(ring.getNodes()))) {
+            ring = new ConsistentHashRing(members, virtualNodes);
+            log.info("Membership: Worker nodes changed, now {} ({} live)", ring.getNodes(), members.size());
+            eventPublisher.publishEvent(new WorkerMembershipChangedEvent(ring.getNodes()));
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        try {
+            redisTemplate.opsForZSet().remove(MEMBERS_KEY, nodeId);
+        } catch (Exception e) {
+            log.warn("Membership: Failed to deregister node {}: {}", nodeId, e.getMessage());
+        }
+    }
+}
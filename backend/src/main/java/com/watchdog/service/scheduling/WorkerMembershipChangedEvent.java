@@ -0,0 +1,9 @@
+package com.watchdog.service.scheduling;
+
+import java.util.List;
+
+/**
+ * Published by WorkerMembership whenever the set of live worker nodes changes.
+ */
+public record WorkerMembershipChangedEvent(List<String> nodes) {
+}
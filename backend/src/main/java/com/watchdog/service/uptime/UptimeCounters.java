@@ -0,0 +1,14 @@
+package com.watchdog.service.uptime;
+
+/**
+ * A monitor's check counts and downtime within one uptime window.
+ */
+public record UptimeCounters(long checks, long upChecks, long downSeconds) {
+
+    public static final UptimeCounters EMPTY = new UptimeCounters(0, 0, 0);
+
+    public UptimeCounters plus(boolean up, Integer checkIntervalSeconds) {
+        long down = !up && checkIntervalSeconds != null ? checkIntervalSeconds : 0;
+        return new UptimeCounters(checks + 1, upChecks + (up ? 1 : 0), downSeconds + down);
+    }
+}
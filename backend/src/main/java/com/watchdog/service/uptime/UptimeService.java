@@ -0,0 +1,155 @@
+package com.watchdog.service.uptime;
+
+import com.watchdog.dto.MonitorUptimeDTO;
+import com.watchdog.dto.UptimeWindowDTO;
+import com.watchdog.entity.Monitor;
+import com.watchdog.entity.User;
+import com.watchdog.exception.ResourceNotFoundException;
+import com.watchdog.repository.MonitorRepository;
+import com.watchdog.repository.MonitorUptimeRepository;
+import com.watchdog.service.AuthService;
+import com.watchdog.service.ingestion.CheckIngestionListener;
+import com.watchdog.service.ingestion.CheckRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps running uptime counters per monitor for the last 24 hours, 7, 30 and 90 days, so that the
+ * uptime of all of a user's monitors is read from one row each instead of scanning their checks.
+ *
+ * Every ingested batch is added to all windows in the ingestion transaction. Once an hour each
+ * window slides forward: the hours that left it are subtracted again using the hourly rollups, and
+ * uptime_windows records from which hour on the window counts. Windows therefore slide at hourly
+ * granularity and cover between their length and one hour more.
+ *
+ * A window that was never built, or whose oldest hour has already expired from the hourly rollups
+ * (e.g. after a long outage of every node), is rebuilt from the rollups instead. The window's row
+ * is locked while it slides, so only one node does it at a time.
+ */
+@Service
+public class UptimeService implements CheckIngestionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UptimeService.class);
+
+    private final MonitorUptimeRepository uptimeRepository;
+    private final MonitorRepository monitorRepository;
+    private final AuthService authService;
+    private final TransactionTemplate transactionTemplate;
+    private final int hourRetentionDays;
+
+    public UptimeService(
+            MonitorUptimeRepository uptimeRepository,
+            MonitorRepository monitorRepository,
+            AuthService authService,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.rollups.retention.hour-days:91}") int hourRetentionDays) {
+        this.uptimeRepository = uptimeRepository;
+        this.monitorRepository = monitorRepository;
+        this.authService = authService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hourRetentionDays = hourRetentionDays;
+        // The hours leaving the longest window must still have their rollups when it slides; with only
+        // the window's length of days kept, they expire at midnight and every window is rebuilt daily
+        long requiredDays = Arrays.stream(UptimeWindow.values())
+                .mapToLong(window -> window.getDuration().toDays()).max().orElse(0) + 1;
+        if (hourRetentionDays < requiredDays) {
+            throw new IllegalStateException("application.rollups.retention.hour-days is " + hourRetentionDays
+                    + ", but the uptime windows need at least " + requiredDays + " days of hourly rollups");
+        }
+    }
+
+    @Override
+    public void onChecksWritten(List<CheckRecord> records) {
+        // Sorted by monitor, so that concurrent batches lock the counter rows in the same order
+        Map<Long, UptimeCounters> deltas = new TreeMap<>();
+        for (CheckRecord record : records) {
+            deltas.merge(record.monitorId(), UptimeCounters.EMPTY.plus(record.up(), record.checkIntervalSeconds()),
+                    (a, b) -> new UptimeCounters(a.checks() + b.checks(), a.upChecks() + b.upChecks(),
+                            a.downSeconds() + b.downSeconds()));
+        }
+        uptimeRepository.addToAllWindows(deltas);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${application.uptime.cron:0 5 * * * *}")
+    public void slideWindows() {
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime hourlyAvailableFrom = LocalDate.now().minusDays(hourRetentionDays).atStartOfDay();
+        for (UptimeWindow window : UptimeWindow.values()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> slide(window, currentHour, hourlyAvailableFrom));
+            } catch (DataAccessException e) {
+                // Retried on the next run; the window just covers a little more until then
+                log.warn("Uptime: Failed to slide the {} window: {}", window.getLabel(), e.getMessage());
+            }
+        }
+    }
+
+    private void slide(UptimeWindow window, LocalDateTime currentHour, LocalDateTime hourlyAvailableFrom) {
+        LocalDateTime target = currentHour.minus(window.getDuration());
+        LocalDateTime countedFrom = uptimeRepository.lockWindow(window);
+        if (countedFrom == null || countedFrom.isBefore(hourlyAvailableFrom)) {
+            LocalDateTime from = target.isBefore(hourlyAvailableFrom) ? hourlyAvailableFrom : target;
+            uptimeRepository.rebuild(window, from);
+            uptimeRepository.setCountedFrom(window, from);
+            log.info("Uptime: Rebuilt the {} window from the hourly rollups since {}", window.getLabel(), from);
+        } else if (countedFrom.isBefore(target)) {
+            uptimeRepository.subtractHours(window, countedFrom, target);
+            uptimeRepository.setCountedFrom(window, target);
+        }
+    }
+
+    /**
+     * Retrieves the uptime of all of a user's monitors in every window.
+     *
+     * @param userId The ID of the user.
+     * @return The uptime per monitor; monitors without checks have zero counts.
+     */
+    @Transactional(readOnly = true)
+    public List<MonitorUptimeDTO> getUptimeForUser(Long userId) {
+        User user = authService.findUserById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        Map<Long, Map<UptimeWindow, UptimeCounters>> counters = uptimeRepository.findByUserId(user.getId());
+        return monitorRepository.findByUser(user).stream()
+                .map(monitor -> convertToDTO(monitor, counters.getOrDefault(monitor.getId(), Map.of())))
+                .toList();
+    }
+
+    private MonitorUptimeDTO convertToDTO(Monitor monitor, Map<UptimeWindow, UptimeCounters> counters) {
+        Map<String, UptimeWindowDTO> windows = new LinkedHashMap<>();
+        for (UptimeWindow window : UptimeWindow.values()) {
+            UptimeCounters counter = counters.getOrDefault(window, UptimeCounters.EMPTY);
+            UptimeWindowDTO dto = new UptimeWindowDTO();
+            dto.setCheckCount(counter.checks());
+            dto.setUpCount(counter.upChecks());
+            if (counter.checks() > 0) {
+                dto.setUptimePercentage(100.0 * counter.upChecks() / counter.checks());
+            }
+            dto.setDowntimeSeconds(counter.downSeconds());
+            windows.put(window.getLabel(), dto);
+        }
+        MonitorUptimeDTO dto = new MonitorUptimeDTO();
+        dto.setMonitorId(monitor.getId());
+        dto.setUrl(monitor.getUrl());
+        dto.setWindows(windows);
+        return dto;
+    }
+}
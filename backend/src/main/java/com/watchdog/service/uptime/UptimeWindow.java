@@ -0,0 +1,33 @@
+package com.watchdog.service.uptime;
+
+import java.time.Duration;
+
+/**
+ * The sliding windows for which uptime counters are kept. Each window has its own set of columns in
+ * monitor_uptime and a row in uptime_windows.
+ */
+public enum UptimeWindow {
+    DAY("24h", Duration.ofHours(24)),
+    WEEK("7d", Duration.ofDays(7)),
+    MONTH("30d", Duration.ofDays(30)),
+    QUARTER("90d", Duration.ofDays(90));
+
+    private final String label;
+    private final Duration duration;
+
+    UptimeWindow(String label, Duration duration) {
+        this.label = label;
+        this.duration = duration;
+    }
+
+    /**
+     * @return The window's name in the API, in uptime_windows and as its column suffix, e.g. "24h".
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+}
@@ -0,0 +1,78 @@
+-- Range-partition monitor_checks by day on "timestamp", so that expired check history is removed
+-- by dropping whole partitions instead of deleting rows (see CheckRetentionService).
+--
+-- On a database whose monitor_checks table was created by Hibernate's schema update, the existing
+-- table is kept as-is and attached as the partition holding everything before the first daily
+-- partition; it is dropped like any other partition once all of its rows are past retention.
+-- On a fresh database this runs before Hibernate creates the other tables, so the foreign key to
+-- monitors is added afterwards by the schema update.
+--
+-- The primary key of a partitioned table has to include the partition key, hence (id, "timestamp").
+
+DO $$
+DECLARE
+    pk_name   text;
+    next_id   bigint := 1;
+    first_day date   := current_date;
+    day       date;
+BEGIN
+    IF to_regclass('monitor_checks') IS NOT NULL THEN
+        ALTER TABLE monitor_checks RENAME TO monitor_checks_legacy;
+
+        SELECT conname INTO pk_name
+        FROM pg_constraint
+        WHERE conrelid = 'monitor_checks_legacy'::regclass AND contype = 'p';
+        -- Attaching gives the table the parent's primary key (id, "timestamp") instead
+        IF pk_name IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE monitor_checks_legacy DROP CONSTRAINT %I', pk_name);
+        END IF;
+
+        -- Partitions cannot have identity columns of their own; ids now come from the parent's sequence
+        ALTER TABLE monitor_checks_legacy ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+        -- A partition needs exactly the parent's columns. Flyway runs before Hibernate's schema
+        -- update, so columns added to MonitorCheck since the table was created are added here.
+        ALTER TABLE monitor_checks_legacy ADD COLUMN IF NOT EXISTS tls_time_ms bigint;
+
+        SELECT coalesce(max(id), 0) + 1, greatest(coalesce(max("timestamp")::date + 1, current_date), current_date)
+        INTO next_id, first_day
+        FROM monitor_checks_legacy;
+    END IF;
+
+    EXECUTE format('CREATE SEQUENCE monitor_checks_id_seq START WITH %s', next_id);
+
+    CREATE TABLE monitor_checks (
+        id                 bigint       NOT NULL DEFAULT nextval('monitor_checks_id_seq'),
+        monitor_id         bigint       NOT NULL,
+        "timestamp"        timestamp(6) NOT NULL,
+        http_status_code   integer,
+        response_time_ms   bigint,
+        error_message      text,
+        is_up              boolean      NOT NULL,
+        response_body_size bigint,
+        error_category     varchar(255),
+        dns_time_ms        bigint,
+        connect_time_ms    bigint,
+        tls_time_ms        bigint,
+        ttfb_ms            bigint,
+        PRIMARY KEY (id, "timestamp")
+    ) PARTITION BY RANGE ("timestamp");
+
+    ALTER SEQUENCE monitor_checks_id_seq OWNED BY monitor_checks.id;
+
+    -- Serves the per-monitor time range queries; created on every partition
+    CREATE INDEX monitor_checks_monitor_id_timestamp_idx ON monitor_checks (monitor_id, "timestamp");
+
+    IF to_regclass('monitor_checks_legacy') IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE monitor_checks ATTACH PARTITION monitor_checks_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                       first_day::timestamp);
+    END IF;
+
+    -- A week ahead, so checks can be written before the partition manager's first run
+    day := first_day;
+    WHILE day <= current_date + 7 LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF monitor_checks FOR VALUES FROM (%L) TO (%L)',
+                       'monitor_checks_p' || to_char(day, 'YYYYMMDD'), day::timestamp, (day + 1)::timestamp);
+        day := day + 1;
+    END LOOP;
+END $$;
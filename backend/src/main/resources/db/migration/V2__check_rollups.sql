@@ -0,0 +1,45 @@
+-- Per-monitor aggregates of monitor_checks per minute, hour and day (see CheckRollupService).
+--
+-- Rows are upserted additively as checks are ingested. Response time statistics cover successful
+-- checks only; latency_buckets is a fixed log-scale histogram of their response times
+-- (LatencyHistogram) from which the percentiles are estimated, merged element by element.
+--
+-- The minute table is range-partitioned by day like monitor_checks, so its retention is enforced
+-- by dropping partitions; the hour and day tables are small enough for plain DELETEs.
+
+CREATE TABLE check_rollups_1m (
+    monitor_id          bigint       NOT NULL,
+    bucket_start        timestamp(6) NOT NULL,
+    check_count         bigint       NOT NULL,
+    up_count            bigint       NOT NULL,
+    response_time_count bigint       NOT NULL,
+    response_time_sum   bigint       NOT NULL,
+    response_time_min   bigint,
+    response_time_max   bigint,
+    latency_buckets     integer[]    NOT NULL,
+    http_client_errors  bigint       NOT NULL DEFAULT 0,
+    http_server_errors  bigint       NOT NULL DEFAULT 0,
+    network_errors      bigint       NOT NULL DEFAULT 0,
+    ssl_errors          bigint       NOT NULL DEFAULT 0,
+    timeout_errors      bigint       NOT NULL DEFAULT 0,
+    content_mismatches  bigint       NOT NULL DEFAULT 0,
+    unknown_errors      bigint       NOT NULL DEFAULT 0,
+    PRIMARY KEY (monitor_id, bucket_start)
+) PARTITION BY RANGE (bucket_start);
+
+CREATE TABLE check_rollups_1h (LIKE check_rollups_1m INCLUDING DEFAULTS, PRIMARY KEY (monitor_id, bucket_start));
+CREATE TABLE check_rollups_1d (LIKE check_rollups_1m INCLUDING DEFAULTS, PRIMARY KEY (monitor_id, bucket_start));
+
+CREATE INDEX check_rollups_1h_bucket_start_idx ON check_rollups_1h (bucket_start);
+CREATE INDEX check_rollups_1d_bucket_start_idx ON check_rollups_1d (bucket_start);
+
+DO $$
+DECLARE
+    day date := current_date;
+BEGIN
+    WHILE day <= current_date + 7 LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF check_rollups_1m FOR VALUES FROM (%L) TO (%L)',
+                       'check_rollups_1m_p' || to_char(day, 'YYYYMMDD'), day::timestamp, (day + 1)::timestamp);
+        day := day + 1;
+    END LOOP;
+END $$;
@@ -0,0 +1,36 @@
+-- Running uptime counters per monitor for sliding 24h/7d/30d/90d windows (see UptimeService).
+--
+-- Checks are added to every window as they are ingested. Once an hour each window's oldest hours
+-- are subtracted again using check_rollups_1h; uptime_windows records, per window, from which hour
+-- on checks are still counted.
+--
+-- Downtime is accounted as the monitor's check interval per failed check, also in the rollups so
+-- that it can be subtracted when it leaves a window.
+
+ALTER TABLE check_rollups_1m ADD COLUMN down_seconds bigint NOT NULL DEFAULT 0;
+ALTER TABLE check_rollups_1h ADD COLUMN down_seconds bigint NOT NULL DEFAULT 0;
+ALTER TABLE check_rollups_1d ADD COLUMN down_seconds bigint NOT NULL DEFAULT 0;
+
+CREATE TABLE monitor_uptime (
+    monitor_id       bigint NOT NULL PRIMARY KEY,
+    checks_24h       bigint NOT NULL DEFAULT 0,
+    up_checks_24h    bigint NOT NULL DEFAULT 0,
+    down_seconds_24h bigint NOT NULL DEFAULT 0,
+    checks_7d        bigint NOT NULL DEFAULT 0,
+    up_checks_7d     bigint NOT NULL DEFAULT 0,
+    down_seconds_7d  bigint NOT NULL DEFAULT 0,
+    checks_30d       bigint NOT NULL DEFAULT 0,
+    up_checks_30d    bigint NOT NULL DEFAULT 0,
+    down_seconds_30d bigint NOT NULL DEFAULT 0,
+    checks_90d       bigint NOT NULL DEFAULT 0,
+    up_checks_90d    bigint NOT NULL DEFAULT 0,
+    down_seconds_90d bigint NOT NULL DEFAULT 0
+);
+
+CREATE TABLE uptime_windows (
+    name         varchar(8)   NOT NULL PRIMARY KEY,
+    counted_from timestamp(6)
+);
+
+-- A NULL counted_from makes the first maintenance run rebuild the window from the hourly rollups
+INSERT INTO uptime_windows (name) VALUES ('24h'), ('7d'), ('30d'), ('90d');
@@ -0,0 +1,19 @@
+-- Alert notifications waiting to be delivered (see NotificationDispatcher).
+--
+-- Alerting only inserts rows here; notification workers claim them per channel by setting
+-- locked_until (FOR UPDATE SKIP LOCKED, so nodes never claim the same row) and delete them once
+-- the delivery outcome is recorded in alert_history. A claim that runs out, e.g. because the node
+-- died mid-delivery, makes the row available again.
+
+CREATE TABLE alert_outbox (
+    id              bigserial    PRIMARY KEY,
+    monitor_id      bigint       NOT NULL,
+    alert_config_id bigint       NOT NULL,
+    alert_type      varchar(32)  NOT NULL,
+    destination     varchar(255) NOT NULL,
+    message         text         NOT NULL,
+    created_at      timestamp(6) NOT NULL,
+    locked_until    timestamp(6)
+);
+
+CREATE INDEX alert_outbox_alert_type_id_idx ON alert_outbox (alert_type, id);
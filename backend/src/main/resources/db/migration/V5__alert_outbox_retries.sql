@@ -0,0 +1,17 @@
+-- Retries for alert_outbox (see NotificationDispatcher).
+--
+-- available_at replaces locked_until: a notification can be claimed once it is reached. Claiming
+-- moves it a lease ahead, a failed attempt by the backoff delay. A notification that fails
+-- max-attempts times is dead-lettered: it stays in the table with its last error, for inspection,
+-- but is never claimed again.
+
+ALTER TABLE alert_outbox RENAME COLUMN locked_until TO available_at;
+UPDATE alert_outbox SET available_at = created_at WHERE available_at IS NULL;
+ALTER TABLE alert_outbox ALTER COLUMN available_at SET NOT NULL;
+
+ALTER TABLE alert_outbox ADD COLUMN attempts integer NOT NULL DEFAULT 0;
+ALTER TABLE alert_outbox ADD COLUMN last_error text;
+ALTER TABLE alert_outbox ADD COLUMN dead_lettered_at timestamp(6);
+
+DROP INDEX alert_outbox_alert_type_id_idx;
+CREATE INDEX alert_outbox_pending_idx ON alert_outbox (alert_type, available_at) WHERE dead_lettered_at IS NULL;
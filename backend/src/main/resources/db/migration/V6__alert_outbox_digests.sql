@@ -0,0 +1,9 @@
+-- Alert digests for alert_outbox (see NotificationDispatcher).
+--
+-- New alerts become available only after the coalescing window. The dispatcher then claims all
+-- pending alerts of the same channel and destination together and sends them as one digest;
+-- event (DOWN/UP) lets the digest summarize them. Rows queued before this migration have no event.
+
+ALTER TABLE alert_outbox ADD COLUMN event varchar(16);
+
+CREATE INDEX alert_outbox_destination_idx ON alert_outbox (alert_type, destination) WHERE dead_lettered_at IS NULL;
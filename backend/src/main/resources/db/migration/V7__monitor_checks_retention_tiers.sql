@@ -0,0 +1,54 @@
+-- Retention tiers for monitor_checks (see CheckRetentionService).
+--
+-- A user's check retention is one of a few tiers (User.CHECK_RETENTION_TIERS), and every check
+-- carries the tier of its owner in retention_days. Each daily partition is itself LIST-partitioned
+-- on retention_days with one sub-partition per tier, so a tier's day is dropped as a whole once it
+-- expires; no user's checks are ever deleted row by row.
+--
+-- Retentions set before the tiers existed are rounded up to the next tier. Existing checks are
+-- marked with the longest tier; the partitions holding them (today's and older) are not split and
+-- are dropped once past the longest retention in use, as before. Future daily partitions are still
+-- empty and are recreated with their tier sub-partitions.
+
+DO $$
+DECLARE
+    partition_name text;
+    day            date;
+    tier           integer;
+BEGIN
+    -- On a fresh database Hibernate creates users after Flyway, with the default tier
+    IF to_regclass('users') IS NOT NULL THEN
+        UPDATE users SET check_retention_days = CASE
+            WHEN check_retention_days <= 7 THEN 7
+            WHEN check_retention_days <= 30 THEN 30
+            WHEN check_retention_days <= 90 THEN 90
+            ELSE 365 END
+        WHERE check_retention_days NOT IN (7, 30, 90, 365);
+    END IF;
+
+    -- A constant default is stored in the catalog, so this does not rewrite any partition
+    ALTER TABLE monitor_checks ADD COLUMN retention_days integer NOT NULL DEFAULT 365;
+    ALTER TABLE monitor_checks ALTER COLUMN retention_days DROP DEFAULT;
+
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'monitor_checks'::regclass AND c.relkind = 'r'
+          AND c.relname ~ '^monitor_checks_p[0-9]{8}$'
+          AND to_date(substr(c.relname, 17), 'YYYYMMDD') > current_date
+    LOOP
+        EXECUTE format('DROP TABLE %I', partition_name);
+    END LOOP;
+
+    day := current_date + 1;
+    WHILE day <= current_date + 7 LOOP
+        partition_name := 'monitor_checks_p' || to_char(day, 'YYYYMMDD');
+        EXECUTE format('CREATE TABLE %I PARTITION OF monitor_checks FOR VALUES FROM (%L) TO (%L) PARTITION BY LIST (retention_days)',
+                       partition_name, day::timestamp, (day + 1)::timestamp);
+        FOREACH tier IN ARRAY ARRAY[7, 30, 90, 365] LOOP
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES IN (%s)',
+                           partition_name || '_r' || tier, partition_name, tier);
+        END LOOP;
+        day := day + 1;
+    END LOOP;
+END $$;
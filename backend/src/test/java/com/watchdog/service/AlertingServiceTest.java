@@ -0,0 +1,157 @@
+package com.watchdog.service;
+
+import com.watchdog.entity.AlertConfiguration;
+import com.watchdog.entity.Monitor;
+import com.watchdog.entity.MonitorCheck;
+import com.watchdog.repository.MonitorCheckRepository;
+import com.watchdog.service.alerting.AlertThrottle;
+import com.watchdog.service.alerting.RecentCheckBuffer;
+import com.watchdog.service.notification.AlertEvent;
+import com.watchdog.service.notification.NotificationDispatcher;
+import com.watchdog.service.notification.PendingAlert;
+import com.watchdog.service.scheduling.WorkerMembership;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AlertingServiceTest {
+
+	private static final int FAILURE_THRESHOLD = 3;
+
+	private final List<MonitorCheck> storedChecks = new ArrayList<>();
+	private MonitorCheckRepository monitorCheckRepository;
+	private AlertConfigurationService alertConfigurationService;
+	private NotificationDispatcher notificationDispatcher;
+	private AlertThrottle alertThrottle;
+	private Monitor monitor;
+	private LocalDateTime clock;
+	private RecentCheckBuffer recentCheckBuffer;
+	private AlertingService alertingService;
+
+	@BeforeEach
+	void setUp() {
+		monitor = new Monitor();
+		monitor.setId(1L);
+		monitor.setUrl("https://example.com");
+		clock = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+		// Serves the stored checks the way the derived queries do: newest first, paged
+		monitorCheckRepository = mock(MonitorCheckRepository.class);
+		when(monitorCheckRepository.findByMonitor_IdOrderByTimestampDesc(eq(1L), any(Pageable.class)))
+				.thenAnswer(invocation -> storedChecksBefore(null, invocation.getArgument(1)));
+		when(monitorCheckRepository.findByMonitor_IdAndTimestampBeforeOrderByTimestampDesc(eq(1L), any(), any(Pageable.class)))
+				.thenAnswer(invocation -> storedChecksBefore(invocation.getArgument(1), invocation.getArgument(2)));
+
+		alertConfigurationService = mock(AlertConfigurationService.class);
+		notificationDispatcher = mock(NotificationDispatcher.class);
+		when(notificationDispatcher.supports(any())).thenReturn(true);
+		alertThrottle = mock(AlertThrottle.class);
+		when(alertThrottle.tryAcquire(anyLong(), anyLong(), any(), any())).thenReturn(true);
+		startNode();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 7, 8, 20})
+	void alertsRecoveryOnceAtRecoveryThreshold(int recoveryThreshold) {
+		useConfig(recoveryThreshold);
+
+		assertThat(check(true)).isEmpty();
+		for (int i = 1; i <= FAILURE_THRESHOLD + 2; i++) {
+			List<PendingAlert> alerts = check(false);
+			assertThat(alerts).hasSize(i == FAILURE_THRESHOLD ? 1 : 0);
+		}
+		for (int i = 1; i <= recoveryThreshold + 5; i++) {
+			List<PendingAlert> alerts = check(true);
+			if (i == recoveryThreshold) {
+				assertThat(alerts).singleElement().extracting(PendingAlert::event).isEqualTo(AlertEvent.UP);
+			} else {
+				assertThat(alerts).as("success %d", i).isEmpty();
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 7, 8, 20})
+	void alertsRecoveryAfterRestartFromStoredChecks(int recoveryThreshold) {
+		useConfig(recoveryThreshold);
+		for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+			check(false);
+		}
+		for (int i = 1; i < recoveryThreshold; i++) {
+			check(true);
+		}
+
+		startNode();
+		assertThat(check(true)).singleElement().extracting(PendingAlert::event).isEqualTo(AlertEvent.UP);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 7, 8, 20})
+	void noRecoveryAlertWithoutAlertedOutage(int recoveryThreshold) {
+		useConfig(recoveryThreshold);
+
+		for (int i = 0; i < FAILURE_THRESHOLD - 1; i++) {
+			check(false);
+		}
+		for (int i = 0; i < recoveryThreshold + 5; i++) {
+			assertThat(check(true)).isEmpty();
+		}
+	}
+
+	private void useConfig(int recoveryThreshold) {
+		AlertConfiguration config = new AlertConfiguration();
+		config.setId(10L);
+		config.setMonitor(monitor);
+		config.setType(AlertConfiguration.AlertType.EMAIL);
+		config.setDestination("ops@example.com");
+		config.setFailureThreshold(FAILURE_THRESHOLD);
+		config.setRecoveryThreshold(recoveryThreshold);
+		when(alertConfigurationService.getEnabledAlertConfigurationsForMonitor(1L)).thenReturn(List.of(config));
+	}
+
+	// A freshly started node, knowing the monitor's earlier checks only from the database
+	private void startNode() {
+		recentCheckBuffer = new RecentCheckBuffer(monitorCheckRepository, mock(WorkerMembership.class));
+		alertingService = new AlertingService(recentCheckBuffer, alertConfigurationService, notificationDispatcher, alertThrottle, 60);
+	}
+
+	// Does what WorkerService does with a check result
+	private List<PendingAlert> check(boolean isUp) {
+		clock = clock.plusMinutes(1);
+		MonitorCheck check = new MonitorCheck();
+		check.setMonitor(monitor);
+		check.setTimestamp(clock);
+		check.setIsUp(isUp);
+		check.setResponseTimeMs(100L);
+		storedChecks.add(check);
+
+		recentCheckBuffer.record(monitor, isUp, 100L, clock);
+		monitor.setLastCheckedAt(clock);
+		monitor.setConsecutiveSuccesses(isUp ? monitor.getConsecutiveSuccesses() + 1 : 0);
+		monitor.setConsecutiveFailures(isUp ? 0 : monitor.getConsecutiveFailures() + 1);
+		return alertingService.handleCheckResult(monitor);
+	}
+
+	private List<MonitorCheck> storedChecksBefore(LocalDateTime before, Pageable page) {
+		List<MonitorCheck> result = new ArrayList<>();
+		for (int i = storedChecks.size() - 1; i >= 0 && result.size() < page.getPageSize(); i--) {
+			MonitorCheck check = storedChecks.get(i);
+			if (before == null || check.getTimestamp().isBefore(before)) {
+				result.add(check);
+			}
+		}
+		return result;
+	}
+}
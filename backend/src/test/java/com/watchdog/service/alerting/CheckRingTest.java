@@ -0,0 +1,121 @@
+package com.watchdog.service.alerting;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckRingTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+	@Test
+	void newestCheckComesFirst() {
+		CheckRing ring = new CheckRing(4);
+		ring.add(true, 100L, START);
+		ring.add(false, null, START.plusSeconds(30));
+
+		assertThat(ring.size()).isEqualTo(2);
+		assertThat(ring.isUp(0)).isFalse();
+		assertThat(ring.responseTimeMs(0)).isNull();
+		assertThat(ring.timestamp(0)).isEqualTo(START.plusSeconds(30));
+		assertThat(ring.isUp(1)).isTrue();
+		assertThat(ring.responseTimeMs(1)).isEqualTo(100L);
+		assertThat(ring.timestamp(1)).isEqualTo(START);
+	}
+
+	@Test
+	void fullRingOverwritesTheOldestAndIsNoLongerComplete() {
+		CheckRing ring = new CheckRing(3);
+		ring.setComplete(true);
+		for (int i = 0; i < 5; i++) {
+			ring.add(i % 2 == 0, (long) i, START.plusMinutes(i));
+		}
+
+		assertThat(ring.size()).isEqualTo(3);
+		assertThat(ring.isComplete()).isFalse();
+		assertThat(ring.responseTimeMs(0)).isEqualTo(4L);
+		assertThat(ring.responseTimeMs(2)).isEqualTo(2L);
+		assertThat(ring.timestamp(2)).isEqualTo(START.plusMinutes(2));
+	}
+
+	@Test
+	void olderChecksAreInsertedBehindTheOldest() {
+		CheckRing ring = new CheckRing(4);
+		ring.add(true, 10L, START.plusMinutes(2));
+		ring.addOldest(false, 20L, START.plusMinutes(1));
+		ring.addOldest(false, 30L, START);
+
+		assertThat(ring.size()).isEqualTo(3);
+		assertThat(ring.responseTimeMs(0)).isEqualTo(10L);
+		assertThat(ring.responseTimeMs(1)).isEqualTo(20L);
+		assertThat(ring.responseTimeMs(2)).isEqualTo(30L);
+		assertThat(ring.timestamp(2)).isEqualTo(START);
+
+		ring.add(true, 40L, START.plusMinutes(3));
+		// Full: older checks no longer fit
+		ring.addOldest(true, 50L, START.minusMinutes(1));
+		assertThat(ring.size()).isEqualTo(4);
+		assertThat(ring.responseTimeMs(3)).isEqualTo(30L);
+	}
+
+	@Test
+	void growKeepsTheOrderOfAWrappedRing() {
+		CheckRing ring = new CheckRing(3);
+		for (int i = 0; i < 5; i++) {
+			ring.add(true, (long) i, START.plusMinutes(i));
+		}
+		ring.grow(6);
+		ring.add(false, 5L, START.plusMinutes(5));
+		ring.addOldest(true, 1L, START.plusMinutes(1));
+
+		assertThat(ring.capacity()).isEqualTo(6);
+		assertThat(ring.size()).isEqualTo(5);
+		for (int i = 0; i < 5; i++) {
+			assertThat(ring.responseTimeMs(i)).isEqualTo(5L - i);
+			assertThat(ring.timestamp(i)).isEqualTo(START.plusMinutes(5 - i));
+		}
+	}
+
+	@Test
+	void allMatchLooksAtTheChecksBeforeTheSkippedOnes() {
+		CheckRing ring = new CheckRing(8);
+		// Oldest first: up, down, down, down, up, up
+		boolean[] outcomes = {true, false, false, false, true, true};
+		for (int i = 0; i < outcomes.length; i++) {
+			ring.add(outcomes[i], 100L, START.plusMinutes(i));
+		}
+
+		assertThat(ring.allMatch(0, 2, true)).isTrue();
+		assertThat(ring.allMatch(2, 3, false)).isTrue();
+		assertThat(ring.allMatch(2, 4, false)).isFalse();
+		// Fewer checks than asked for
+		assertThat(ring.allMatch(4, 3, false)).isFalse();
+	}
+
+	@Test
+	void timestampsKeepMicrosecondsAndPreEpochDates() {
+		CheckRing ring = new CheckRing(2);
+		LocalDateTime precise = LocalDateTime.of(2025, 6, 30, 23, 59, 59, 123_456_000);
+		LocalDateTime preEpoch = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500_000_000);
+		ring.add(true, 1L, preEpoch);
+		ring.add(true, 1L, precise);
+
+		assertThat(ring.timestamp(0)).isEqualTo(precise);
+		assertThat(ring.timestamp(1)).isEqualTo(preEpoch);
+	}
+
+	@Test
+	void clearEmptiesTheRing() {
+		CheckRing ring = new CheckRing(2);
+		ring.add(true, 1L, START);
+		ring.setComplete(true);
+		ring.clear();
+
+		assertThat(ring.size()).isZero();
+		assertThat(ring.isComplete()).isFalse();
+		ring.add(false, 2L, START.plusMinutes(1));
+		assertThat(ring.responseTimeMs(0)).isEqualTo(2L);
+	}
+}
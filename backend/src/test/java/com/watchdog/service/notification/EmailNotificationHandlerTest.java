@@ -0,0 +1,166 @@
+package com.watchdog.service.notification;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.NoSuchProviderException;
+import jakarta.mail.Provider;
+import jakarta.mail.Session;
+import jakarta.mail.URLName;
+import jakarta.mail.internet.InternetAddress;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailNotificationHandlerTest {
+
+	@RegisterExtension
+	static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	private static final String REJECTED = "rejected@example.com";
+
+	private static final AtomicInteger connects = new AtomicInteger();
+	private static final AtomicInteger closes = new AtomicInteger();
+
+	private EmailNotificationHandler handler;
+
+	@BeforeEach
+	void resetCounters() {
+		connects.set(0);
+		closes.set(0);
+	}
+
+	@AfterEach
+	void shutdown() {
+		if (handler != null) {
+			handler.shutdown();
+		}
+	}
+
+	@Test
+	void sendsConcurrentEmailsInBatchesOverPooledConnections() throws Exception {
+		handler = handler(2, 60, 20);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<CompletableFuture<Void>> results = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				results.add(handler.sendNotificationAsync("ops" + i + "@example.com", "Monitor " + i + " is DOWN!", executor));
+			}
+			CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(greenMail.getReceivedMessages()).hasSize(40);
+		assertThat(connects.get()).isBetween(1, 2);
+		assertThat(closes.get()).isZero();
+	}
+
+	@Test
+	void rejectedRecipientFailsOnlyItsOwnEmail() throws Exception {
+		handler = handler(1, 60, 20);
+		// Queue all three before the first delivery task runs, so they are sent as one batch
+		List<Runnable> tasks = new ArrayList<>();
+		CompletableFuture<Void> first = handler.sendNotificationAsync("first@example.com", "first", tasks::add);
+		CompletableFuture<Void> rejected = handler.sendNotificationAsync(REJECTED, "rejected", tasks::add);
+		CompletableFuture<Void> last = handler.sendNotificationAsync("last@example.com", "last", tasks::add);
+		tasks.forEach(Runnable::run);
+
+		assertThat(first).isCompleted();
+		assertThat(last).isCompleted();
+		assertThatThrownBy(rejected::join)
+				.isInstanceOf(CompletionException.class)
+				.hasCauseInstanceOf(MailSendException.class);
+		assertThat(greenMail.getReceivedMessages()).hasSize(2);
+		assertThat(connects.get()).isEqualTo(1);
+		assertThat(closes.get()).isZero();
+	}
+
+	@Test
+	void idleEvictionClosesTheConnection() throws Exception {
+		handler = handler(2, 0, 20);
+		handler.sendNotification("ops@example.com", "Monitor is DOWN!");
+		assertThat(connects.get()).isEqualTo(1);
+		assertThat(closes.get()).isZero();
+
+		handler.evictIdleConnections();
+
+		assertThat(closes.get()).isEqualTo(1);
+		// The next email needs a new connection
+		handler.sendNotification("ops@example.com", "Monitor is UP again!");
+		assertThat(connects.get()).isEqualTo(2);
+		assertThat(greenMail.getReceivedMessages()).hasSize(2);
+	}
+
+	private static EmailNotificationHandler handler(int poolSize, int idleTimeoutSeconds, int batchSize)
+			throws NoSuchProviderException {
+		Session session = Session.getInstance(new Properties());
+		session.setProvider(new Provider(Provider.Type.TRANSPORT, "smtp", CountingSmtpTransport.class.getName(), "test", null));
+		JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+		mailSender.setSession(session);
+		mailSender.setHost(ServerSetupTest.SMTP.getBindAddress());
+		mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+		EmailNotificationHandler handler = new EmailNotificationHandler(mailSender, poolSize, idleTimeoutSeconds, batchSize);
+		ReflectionTestUtils.setField(handler, "senderEmail", "watchdog@example.com");
+		return handler;
+	}
+
+	/**
+	 * The regular SMTP transport, counting connections. GreenMail accepts every recipient, so the
+	 * transport rejects {@link #REJECTED} itself, the way it reports a 550 reply to RCPT TO.
+	 */
+	public static class CountingSmtpTransport extends SMTPTransport {
+
+		public CountingSmtpTransport(Session session, URLName urlName) {
+			super(session, urlName);
+		}
+
+		@Override
+		protected synchronized boolean protocolConnect(String host, int port, String user, String password)
+				throws MessagingException {
+			boolean connected = super.protocolConnect(host, port, user, password);
+			connects.incrementAndGet();
+			return connected;
+		}
+
+		@Override
+		public synchronized void sendMessage(Message message, Address[] addresses) throws MessagingException {
+			for (Address address : addresses) {
+				if (REJECTED.equals(((InternetAddress) address).getAddress())) {
+					throw new SMTPAddressFailedException((InternetAddress) address, "RCPT TO", 550,
+							"550 5.1.1 Mailbox unavailable");
+				}
+			}
+			super.sendMessage(message, addresses);
+		}
+
+		@Override
+		public synchronized void close() throws MessagingException {
+			if (isConnected()) {
+				closes.incrementAndGet();
+			}
+			super.close();
+		}
+	}
+}
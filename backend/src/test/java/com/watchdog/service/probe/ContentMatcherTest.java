@@ -0,0 +1,104 @@
+package com.watchdog.service.probe;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentMatcherTest {
+
+	@Test
+	void blankMatchStringHasNoMatcher() {
+		assertThat(ContentMatcher.forMatchString(null)).isNull();
+		assertThat(ContentMatcher.forMatchString(" \n\r\n ")).isNull();
+	}
+
+	@Test
+	void parsesOnePatternPerLineWithoutBlanksAndDuplicates() {
+		assertThat(ContentMatcher.parsePatterns("ok\r\n\nstatus: up\nok\n  \n"))
+				.containsExactly("ok", "status: up");
+	}
+
+	@Test
+	void findsPatternsReachedOnlyThroughFailureLinks() {
+		// "abce": after "abc" the "abcd" branch fails and must fall back to "bc" to find "bce";
+		// "c" is only ever reached as an output of deeper states
+		ContentMatcher matcher = ContentMatcher.forMatchString("abcd\nbce\nc");
+		assertThat(scanInOneChunk(matcher, "xxabcexx").getMissingPatterns()).containsExactly("abcd");
+		assertThat(scanInOneChunk(matcher, "xxabcdxx").getMissingPatterns()).containsExactly("bce");
+		assertThat(scanInOneChunk(matcher, "abcdabce").isComplete()).isTrue();
+	}
+
+	@Test
+	void findsOverlappingPatterns() {
+		ContentMatcher matcher = ContentMatcher.forMatchString("he\nshe\nhis\nhers");
+		assertThat(scanInOneChunk(matcher, "ushers").getMissingPatterns()).containsExactly("his");
+		assertThat(scanInOneChunk(matcher, "ushershis").isComplete()).isTrue();
+	}
+
+	@Test
+	void keepsTheMatchStateAcrossEveryChunkBoundary() {
+		ContentMatcher matcher = ContentMatcher.forMatchString("abcd\nbce\n\"status\":\"UP\"");
+		byte[] body = "..abcd..abce..{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+		for (int split = 0; split <= body.length; split++) {
+			ContentMatcher.Scan scan = matcher.newScan();
+			scan.feed(body, 0, split);
+			assertThat(scan.feed(body, split, body.length - split)).as("split at %d", split).isTrue();
+		}
+	}
+
+	@Test
+	void followsFailureLinksAcrossChunkBoundaries() {
+		// The failure from "abc" to "bc" happens on the byte after the boundary
+		ContentMatcher matcher = ContentMatcher.forMatchString("abcd\nbce");
+		ContentMatcher.Scan scan = matcher.newScan();
+		byte[] first = "xab".getBytes(StandardCharsets.UTF_8);
+		byte[] second = "c".getBytes(StandardCharsets.UTF_8);
+		byte[] third = "ex".getBytes(StandardCharsets.UTF_8);
+		scan.feed(first, 0, first.length);
+		scan.feed(second, 0, second.length);
+		scan.feed(third, 0, third.length);
+		assertThat(scan.getMissingPatterns()).containsExactly("abcd");
+	}
+
+	@Test
+	void matchesMultiByteCharactersSplitAcrossChunks() {
+		ContentMatcher matcher = ContentMatcher.forMatchString("Größe: 42");
+		byte[] body = "<p>Größe: 42</p>".getBytes(StandardCharsets.UTF_8);
+		for (int split = 0; split <= body.length; split++) {
+			ContentMatcher.Scan scan = matcher.newScan();
+			scan.feed(body, 0, split);
+			scan.feed(body, split, body.length - split);
+			assertThat(scan.isComplete()).as("split at %d", split).isTrue();
+		}
+	}
+
+	@Test
+	void byteByByteFeedingFindsTheSameAsOneChunk() {
+		ContentMatcher matcher = ContentMatcher.forMatchString("he\nshe\nhis\nhers\nabcd\nbce");
+		byte[] body = "ushers abce".getBytes(StandardCharsets.UTF_8);
+		ContentMatcher.Scan scan = matcher.newScan();
+		for (int i = 0; i < body.length; i++) {
+			scan.feed(body, i, 1);
+		}
+		assertThat(scan.getMissingPatterns())
+				.isEqualTo(scanInOneChunk(matcher, "ushers abce").getMissingPatterns())
+				.containsExactly("his", "abcd");
+	}
+
+	@Test
+	void honoursOffsetAndLength() {
+		ContentMatcher matcher = ContentMatcher.forMatchString("needle");
+		byte[] buffer = "needle|haystack|needle".getBytes(StandardCharsets.UTF_8);
+		assertThat(matcher.newScan().feed(buffer, 7, 8)).isFalse();
+		assertThat(matcher.newScan().feed(buffer, 16, 6)).isTrue();
+	}
+
+	private static ContentMatcher.Scan scanInOneChunk(ContentMatcher matcher, String body) {
+		ContentMatcher.Scan scan = matcher.newScan();
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		scan.feed(bytes, 0, bytes.length);
+		return scan;
+	}
+}
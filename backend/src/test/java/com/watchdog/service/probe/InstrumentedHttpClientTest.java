@@ -0,0 +1,243 @@
+package com.watchdog.service.probe;
+
+import com.watchdog.entity.Monitor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ProtocolException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class InstrumentedHttpClientTest {
+
+	private static final String OK = "HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok";
+
+	private final AtomicInteger connections = new AtomicInteger();
+	// Request lines ("GET /path HTTP/1.1") in the order received
+	private final List<String> requests = new CopyOnWriteArrayList<>();
+	private final ExecutorService serverThreads = Executors.newCachedThreadPool();
+
+	private ServerSocket server;
+	private DnsResolver dnsResolver;
+	private HttpConnectionPool connectionPool;
+	private InstrumentedHttpClient client;
+	// Maps a request line to the raw response; null closes the connection without a response
+	private volatile Function<String, String> handler;
+
+	@BeforeEach
+	void start() throws IOException {
+		server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		serverThreads.execute(() -> acceptLoop(server));
+		dnsResolver = new DnsResolver(new SimpleMeterRegistry(), 2000, 0, 300, 30);
+		connectionPool = new HttpConnectionPool(4, 30000);
+		client = new InstrumentedHttpClient(2000, 500, 5000, 1024 * 1024, connectionPool,
+				HttpProbeSupport.newClientSslContext(10, 0), dnsResolver);
+	}
+
+	@AfterEach
+	void stop() throws IOException {
+		connectionPool.closeAll();
+		dnsResolver.shutdown();
+		server.close();
+		serverThreads.shutdownNow();
+	}
+
+	@Test
+	void followsRedirectsOfHeadRequests() throws IOException {
+		handler = request -> request.startsWith("HEAD /old ")
+				? "HTTP/1.1 301 Moved Permanently\r\nLocation: /new\r\nContent-Length: 20\r\n\r\n"
+				: "HTTP/1.1 200 OK\r\nContent-Length: 20\r\n\r\n";
+
+		ProbeResult result = client.execute(monitor("/old", "HEAD"));
+
+		assertThat(result.getHttpStatusCode()).isEqualTo(200);
+		assertThat(requests).containsExactly("HEAD /old HTTP/1.1", "HEAD /new HTTP/1.1");
+		assertThat(connections.get()).isEqualTo(1);
+	}
+
+	@Test
+	void reusesKeepAliveConnections() throws IOException {
+		handler = request -> OK;
+
+		client.execute(monitor("/a", "GET"));
+		ProbeResult second = client.execute(monitor("/b", "GET"));
+
+		assertThat(second.getHttpStatusCode()).isEqualTo(200);
+		assertThat(second.getConnectTimeMs()).isZero();
+		assertThat(requests).hasSize(2);
+		assertThat(connections.get()).isEqualTo(1);
+	}
+
+	@Test
+	void retriesOnceWhenThePooledConnectionWasClosed() throws IOException {
+		// The first connection is closed after one response, without announcing it
+		handler = request -> requests.size() == 2 ? null : OK;
+
+		client.execute(monitor("/a", "GET"));
+		ProbeResult second = client.execute(monitor("/b", "GET"));
+
+		assertThat(second.getHttpStatusCode()).isEqualTo(200);
+		assertThat(requests).containsExactly("GET /a HTTP/1.1", "GET /b HTTP/1.1", "GET /b HTTP/1.1");
+		assertThat(connections.get()).isEqualTo(2);
+	}
+
+	@Test
+	void doesNotResendARequestThatTimedOutOnAPooledConnection() throws IOException {
+		handler = request -> {
+			if (request.startsWith("GET /slow ")) {
+				sleep(1500);
+			}
+			return OK;
+		};
+
+		client.execute(monitor("/a", "GET"));
+
+		assertThatThrownBy(() -> client.execute(monitor("/slow", "GET"))).isInstanceOf(SocketTimeoutException.class);
+		assertThat(requests).containsExactly("GET /a HTTP/1.1", "GET /slow HTTP/1.1");
+	}
+
+	@Test
+	void streamsChunkedBodiesAndKeepsTheConnection() throws IOException {
+		handler = request -> "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+				+ "7;ext=1\r\n{\"statu\r\n" + "8\r\ns\":\"UP\"}\r\n" + "0\r\nX-Trailer: 1\r\n\r\n";
+
+		ProbeResult first = client.execute(monitor("/health", "GET", "\"status\":\"UP\""));
+		ProbeResult second = client.execute(monitor("/health", "GET"));
+
+		assertThat(first.getContentMatched()).isTrue();
+		assertThat(first.isUp()).isTrue();
+		assertThat(second.getHttpStatusCode()).isEqualTo(200);
+		assertThat(connections.get()).isEqualTo(1);
+	}
+
+	@Test
+	void skipsInterimResponses() throws IOException {
+		handler = request -> "HTTP/1.1 100 Continue\r\n\r\nHTTP/1.1 103 Early Hints\r\nLink: </a.css>\r\n\r\n" + OK;
+
+		ProbeResult result = client.execute(monitor("/", "GET"));
+
+		assertThat(result.getHttpStatusCode()).isEqualTo(200);
+		assertThat(result.getResponseBodySize()).isEqualTo(2);
+	}
+
+	@Test
+	void acceptsRepeatedHeadersThatAgree() throws IOException {
+		handler = request -> "HTTP/1.1 200 OK\r\nContent-Length: 2\r\nContent-Length: 2\r\n"
+				+ "Connection: close\r\nConnection: keep-alive\r\n\r\nok";
+
+		ProbeResult result = client.execute(monitor("/", "GET"));
+		client.execute(monitor("/", "GET"));
+
+		assertThat(result.getResponseBodySize()).isEqualTo(2);
+		// The first Connection header is not lost
+		assertThat(connections.get()).isEqualTo(2);
+	}
+
+	@Test
+	void rejectsConflictingOrMalformedFraming() {
+		handler = request -> "HTTP/1.1 200 OK\r\nContent-Length: 2\r\nContent-Length: 3\r\n\r\nok";
+		assertThatThrownBy(() -> client.execute(monitor("/", "GET"))).isInstanceOf(ProtocolException.class);
+
+		handler = request -> "HTTP/1.1 200 OK\r\nContent-Length: two\r\n\r\nok";
+		assertThatThrownBy(() -> client.execute(monitor("/", "GET"))).isInstanceOf(ProtocolException.class);
+
+		handler = request -> "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\nzz\r\nok\r\n0\r\n\r\n";
+		assertThatThrownBy(() -> client.execute(monitor("/", "GET", "ok"))).isInstanceOf(ProtocolException.class);
+	}
+
+	@Test
+	void connectsToIpv6Literals() throws IOException {
+		ServerSocket ipv6Server;
+		try {
+			ipv6Server = new ServerSocket(0, 50, InetAddress.getByName("::1"));
+		} catch (IOException e) {
+			assumeTrue(false, "No IPv6 loopback");
+			return;
+		}
+		try (ipv6Server) {
+			serverThreads.execute(() -> acceptLoop(ipv6Server));
+			handler = request -> OK;
+			Monitor monitor = monitor("/", "GET");
+			monitor.setUrl("http://[::1]:" + ipv6Server.getLocalPort() + "/");
+
+			ProbeResult result = client.execute(monitor);
+
+			assertThat(result.getHttpStatusCode()).isEqualTo(200);
+			assertThat(result.getTlsTimeMs()).isNull();
+		}
+	}
+
+	private Monitor monitor(String path, String method) {
+		return monitor(path, method, null);
+	}
+
+	private Monitor monitor(String path, String method, String contentMatch) {
+		Monitor monitor = new Monitor();
+		monitor.setId(1L);
+		monitor.setUrl("http://127.0.0.1:" + server.getLocalPort() + path);
+		monitor.setHttpMethod(method);
+		monitor.setContentMatchString(contentMatch);
+		return monitor;
+	}
+
+	private void acceptLoop(ServerSocket server) {
+		while (!server.isClosed()) {
+			try {
+				Socket socket = server.accept();
+				connections.incrementAndGet();
+				serverThreads.execute(() -> serve(socket));
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	// Answers requests on one connection until the client or the handler closes it
+	private void serve(Socket socket) {
+		try (socket) {
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+			OutputStream out = socket.getOutputStream();
+			for (String requestLine = in.readLine(); requestLine != null; requestLine = in.readLine()) {
+				for (String header = in.readLine(); header != null && !header.isEmpty(); header = in.readLine()) {
+					// The probes send no body
+				}
+				requests.add(requestLine);
+				String response = handler.apply(requestLine);
+				if (response == null) {
+					return;
+				}
+				out.write(response.getBytes(StandardCharsets.ISO_8859_1));
+				out.flush();
+			}
+		} catch (IOException e) {
+			// Client went away
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.watchdog.service.rollup;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class LatencyHistogramTest {
+
+	@Test
+	void zeroAndNegativeResponseTimesGoToTheFirstBucket() {
+		assertThat(LatencyHistogram.bucketOf(0)).isZero();
+		assertThat(LatencyHistogram.bucketOf(-5)).isZero();
+		assertThat(LatencyHistogram.bucketOf(1)).isEqualTo(1);
+	}
+
+	@Test
+	void everyResponseTimeFallsBetweenItsBucketBounds() {
+		int previous = 0;
+		for (long ms = 1; ms <= 300_000; ms++) {
+			int bucket = LatencyHistogram.bucketOf(ms);
+			assertThat(bucket).isGreaterThanOrEqualTo(previous);
+			if (bucket < LatencyHistogram.BUCKETS - 1) {
+				// Bucket i counts [1.3^(i-1), 1.3^i)
+				assertThat((double) ms).as("%d ms", ms)
+						.isGreaterThanOrEqualTo(Math.pow(1.3, bucket - 1))
+						.isLessThan(Math.pow(1.3, bucket));
+			}
+			previous = bucket;
+		}
+	}
+
+	@Test
+	void bucketsChangeExactlyAtPowersOfTheRatio() {
+		assertThat(LatencyHistogram.bucketOf(2)).isEqualTo(3);   // [1.69, 2.197)
+		assertThat(LatencyHistogram.bucketOf(3)).isEqualTo(5);   // [2.8561, 3.71293)
+		assertThat(LatencyHistogram.bucketOf(137)).isEqualTo(19); // [112.46, 146.19)
+		assertThat(LatencyHistogram.bucketOf(146)).isEqualTo(19);
+		assertThat(LatencyHistogram.bucketOf(147)).isEqualTo(20);
+	}
+
+	@Test
+	void lastBucketHoldsEverythingFromAboutThreeMinutes() {
+		int last = LatencyHistogram.BUCKETS - 1;
+		long lastLowerBound = (long) Math.ceil(Math.pow(1.3, last - 1));
+		assertThat(lastLowerBound).isBetween(150_000L, 200_000L);
+		assertThat(LatencyHistogram.bucketOf(lastLowerBound - 1)).isEqualTo(last - 1);
+		assertThat(LatencyHistogram.bucketOf(lastLowerBound)).isEqualTo(last);
+		assertThat(LatencyHistogram.bucketOf(3_600_000)).isEqualTo(last);
+		assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE)).isEqualTo(last);
+	}
+
+	@Test
+	void storedCountsOfAnotherLengthArePaddedOrCut() {
+		assertThat(new LatencyHistogram(new int[] {1, 2}).getCounts())
+				.hasSize(LatencyHistogram.BUCKETS)
+				.startsWith(1, 2, 0);
+		assertThat(new LatencyHistogram(new int[LatencyHistogram.BUCKETS + 5]).getCounts())
+				.hasSize(LatencyHistogram.BUCKETS);
+	}
+
+	@Test
+	void mergeAddsBucketByBucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(0);
+		histogram.record(100);
+		LatencyHistogram other = new LatencyHistogram();
+		other.record(100);
+		other.record(5000);
+
+		LatencyDistribution distribution = new LatencyDistribution();
+		distribution.add(2, 0, 100, histogram);
+		distribution.add(2, 100, 5000, other);
+
+		long[] counts = distribution.getCounts();
+		assertThat(counts[0]).isEqualTo(1);
+		assertThat(counts[LatencyHistogram.bucketOf(100)]).isEqualTo(2);
+		assertThat(counts[LatencyHistogram.bucketOf(5000)]).isEqualTo(1);
+		assertThat(distribution.getCount()).isEqualTo(4);
+	}
+
+	@Test
+	void mergedCountsDoNotOverflowAnInt() {
+		int[] full = new int[LatencyHistogram.BUCKETS];
+		full[LatencyHistogram.bucketOf(100)] = Integer.MAX_VALUE;
+		LatencyDistribution distribution = new LatencyDistribution();
+		distribution.add(Integer.MAX_VALUE, 100, 100, new LatencyHistogram(full));
+		LatencyDistribution other = new LatencyDistribution();
+		other.add(Integer.MAX_VALUE, 100, 100, new LatencyHistogram(full));
+
+		distribution.merge(other);
+
+		assertThat(distribution.getCounts()[LatencyHistogram.bucketOf(100)]).isEqualTo(2L * Integer.MAX_VALUE);
+		assertThat(distribution.percentile(99)).isEqualTo(100);
+	}
+
+	@Test
+	void percentilesAreClampedToTheRecordedRange() {
+		LatencyHistogram empty = new LatencyHistogram();
+		assertThat(empty.percentile(50, 0, 0)).isNull();
+
+		LatencyHistogram single = new LatencyHistogram();
+		single.record(120);
+		assertThat(single.percentile(1, 120, 120)).isEqualTo(120);
+		assertThat(single.percentile(100, 120, 120)).isEqualTo(120);
+	}
+
+	// Log-normal response times of different medians and spreads, merged like LatencyPercentileService does
+	@ParameterizedTest
+	@CsvSource({"20, 0.8", "50, 1.0", "200, 0.5", "1000, 0.3"})
+	void mergedPercentilesAreWithinFivePercentOfExactValues(double medianMs, double sigma) {
+		int samples = 100_000;
+		Random random = new Random(42);
+		long[] responseTimes = new long[samples];
+		// One histogram per rollup bucket, merged afterwards
+		LatencyHistogram[] rollups = new LatencyHistogram[60];
+		Arrays.setAll(rollups, i -> new LatencyHistogram());
+		for (int i = 0; i < samples; i++) {
+			responseTimes[i] = Math.round(medianMs * Math.exp(sigma * random.nextGaussian()));
+			rollups[i % rollups.length].record(responseTimes[i]);
+		}
+		Arrays.sort(responseTimes);
+		long min = responseTimes[0];
+		long max = responseTimes[samples - 1];
+		LatencyDistribution merged = new LatencyDistribution();
+		for (LatencyHistogram rollup : rollups) {
+			merged.add(Arrays.stream(rollup.getCounts()).sum(), min, max, rollup);
+		}
+
+		for (double percentile : new double[] {50, 90, 95, 99, 99.9}) {
+			long exact = responseTimes[(int) Math.ceil(percentile / 100 * samples) - 1];
+			assertThat(merged.percentile(percentile))
+					.as("p%s of median %s ms, sigma %s", percentile, medianMs, sigma)
+					.isCloseTo(exact, withinPercentage(5));
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.watchdog.service.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+	private static final int VIRTUAL_NODES = 128;
+	private static final int MONITORS = 30_000;
+
+	@Test
+	void emptyRingHasNoOwner() {
+		ConsistentHashRing ring = new ConsistentHashRing(List.of(), VIRTUAL_NODES);
+		assertThat(ring.isEmpty()).isTrue();
+		assertThat(ring.ownerOf(1)).isNull();
+	}
+
+	@Test
+	void singleNodeOwnsEverything() {
+		ConsistentHashRing ring = new ConsistentHashRing(List.of("node-a"), VIRTUAL_NODES);
+		for (long monitorId = 1; monitorId <= 1000; monitorId++) {
+			assertThat(ring.ownerOf(monitorId)).isEqualTo("node-a");
+		}
+	}
+
+	@Test
+	void assignmentDoesNotDependOnNodeOrder() {
+		ConsistentHashRing ring = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+		ConsistentHashRing reordered = new ConsistentHashRing(List.of("node-c", "node-a", "node-b"), VIRTUAL_NODES);
+		for (long monitorId = 1; monitorId <= MONITORS; monitorId++) {
+			assertThat(reordered.ownerOf(monitorId)).isEqualTo(ring.ownerOf(monitorId));
+		}
+		assertThat(ring.getNodes()).containsExactly("node-a", "node-b", "node-c");
+	}
+
+	@Test
+	void sequentialMonitorIdsAreSpreadEvenly() {
+		List<String> nodes = List.of("node-a", "node-b", "node-c", "node-d");
+		ConsistentHashRing ring = new ConsistentHashRing(nodes, VIRTUAL_NODES);
+		Map<String, Integer> shares = new HashMap<>();
+		for (long monitorId = 1; monitorId <= MONITORS; monitorId++) {
+			shares.merge(ring.ownerOf(monitorId), 1, Integer::sum);
+		}
+		int fairShare = MONITORS / nodes.size();
+		assertThat(shares).containsOnlyKeys(nodes);
+		assertThat(shares.values()).allSatisfy(share ->
+				assertThat(share).isBetween((int) (fairShare * 0.75), (int) (fairShare * 1.25)));
+	}
+
+	@Test
+	void joiningNodeOnlyTakesOverMonitors() {
+		ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+		ConsistentHashRing after = new ConsistentHashRing(List.of("node-a", "node-b", "node-c", "node-d"), VIRTUAL_NODES);
+		int moved = 0;
+		for (long monitorId = 1; monitorId <= MONITORS; monitorId++) {
+			String owner = after.ownerOf(monitorId);
+			if (!owner.equals(before.ownerOf(monitorId))) {
+				// Monitors only move to the new node, never between the existing ones
+				assertThat(owner).isEqualTo("node-d");
+				moved++;
+			}
+		}
+		// About a quarter of the monitors move
+		assertThat(moved).isBetween(MONITORS / 4 - MONITORS / 16, MONITORS / 4 + MONITORS / 16);
+	}
+
+	@Test
+	void leavingNodeOnlyHandsOffItsOwnMonitors() {
+		ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+		ConsistentHashRing after = new ConsistentHashRing(List.of("node-a", "node-c"), VIRTUAL_NODES);
+		for (long monitorId = 1; monitorId <= MONITORS; monitorId++) {
+			String owner = before.ownerOf(monitorId);
+			if (!owner.equals("node-b")) {
+				assertThat(after.ownerOf(monitorId)).isEqualTo(owner);
+			}
+		}
+	}
+}
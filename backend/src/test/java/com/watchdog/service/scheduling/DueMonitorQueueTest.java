@@ -0,0 +1,86 @@
+package com.watchdog.service.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DueMonitorQueueTest {
+
+	@Test
+	void pollsInDeadlineOrderAcrossGrowth() {
+		DueMonitorQueue queue = new DueMonitorQueue();
+		Random random = new Random(7);
+		List<Long> deadlines = new ArrayList<>();
+		// More than the initial capacity of 64, so the arrays grow several times
+		for (long monitorId = 0; monitorId < 1000; monitorId++) {
+			long deadline = random.nextInt(10_000);
+			deadlines.add(deadline);
+			queue.add(monitorId, deadline);
+		}
+		assertThat(queue.size()).isEqualTo(1000);
+
+		long previous = Long.MIN_VALUE;
+		while (!queue.isEmpty()) {
+			long deadline = queue.peekDeadline();
+			long monitorId = queue.peekMonitorId();
+			assertThat(deadline).isGreaterThanOrEqualTo(previous);
+			// The monitor ID travels with its own deadline
+			assertThat(deadlines.get((int) monitorId)).isEqualTo(deadline);
+			previous = deadline;
+			queue.poll();
+		}
+		assertThat(queue.size()).isZero();
+	}
+
+	@Test
+	void interleavedAddsAndPollsKeepTheEarliestOnTop() {
+		DueMonitorQueue queue = new DueMonitorQueue();
+		queue.add(1, 300);
+		queue.add(2, 100);
+		queue.add(3, 200);
+		assertThat(queue.peekMonitorId()).isEqualTo(2);
+		queue.poll();
+
+		// Rescheduled monitors go back in with later deadlines
+		queue.add(2, 400);
+		queue.add(4, 150);
+		assertThat(queue.peekMonitorId()).isEqualTo(4);
+		queue.poll();
+		assertThat(queue.peekMonitorId()).isEqualTo(3);
+		queue.poll();
+		assertThat(queue.peekMonitorId()).isEqualTo(1);
+		queue.poll();
+		assertThat(queue.peekMonitorId()).isEqualTo(2);
+		assertThat(queue.peekDeadline()).isEqualTo(400);
+	}
+
+	@Test
+	void equalDeadlinesAreAllReturned() {
+		DueMonitorQueue queue = new DueMonitorQueue();
+		for (long monitorId = 1; monitorId <= 5; monitorId++) {
+			queue.add(monitorId, 1000);
+		}
+		List<Long> polled = new ArrayList<>();
+		while (!queue.isEmpty()) {
+			polled.add(queue.peekMonitorId());
+			queue.poll();
+		}
+		assertThat(polled).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+	}
+
+	@Test
+	void clearEmptiesTheQueue() {
+		DueMonitorQueue queue = new DueMonitorQueue();
+		queue.add(1, 10);
+		queue.add(2, 20);
+		queue.clear();
+		assertThat(queue.isEmpty()).isTrue();
+
+		queue.add(3, 30);
+		assertThat(queue.peekMonitorId()).isEqualTo(3);
+	}
+}